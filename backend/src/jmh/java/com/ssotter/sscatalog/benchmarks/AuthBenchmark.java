@@ -0,0 +1,83 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.ssotter.sscatalog.config.SecurityConfig;
+import com.ssotter.sscatalog.services.security.TokenRevocations;
+import com.ssotter.sscatalog.services.security.TokenService;
+
+/**
+ * What a bearer token costs: authenticate is the per-request work (HS256
+ * check, claim validation, revocation lookup, authorities), issue the
+ * per-login signing on top of BCrypt. Both stay in microseconds, against the
+ * session lookup or user query they replace.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class AuthBenchmark {
+	
+	private JwtEncoder encoder;
+	private JwtDecoder decoder;
+	private JwtAuthenticationConverter converter;
+	private String token;
+	private long next;
+	
+	@Setup
+	public void setUp() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		SecretKey key = SecurityConfig.secretKey(Base64.getEncoder().encodeToString(secret));
+		TokenRevocations revocations = new TokenRevocations(Duration.ofHours(1));
+		for (long id = 1000; id < 11000; id++) {
+			revocations.revoke(id);
+		}
+		encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+		decoder = SecurityConfig.decoder(key, revocations);
+		converter = SecurityConfig.authenticationConverter();
+		token = issue();
+	}
+	
+	@Benchmark
+	public AbstractAuthenticationToken authenticate() {
+		return converter.convert(decoder.decode(token));
+	}
+	
+	@Benchmark
+	public String issue() {
+		Instant now = Instant.now();
+		JwtClaimsSet claims = JwtClaimsSet.builder()
+				.subject(Long.toString(next++ & 1023))
+				.issuedAt(now)
+				.expiresAt(now.plusSeconds(3600))
+				.claim(TokenService.ROLES_CLAIM, List.of("ROLE_ADMIN", "ROLE_OPERATOR"))
+				.build();
+		return encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+				.getTokenValue();
+	}
+}
@@ -0,0 +1,46 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.entities.Role;
+import com.ssotter.sscatalog.entities.User;
+
+/**
+ * Entities shaped like the import.sql seed, so the numbers reflect the
+ * string and collection sizes the application actually maps.
+ */
+public class BenchmarkData {
+	
+	private static final String DESCRIPTION = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do "
+			+ "eiusmod tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud "
+			+ "exercitation ullamco laboris nisi ut aliquip ex ea commodo consequat.";
+	
+	public static Product product(long id) {
+		Product product = new Product(id, "PC Gamer " + id, DESCRIPTION, 1200.0 + id,
+				"https://raw.githubusercontent.com/devsuperior/dscatalog-resources/master/backend/img/" + id + "-big.jpg",
+				Instant.parse("2020-07-14T10:00:00Z").plusSeconds(id));
+		product.getCategories().add(new Category(2L, "Eletrônicos"));
+		product.getCategories().add(new Category(3L, "Computadores"));
+		return product;
+	}
+	
+	public static List<Product> products(int size) {
+		List<Product> list = new ArrayList<>(size);
+		for (long i = 1; i <= size; i++) {
+			list.add(product(i));
+		}
+		return list;
+	}
+	
+	public static User user(long id) {
+		User user = new User(id, "Maria", "Green", "maria" + id + "@gmail.com",
+				"$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG");
+		user.getRoles().add(new Role(1L, "ROLE_OPERATOR"));
+		user.getRoles().add(new Role(2L, "ROLE_ADMIN"));
+		return user;
+	}
+}
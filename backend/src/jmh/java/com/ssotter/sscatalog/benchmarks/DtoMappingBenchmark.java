@@ -0,0 +1,46 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.dto.UserDTO;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.entities.User;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+	
+	private Product product;
+	private User user;
+	
+	@Setup
+	public void setUp() {
+		product = BenchmarkData.product(1L);
+		user = BenchmarkData.user(1L);
+	}
+	
+	@Benchmark
+	public ProductDTO productDto() {
+		return new ProductDTO(product);
+	}
+	
+	@Benchmark
+	public ProductDTO productDtoWithCategories() {
+		return new ProductDTO(product, product.getCategories());
+	}
+	
+	@Benchmark
+	public UserDTO userDto() {
+		return new UserDTO(user);
+	}
+}
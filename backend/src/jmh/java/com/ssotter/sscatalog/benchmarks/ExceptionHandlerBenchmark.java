@@ -0,0 +1,60 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.resources.ProductResource;
+import com.ssotter.sscatalog.resources.exceptions.ResorceExceptionHandler;
+import com.ssotter.sscatalog.resources.exceptions.StandardError;
+import com.ssotter.sscatalog.resources.exceptions.ValidationError;
+import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+	
+	private ResorceExceptionHandler handler;
+	private MockHttpServletRequest request;
+	private ResourceNotFoundException notFound;
+	private MethodArgumentNotValidException notValid;
+	
+	@Setup
+	public void setUp() throws NoSuchMethodException {
+		handler = new ResorceExceptionHandler();
+		request = new MockHttpServletRequest("POST", "/products");
+		notFound = new ResourceNotFoundException("Entity not found");
+		
+		ProductDTO dto = new ProductDTO();
+		BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(dto, "productDTO");
+		bindingResult.addError(new FieldError("productDTO", "name", "Campo obrigatório"));
+		bindingResult.addError(new FieldError("productDTO", "description", "Campo obrigatório"));
+		bindingResult.addError(new FieldError("productDTO", "price", "O preço deve ter um valor positivo"));
+		MethodParameter parameter = new MethodParameter(ProductResource.class.getMethod("insert", ProductDTO.class), 0);
+		notValid = new MethodArgumentNotValidException(parameter, bindingResult);
+	}
+	
+	@Benchmark
+	public ResponseEntity<StandardError> standardError() {
+		return handler.entityNotFound(notFound, request);
+	}
+	
+	@Benchmark
+	public ResponseEntity<ValidationError> validationError() {
+		return handler.validation(notValid, request);
+	}
+}
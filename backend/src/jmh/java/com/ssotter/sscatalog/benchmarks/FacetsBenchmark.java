@@ -0,0 +1,64 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
+
+/**
+ * Category and price bucket counts over the whole catalog and over a filter
+ * that keeps about a third of it, each in one pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FacetsBenchmark {
+	
+	private static final double[] BOUNDS = { 100.0, 500.0, 1000.0, 5000.0 };
+	
+	@Param({ "1000000" })
+	private int products;
+	
+	@Param({ "20" })
+	private int categories;
+	
+	private ProductColumns columns;
+	private RoaringBitmap filter;
+	
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		columns = new ProductColumns();
+		filter = new RoaringBitmap();
+		for (int id = 1; id <= products; id++) {
+			long first = 1 + random.nextInt(categories);
+			long second = 1 + random.nextInt(categories);
+			columns.put((long) id, random.nextDouble() * 6000, null, List.of(first, second));
+			if (random.nextInt(3) == 0) {
+				filter.add(id);
+			}
+		}
+		filter.runOptimize();
+	}
+	
+	@Benchmark
+	public ProductColumns.Facets allProducts() {
+		return columns.facets(null, BOUNDS);
+	}
+	
+	@Benchmark
+	public ProductColumns.Facets filtered() {
+		return columns.facets(filter, BOUNDS);
+	}
+}
@@ -0,0 +1,44 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.entities.Product;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PageMappingBenchmark {
+	
+	@Param({ "20", "200", "2000" })
+	private int size;
+	
+	private Page<Product> page;
+	
+	@Setup
+	public void setUp() {
+		page = new PageImpl<>(BenchmarkData.products(size), PageRequest.of(0, size), size * 10L);
+	}
+	
+	@Benchmark
+	public Page<ProductDTO> map() {
+		return page.map(x -> new ProductDTO(x));
+	}
+	
+	@Benchmark
+	public Page<ProductDTO> mapWithCategories() {
+		return page.map(x -> new ProductDTO(x, x.getCategories()));
+	}
+}
@@ -0,0 +1,51 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+/**
+ * Serializes the body GET /products returns. The mapper comes from the same
+ * builder defaults Spring Boot applies to the application's ObjectMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+	
+	@Param({ "20", "200", "2000" })
+	private int size;
+	
+	@Param({ "false", "true" })
+	private boolean withCategories;
+	
+	private ObjectMapper objectMapper;
+	private Page<ProductDTO> page;
+	
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		page = new PageImpl<>(BenchmarkData.products(size), PageRequest.of(0, size), size * 10L)
+				.map(x -> withCategories ? new ProductDTO(x, x.getCategories()) : new ProductDTO(x));
+	}
+	
+	@Benchmark
+	public byte[] serialize() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
@@ -0,0 +1,78 @@
+package com.ssotter.sscatalog.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ssotter.sscatalog.dto.SuggestionDTO;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+
+/**
+ * Typeahead lookups against names made of two to four catalog words. Sample
+ * time mode reports the p99 the suggest endpoint is budgeted on; setup prints
+ * the estimated memory per indexed name.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SuggestBenchmark {
+	
+	private static final String[] WORDS = { "PC", "Gamer", "Notebook", "Monitor", "Teclado", "Mouse", "Câmera",
+			"Digital", "Smart", "TV", "Livro", "Fone", "Bluetooth", "Cadeira", "Mesa", "Pro", "Max", "Ultra",
+			"Mini", "Eletrônico", "Impressora", "Roteador", "Tablet", "Console" };
+	
+	@Param({ "100000" })
+	private int names;
+	
+	private NameSuggester suggester;
+	private String[] prefixes;
+	private int next;
+	
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		Map<Long, String> map = new HashMap<>();
+		for (long id = 1; id <= names; id++) {
+			StringBuilder name = new StringBuilder();
+			int words = 2 + random.nextInt(3);
+			for (int w = 0; w < words; w++) {
+				name.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+			}
+			map.put(id, name.append(' ').append(id).toString());
+		}
+		suggester = new NameSuggester();
+		suggester.replaceAll(map);
+		System.out.printf("%n%d names, %d keys, %d bytes, %.1f bytes per name%n", suggester.getNameCount(),
+				suggester.getKeyCount(), suggester.getEstimatedBytes(),
+				(double) suggester.getEstimatedBytes() / suggester.getNameCount());
+		
+		prefixes = new String[1024];
+		for (int i = 0; i < prefixes.length; i++) {
+			String word = WORDS[random.nextInt(WORDS.length)];
+			prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+		}
+	}
+	
+	@Benchmark
+	public List<SuggestionDTO> suggest() {
+		return suggester.suggest(prefixes[next++ & (prefixes.length - 1)], 10);
+	}
+	
+	@Benchmark
+	public void putAndSuggest(Blackhole blackhole) {
+		suggester.put((long) names, "Notebook Gamer " + next);
+		blackhole.consume(suggester.suggest(prefixes[next++ & (prefixes.length - 1)], 10));
+	}
+}
@@ -0,0 +1,136 @@
+package com.ssotter.sscatalog.loadtest;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.repositories.CategoryRepository;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.UserService;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
+import com.ssotter.sscatalog.services.filter.CategoryBitmaps;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.security.TokenService;
+
+/**
+ * Starts the application on a random port with the embedded H2 database,
+ * tops the catalog up to loadtest.products rows and drives it with
+ * {@link LoadGenerator}. Run with:
+ * mvn -Ploadtest test -Dloadtest.rate=300 -Dloadtest.products=50000
+ * Reports go to target/loadtest/{loadtest.name}.json and .txt.
+ * 
+ * Request pool size against the Hikari pool, with a database slow enough
+ * that the Tomcat pool fills:
+ * mvn -Ploadtest test -Dloadtest.name=threads-200 -Dloadtest.rate=2500 -Dloadtest.db-latency=20
+ * mvn -Ploadtest test -Dloadtest.name=threads-50 -Dloadtest.rate=2500 -Dloadtest.db-latency=20 -Dserver.tomcat.threads.max=50
+ * then diff the two reports in target/loadtest. Set loadtest.mix so some
+ * endpoints are served from memory (suggest, get-product); those are the
+ * ones a full Tomcat pool starves.
+ * 
+ * Servlet against R2DBC reads, same mix on both stacks:
+ * mvn -Ploadtest test -Dloadtest.name=servlet -Dloadtest.mix=list-products=60,get-product=30,list-categories=10
+ * mvn -Ploadtest test -Dloadtest.name=reactive -Dloadtest.mix=reactive-list-products=60,reactive-get-product=30,reactive-list-categories=10
+ * loadtest.db-latency only slows the JDBC path, and r2dbc-h2 runs its
+ * statements on the subscribing thread, so against H2 this compares request
+ * handling and mapping only, and the reactive run is expected to be no
+ * better. The only comparison made so far is that one, at 40 req/s. Any
+ * benefit has to be shown against Postgres (sscatalog.r2dbc.url and the
+ * JDBC url pointing at it) at a rate that fills the Hikari and R2DBC pools.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@Import(DatabaseLatency.class)
+public class CatalogLoadTest {
+	
+	private static final int SEED_CHUNK = 1000;
+	
+	@LocalServerPort
+	private int port;
+	
+	@Autowired
+	private ProductRepository productRepository;
+	
+	@Autowired
+	private CategoryRepository categoryRepository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private NameSuggester nameSuggester;
+	
+	@Autowired
+	private CategoryBitmaps categoryBitmaps;
+	
+	@Autowired
+	private ProductColumns productColumns;
+	
+	@Autowired
+	private DatabaseLatency databaseLatency;
+	
+	@Autowired
+	private UserService userService;
+	
+	@Autowired
+	private TokenService tokenService;
+	
+	@Test
+	public void run() throws Exception {
+		LoadTestSettings settings = new LoadTestSettings();
+		long[] productIds = seed(settings.getProducts());
+		// the seed bypasses ProductService, so the in-memory views reload once
+		nameSuggester.load();
+		categoryBitmaps.load();
+		productColumns.load();
+		databaseLatency.start();
+		
+		HttpClient client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+		// writes need an operator or admin; maria is both
+		String authorization = "Bearer " + tokenService.issue(userService.findById(2L)).getAccessToken();
+		LoadGenerator generator = new LoadGenerator(client, "http://localhost:" + port, settings, productIds,
+				objectMapper, authorization);
+		LoadReport report = generator.run();
+		report.write(objectMapper);
+		System.out.print(report.toText());
+	}
+	
+	private long[] seed(int size) {
+		List<Long> ids = new ArrayList<>();
+		productRepository.findAll().forEach(p -> ids.add(p.getId()));
+		List<Category> categories = categoryRepository.findAll();
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		
+		while (ids.size() < size) {
+			int n = Math.min(SEED_CHUNK, size - ids.size());
+			List<Product> chunk = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				long k = ids.size() + i;
+				Product product = new Product(null, "Seed product " + k, "Seeded for the load test, row " + k,
+						10.0 + k % 5000, "https://img.com/" + k + ".png", Instant.parse("2020-01-01T00:00:00Z").plusSeconds(k * 60));
+				product.getCategories().add(categories.get((int) (k % categories.size())));
+				chunk.add(product);
+			}
+			ids.addAll(template.execute(status -> productRepository.insertAll(chunk)));
+		}
+		return ids.stream().mapToLong(Long::longValue).toArray();
+	}
+}
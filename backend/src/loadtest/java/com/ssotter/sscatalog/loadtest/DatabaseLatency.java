@@ -0,0 +1,54 @@
+package com.ssotter.sscatalog.loadtest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Makes the embedded database behave like a remote one under strain: once
+ * started, every statement waits loadtest.db-latency milliseconds before it
+ * runs, with its connection checked out and the request thread blocked, as
+ * on a socket read.
+ */
+public class DatabaseLatency implements BeanPostProcessor {
+	
+	private final long latencyNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("loadtest.db-latency", 0L));
+	private volatile boolean started;
+	
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (latencyNanos > 0 && bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+			return ProxyDataSourceBuilder.create((DataSource) bean).listener(new QueryExecutionListener() {
+				@Override
+				public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+					if (started) {
+						try {
+							TimeUnit.NANOSECONDS.sleep(latencyNanos);
+						}
+						catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				}
+				
+				@Override
+				public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+				}
+			}).build();
+		}
+		return bean;
+	}
+	
+	public void start() {
+		started = true;
+	}
+}
@@ -0,0 +1,44 @@
+package com.ssotter.sscatalog.loadtest;
+
+/**
+ * Operations the generator can mix. The key is what loadtest.mix refers to,
+ * the label is how the operation appears in the report.
+ */
+public enum Endpoint {
+	
+	LIST_PRODUCTS("list-products", "GET /products"),
+	GET_PRODUCT("get-product", "GET /products/{id}"),
+	LIST_CATEGORIES("list-categories", "GET /categories"),
+	CREATE_PRODUCT("create-product", "POST /products"),
+	UPDATE_PRODUCT("update-product", "PUT /products/{id}"),
+	CREATE_USER("create-user", "POST /users"),
+	SUGGEST("suggest", "GET /products/suggest"),
+	REACTIVE_LIST_PRODUCTS("reactive-list-products", "GET /reactive/products"),
+	REACTIVE_GET_PRODUCT("reactive-get-product", "GET /reactive/products/{id}"),
+	REACTIVE_LIST_CATEGORIES("reactive-list-categories", "GET /reactive/categories");
+	
+	private final String key;
+	private final String label;
+	
+	private Endpoint(String key, String label) {
+		this.key = key;
+		this.label = label;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+	
+	public static Endpoint fromKey(String key) {
+		for (Endpoint endpoint : values()) {
+			if (endpoint.key.equals(key)) {
+				return endpoint;
+			}
+		}
+		throw new IllegalArgumentException("Unknown endpoint in loadtest.mix: " + key);
+	}
+}
@@ -0,0 +1,177 @@
+package com.ssotter.sscatalog.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Open-model generator: request i is due at start + i / rate whatever happened
+ * to earlier requests, and its latency is measured from that due time rather
+ * than from when it was actually sent. A server stall therefore shows up in
+ * every request that should have been issued during it (no coordinated
+ * omission), instead of silently lowering the offered load.
+ */
+public class LoadGenerator {
+	
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+	
+	private final HttpClient client;
+	private final String baseUrl;
+	private final LoadTestSettings settings;
+	private final long[] productIds;
+	private final ObjectMapper objectMapper;
+	private final String authorization;
+	private final Random random;
+	private final Endpoint[] wheel;
+	private long sequence;
+	
+	public LoadGenerator(HttpClient client, String baseUrl, LoadTestSettings settings, long[] productIds,
+			ObjectMapper objectMapper, String authorization) {
+		this.client = client;
+		this.baseUrl = baseUrl;
+		this.settings = settings;
+		this.productIds = productIds;
+		this.objectMapper = objectMapper;
+		this.authorization = authorization;
+		this.random = new Random(settings.getSeed());
+		
+		List<Endpoint> slots = new ArrayList<>();
+		for (Map.Entry<Endpoint, Integer> entry : settings.getMix().entrySet()) {
+			for (int i = 0; i < entry.getValue(); i++) {
+				slots.add(entry.getKey());
+			}
+		}
+		this.wheel = slots.toArray(new Endpoint[0]);
+	}
+	
+	public LoadReport run() throws InterruptedException {
+		LoadReport warmup = new LoadReport(settings);
+		LoadReport report = new LoadReport(settings);
+		List<CompletableFuture<?>> inFlight = new ArrayList<>();
+		AtomicInteger open = new AtomicInteger();
+		int peak = 0;
+		
+		long period = TimeUnit.SECONDS.toNanos(1) / settings.getRate();
+		long start = System.nanoTime();
+		long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.getWarmupSeconds());
+		long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.getDurationSeconds());
+		
+		for (long i = 0;; i++) {
+			long due = start + i * period;
+			if (due >= end) {
+				break;
+			}
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Endpoint endpoint = wheel[random.nextInt(wheel.length)];
+			LoadReport target = due < measureFrom ? warmup : report;
+			HttpRequest request = newRequest(endpoint);
+			// with HTTP/1.1 every request in flight holds a connection of its own
+			peak = Math.max(peak, open.incrementAndGet());
+			inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+					.handle((response, error) -> {
+						open.decrementAndGet();
+						boolean ok = error == null && response.statusCode() < 400;
+						target.record(endpoint, System.nanoTime() - due, ok);
+						return null;
+					}));
+			if (inFlight.size() > 10000) {
+				inFlight.removeIf(CompletableFuture::isDone);
+			}
+		}
+		CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+		report.finish(TimeUnit.SECONDS.toNanos(settings.getDurationSeconds()), peak);
+		return report;
+	}
+	
+	private HttpRequest newRequest(Endpoint endpoint) {
+		switch (endpoint) {
+		case LIST_PRODUCTS:
+			return get("/products?page=" + random.nextInt(10) + "&size=" + settings.getPageSize());
+		case GET_PRODUCT:
+			return get("/products/" + randomProductId());
+		case LIST_CATEGORIES:
+			return get("/categories");
+		case CREATE_PRODUCT:
+			return send("POST", "/products", product());
+		case UPDATE_PRODUCT:
+			return send("PUT", "/products/" + randomProductId(), product());
+		case CREATE_USER:
+			return send("POST", "/users", user());
+		case SUGGEST:
+			return get("/products/suggest?limit=10&prefix=seed+product+" + (1 + random.nextInt(99)));
+		case REACTIVE_LIST_PRODUCTS:
+			return get("/reactive/products?page=" + random.nextInt(10) + "&size=" + settings.getPageSize());
+		case REACTIVE_GET_PRODUCT:
+			return get("/reactive/products/" + randomProductId());
+		case REACTIVE_LIST_CATEGORIES:
+			return get("/reactive/categories");
+		default:
+			throw new IllegalStateException(endpoint.name());
+		}
+	}
+	
+	private long randomProductId() {
+		return productIds[random.nextInt(productIds.length)];
+	}
+	
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.timeout(TIMEOUT)
+				.header("Accept", "application/json")
+				.GET().build();
+	}
+	
+	private HttpRequest send(String method, String path, ObjectNode body) {
+		try {
+			return HttpRequest.newBuilder(URI.create(baseUrl + path))
+					.timeout(TIMEOUT)
+					.header("Content-Type", "application/json")
+					.header("Authorization", authorization)
+					.method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+					.build();
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private ObjectNode product() {
+		long n = ++sequence;
+		ObjectNode node = objectMapper.createObjectNode();
+		node.put("name", "Load product " + n);
+		node.put("description", "Created by the load generator");
+		node.put("price", 10.0 + random.nextInt(5000));
+		node.put("imgUrl", "https://img.com/" + n + ".png");
+		node.put("date", "2020-07-14T10:00:00Z");
+		node.putArray("categories").addObject().put("id", 1 + random.nextInt(3));
+		return node;
+	}
+	
+	private ObjectNode user() {
+		long n = ++sequence;
+		ObjectNode node = objectMapper.createObjectNode();
+		node.put("firstName", "Load");
+		node.put("lastName", "User " + n);
+		node.put("email", "load" + n + "-" + settings.getSeed() + "@sscatalog.com");
+		node.put("password", "123456");
+		node.putArray("roles").addObject().put("id", 1);
+		return node;
+	}
+}
@@ -0,0 +1,117 @@
+package com.ssotter.sscatalog.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Latency histograms (microseconds) and error counts per endpoint. Writes
+ * a JSON and a text file with the same numbers; both keep a stable layout
+ * so two runs can be compared with a plain diff.
+ */
+public class LoadReport {
+	
+	private final LoadTestSettings settings;
+	private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+	private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+	private long measuredNanos;
+	private int peakInFlight;
+	
+	public LoadReport(LoadTestSettings settings) {
+		this.settings = settings;
+		for (Endpoint endpoint : settings.getMix().keySet()) {
+			histograms.put(endpoint, new ConcurrentHistogram(3));
+			errors.put(endpoint, new LongAdder());
+		}
+	}
+	
+	public void record(Endpoint endpoint, long latencyNanos, boolean ok) {
+		histograms.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+		if (!ok) {
+			errors.get(endpoint).increment();
+		}
+	}
+	
+	public void finish(long measuredNanos, int peakInFlight) {
+		this.measuredNanos = measuredNanos;
+		this.peakInFlight = peakInFlight;
+	}
+	
+	public Map<String, Object> toMap() {
+		Map<String, Object> run = new LinkedHashMap<>();
+		run.put("name", settings.getName());
+		run.put("products", settings.getProducts());
+		run.put("rate", settings.getRate());
+		run.put("durationSeconds", settings.getDurationSeconds());
+		run.put("warmupSeconds", settings.getWarmupSeconds());
+		run.put("tomcatThreads", settings.getTomcatThreads());
+		run.put("dbLatencyMs", settings.getDbLatencyMillis());
+		run.put("peakInFlight", peakInFlight);
+		Map<String, Integer> mix = new LinkedHashMap<>();
+		settings.getMix().forEach((endpoint, weight) -> mix.put(endpoint.getKey(), weight));
+		run.put("mix", mix);
+		
+		double seconds = measuredNanos / 1e9;
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		for (Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+			Histogram h = entry.getValue();
+			Map<String, Object> stats = new LinkedHashMap<>();
+			stats.put("requests", h.getTotalCount());
+			stats.put("errors", errors.get(entry.getKey()).sum());
+			stats.put("throughput", round(h.getTotalCount() / seconds));
+			stats.put("p50Ms", millis(h.getValueAtPercentile(50.0)));
+			stats.put("p99Ms", millis(h.getValueAtPercentile(99.0)));
+			stats.put("p999Ms", millis(h.getValueAtPercentile(99.9)));
+			stats.put("maxMs", millis(h.getMaxValue()));
+			endpoints.put(entry.getKey().getLabel(), stats);
+		}
+		run.put("endpoints", endpoints);
+		return run;
+	}
+	
+	public String toText() {
+		StringBuilder sb = new StringBuilder();
+		Map<String, Object> run = toMap();
+		sb.append(String.format("run %s: %s products, %s req/s offered, %ss measured after %ss warm-up%n",
+				run.get("name"), run.get("products"), run.get("rate"), run.get("durationSeconds"),
+				run.get("warmupSeconds")));
+		sb.append(String.format("%s Tomcat threads, %s ms per statement, %s requests in flight at peak%n",
+				run.get("tomcatThreads"), run.get("dbLatencyMs"), run.get("peakInFlight")));
+		sb.append(String.format("%-30s %9s %7s %10s %10s %10s %10s %10s%n",
+				"endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+		@SuppressWarnings("unchecked")
+		Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) run.get("endpoints");
+		endpoints.forEach((label, s) -> sb.append(String.format("%-30s %9d %7d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+				label, s.get("requests"), s.get("errors"), s.get("throughput"), s.get("p50Ms"), s.get("p99Ms"),
+				s.get("p999Ms"), s.get("maxMs"))));
+		return sb.toString();
+	}
+	
+	public void write(ObjectMapper objectMapper) throws IOException {
+		Path dir = settings.getOutput();
+		Files.createDirectories(dir);
+		objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(dir.resolve(settings.getName() + ".json").toFile(), toMap());
+		Files.writeString(dir.resolve(settings.getName() + ".txt"), toText(), StandardCharsets.UTF_8);
+	}
+	
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+	
+	private static double round(double value) {
+		return Math.round(value * 10.0) / 10.0;
+	}
+}
@@ -0,0 +1,87 @@
+package com.ssotter.sscatalog.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Run parameters, read from system properties so they can be passed on the
+ * Maven command line (-Dloadtest.rate=500 ...).
+ */
+public class LoadTestSettings {
+	
+	private static final String DEFAULT_MIX = "list-products=40,get-product=30,list-categories=10,"
+			+ "create-product=8,update-product=7,create-user=5";
+	
+	private final String name = System.getProperty("loadtest.name", "run");
+	private final int products = Integer.getInteger("loadtest.products", 10000);
+	private final int rate = Integer.getInteger("loadtest.rate", 200);
+	private final int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+	private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+	private final int pageSize = Integer.getInteger("loadtest.page-size", 20);
+	private final long seed = Long.getLong("loadtest.seed", 42L);
+	private final long dbLatencyMillis = Long.getLong("loadtest.db-latency", 0L);
+	private final int tomcatThreads = Integer.getInteger("server.tomcat.threads.max", 200);
+	private final Path output = Paths.get(System.getProperty("loadtest.output", "target/loadtest"));
+	private final Map<Endpoint, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+	
+	private static Map<Endpoint, Integer> parseMix(String text) {
+		Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+		for (String part : text.split(",")) {
+			String[] pair = part.trim().split("=");
+			int weight = Integer.parseInt(pair[1].trim());
+			if (weight > 0) {
+				mix.put(Endpoint.fromKey(pair[0].trim()), weight);
+			}
+		}
+		if (mix.isEmpty()) {
+			throw new IllegalArgumentException("loadtest.mix has no positive weight");
+		}
+		return mix;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getProducts() {
+		return products;
+	}
+
+	public int getRate() {
+		return rate;
+	}
+
+	public int getDurationSeconds() {
+		return durationSeconds;
+	}
+
+	public int getWarmupSeconds() {
+		return warmupSeconds;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public long getDbLatencyMillis() {
+		return dbLatencyMillis;
+	}
+
+	public int getTomcatThreads() {
+		return tomcatThreads;
+	}
+
+	public Path getOutput() {
+		return output;
+	}
+
+	public Map<Endpoint, Integer> getMix() {
+		return mix;
+	}
+}
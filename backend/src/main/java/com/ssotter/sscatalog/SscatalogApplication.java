@@ -2,8 +2,10 @@ package com.ssotter.sscatalog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// the R2DBC pool is set up in R2dbcConfig; a ConnectionFactory bean would make Boot back off the DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class SscatalogApplication {
 
 	public static void main(String[] args) {
@@ -1,16 +1,24 @@
 package com.ssotter.sscatalog.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.ssotter.sscatalog.services.security.PasswordHasher;
+
 @Configuration
 public class AppConfig {
 	
+	/**
+	 * sscatalog.bcrypt.cost=0 picks the cost at startup from
+	 * sscatalog.bcrypt.target-millis; hashes made at an earlier cost still
+	 * verify, since the cost is stored in each hash.
+	 */
 	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public BCryptPasswordEncoder passwordEncoder(@Value("${sscatalog.bcrypt.cost:0}") int cost,
+			@Value("${sscatalog.bcrypt.target-millis:100}") long targetMillis) {
+		return new BCryptPasswordEncoder(cost > 0 ? cost : PasswordHasher.calibrateCost(targetMillis));
 	}
-	
 
 }
@@ -0,0 +1,112 @@
+package com.ssotter.sscatalog.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssotter.sscatalog.services.cache.ProductCache;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.security.LoginCache;
+import com.ssotter.sscatalog.services.security.PasswordHasher;
+import com.ssotter.sscatalog.services.validation.EmailFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+public class MetricsConfig {
+	
+	@Bean
+	public PlatformTransactionManager transactionManager(MeterRegistry registry,
+			ObjectProvider<TransactionManagerCustomizers> customizers) {
+		TimedJpaTransactionManager transactionManager = new TimedJpaTransactionManager(registry);
+		customizers.ifAvailable(c -> c.customize(transactionManager));
+		return transactionManager;
+	}
+	
+	@Bean
+	public MeterBinder productCacheMetrics(ProductCache productCache) {
+		return registry -> CaffeineCacheMetrics.monitor(registry, productCache.getNativeCache(), ProductCache.NAME);
+	}
+	
+	@Bean
+	public MeterBinder loginCacheMetrics(LoginCache loginCache) {
+		return registry -> CaffeineCacheMetrics.monitor(registry, loginCache.getNativeCache(), LoginCache.NAME);
+	}
+	
+	@Bean
+	public MeterBinder passwordHasherMetrics(PasswordHasher passwordHasher) {
+		return registry -> {
+			Gauge.builder("sscatalog.bcrypt.queued", passwordHasher::getQueueSize)
+					.description("Password hashes waiting for a BCrypt thread").register(registry);
+			Gauge.builder("sscatalog.bcrypt.active", passwordHasher::getActiveCount)
+					.description("Password hashes running").register(registry);
+			FunctionCounter.builder("sscatalog.bcrypt.rejected", passwordHasher, PasswordHasher::getRejectedCount)
+					.description("Password operations turned away with the queue full").register(registry);
+		};
+	}
+	
+	/**
+	 * The suggester loads names in a transaction, and the transaction manager
+	 * is itself timed, so it is looked up on first scrape rather than injected.
+	 */
+	@Bean
+	public MeterBinder nameSuggesterMetrics(ObjectProvider<NameSuggester> nameSuggester) {
+		return registry -> {
+			Gauge.builder("sscatalog.suggest.names", () -> nameSuggester.getObject().getNameCount())
+					.description("Product names in the typeahead index").register(registry);
+			Gauge.builder("sscatalog.suggest.keys", () -> nameSuggester.getObject().getKeyCount())
+					.description("Word-start keys in the typeahead index").register(registry);
+			Gauge.builder("sscatalog.suggest.memory", () -> nameSuggester.getObject().getEstimatedBytes())
+					.description("Estimated heap held by the typeahead index").baseUnit("bytes").register(registry);
+			Gauge.builder("sscatalog.suggest.memory.per.name", () -> {
+				NameSuggester suggester = nameSuggester.getObject();
+				return suggester.getNameCount() == 0 ? 0 : (double) suggester.getEstimatedBytes() / suggester.getNameCount();
+			}).baseUnit("bytes").register(registry);
+		};
+	}
+	
+	@Bean
+	public MeterBinder emailFilterMetrics(ObjectProvider<EmailFilter> emailFilter) {
+		return registry -> {
+			Gauge.builder("sscatalog.users.email.filter.fpp", () -> emailFilter.getObject().getExpectedFpp())
+					.description("False positive rate implied by the fill of the email filter").register(registry);
+			Gauge.builder("sscatalog.users.email.filter.fpp.observed", () -> emailFilter.getObject().getObservedFpp())
+					.description("Share of free emails the filter still sent to the database").register(registry);
+			Gauge.builder("sscatalog.users.email.filter.memory", () -> emailFilter.getObject().getBitCount() / 8)
+					.description("Heap held by the email filter bits").baseUnit("bytes").register(registry);
+			Gauge.builder("sscatalog.users.email.filter.emails", () -> emailFilter.getObject().getEmailCount())
+					.register(registry);
+			Gauge.builder("sscatalog.users.email.filter.stages", () -> emailFilter.getObject().getStageCount())
+					.register(registry);
+			FunctionCounter.builder("sscatalog.users.email.filter.lookups", emailFilter,
+					filter -> filter.getObject().getAbsentCount()).tag("result", "absent").register(registry);
+			FunctionCounter.builder("sscatalog.users.email.filter.lookups", emailFilter,
+					filter -> filter.getObject().getPresentCount()).tag("result", "maybe").register(registry);
+			FunctionCounter.builder("sscatalog.users.email.filter.rebuilds", emailFilter,
+					filter -> filter.getObject().getRebuildCount()).register(registry);
+		};
+	}
+	
+	@Bean
+	public MeterBinder productColumnsMetrics(ObjectProvider<ProductColumns> productColumns) {
+		return registry -> {
+			Gauge.builder("sscatalog.columns.products", () -> productColumns.getObject().getProductCount())
+					.description("Products in the columnar snapshot").register(registry);
+			Gauge.builder("sscatalog.columns.memory", () -> productColumns.getObject().getEstimatedBytes())
+					.description("Estimated heap held by the columnar snapshot").baseUnit("bytes").register(registry);
+			TimeGauge.builder("sscatalog.columns.load", () -> productColumns.getObject().getLoadMillis(),
+					TimeUnit.MILLISECONDS).description("Time the last full load of the columnar snapshot took")
+					.register(registry);
+		};
+	}
+}
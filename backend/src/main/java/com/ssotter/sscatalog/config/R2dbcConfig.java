@@ -0,0 +1,51 @@
+package com.ssotter.sscatalog.config;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * Connection pool for the reactive read endpoints, next to the JDBC one that
+ * JPA uses. Only the DatabaseClient is a bean: Boot skips its DataSource
+ * whenever a ConnectionFactory bean exists. Without sscatalog.r2dbc.url the
+ * reactive endpoints are left out. With an H2 url they work but block the
+ * request thread like JDBC, so enable them for a networked database such as
+ * Postgres, and measure there before relying on them.
+ */
+@Configuration
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+public class R2dbcConfig {
+	
+	private ConnectionPool pool;
+	
+	@Bean
+	public DatabaseClient databaseClient(@Value("${sscatalog.r2dbc.url}") String url,
+			@Value("${sscatalog.r2dbc.username:}") String username,
+			@Value("${sscatalog.r2dbc.password:}") String password,
+			@Value("${sscatalog.r2dbc.pool.max-size:20}") int maxSize) {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+				.option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password)
+				.build();
+		pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+				.maxSize(maxSize)
+				.build());
+		return DatabaseClient.create(pool);
+	}
+	
+	@PreDestroy
+	public void close() {
+		if (pool != null) {
+			pool.dispose();
+		}
+	}
+}
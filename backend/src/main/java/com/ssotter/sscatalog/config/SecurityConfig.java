@@ -1,16 +1,121 @@
 package com.ssotter.sscatalog.config;
 
+import java.util.Base64;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.web.header.HeaderWriterFilter;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.ssotter.sscatalog.services.security.TokenRevocations;
+import com.ssotter.sscatalog.services.security.TokenService;
 
+/**
+ * Stateless bearer tokens: the signature, expiry and revocation list are
+ * checked in memory and the authorities come from the token, so an
+ * authenticated request costs no query. Writes to the catalog need
+ * ROLE_OPERATOR or ROLE_ADMIN, changes to users ROLE_ADMIN; signing up
+ * (always as ROLE_CLIENT, which writes nothing), logging in and reading
+ * stay open.
+ */
 @Configuration
 @EnableWebSecurity
+@Import(TokenRevocations.class)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
+	
+	private static final String[] CATALOG = { "/products/**", "/categories/**" };
+	
+	@Autowired
+	private TokenRevocations revocations;
+	
+	@Value("${sscatalog.jwt.secret}")
+	private String secret;
 
 	@Override
 	public void configure(WebSecurity web) throws Exception {
-		web.ignoring().antMatchers("/**");
+		web.ignoring().antMatchers("/h2-console/**");
+	}
+	
+	@Override
+	protected void configure(HttpSecurity http) throws Exception {
+		http.csrf().disable()
+				.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+				.and().authorizeRequests()
+				.antMatchers(HttpMethod.POST, CATALOG).hasAnyRole("OPERATOR", "ADMIN")
+				.antMatchers(HttpMethod.PUT, CATALOG).hasAnyRole("OPERATOR", "ADMIN")
+				.antMatchers(HttpMethod.DELETE, CATALOG).hasAnyRole("OPERATOR", "ADMIN")
+				.antMatchers(HttpMethod.PUT, "/users/**").hasRole("ADMIN")
+				.antMatchers(HttpMethod.DELETE, "/users/**").hasRole("ADMIN")
+				.anyRequest().permitAll()
+				.and().oauth2ResourceServer().jwt().jwtAuthenticationConverter(authenticationConverter());
+		// headers written after the chain would race a streamed body that another thread is writing
+		http.headers().addObjectPostProcessor(new ObjectPostProcessor<HeaderWriterFilter>() {
+			@Override
+			public <O extends HeaderWriterFilter> O postProcess(O filter) {
+				filter.setShouldWriteHeadersEagerly(true);
+				return filter;
+			}
+		});
+	}
+	
+	@Bean
+	public JwtDecoder jwtDecoder() {
+		return decoder(secretKey(secret), revocations);
+	}
+	
+	@Bean
+	public JwtEncoder jwtEncoder() {
+		return new NimbusJwtEncoder(new ImmutableSecret<>(secretKey(secret)));
+	}
+	
+	public static JwtDecoder decoder(SecretKey key, OAuth2TokenValidator<Jwt> revocations) {
+		NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(MacAlgorithm.HS256).build();
+		decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), revocations));
+		return decoder;
+	}
+	
+	public static JwtAuthenticationConverter authenticationConverter() {
+		JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+		authorities.setAuthoritiesClaimName(TokenService.ROLES_CLAIM);
+		authorities.setAuthorityPrefix("");
+		JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+		converter.setJwtGrantedAuthoritiesConverter(authorities);
+		return converter;
+	}
+	
+	/**
+	 * sscatalog.jwt.secret is base64 and must decode to at least 256 bits,
+	 * as HS256 requires.
+	 */
+	public static SecretKey secretKey(String secret) {
+		byte[] bytes = Base64.getDecoder().decode(secret);
+		if (bytes.length < 32) {
+			throw new IllegalStateException("sscatalog.jwt.secret must hold at least 32 bytes, has " + bytes.length);
+		}
+		return new SecretKeySpec(bytes, "HmacSHA256");
 	}
 }
@@ -0,0 +1,59 @@
+package com.ssotter.sscatalog.config;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public method of the *Service classes as sscatalog.service,
+ * tagged by class, method and exception. Timers are looked up once per
+ * method and outcome, so a call costs two clock reads and a map lookup.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+	
+	@Autowired
+	private MeterRegistry registry;
+	
+	private final Map<Method, Timer> succeeded = new ConcurrentHashMap<>();
+	private final Map<Method, Map<Class<?>, Timer>> failed = new ConcurrentHashMap<>();
+	
+	@Around("execution(public * com.ssotter.sscatalog.services.*Service.*(..))")
+	public Object time(ProceedingJoinPoint pjp) throws Throwable {
+		Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+		long start = registry.config().clock().monotonicTime();
+		try {
+			Object result = pjp.proceed();
+			succeeded.computeIfAbsent(method, m -> timer(m, "none"))
+					.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+			return result;
+		}
+		catch (Throwable e) {
+			failed.computeIfAbsent(method, m -> new ConcurrentHashMap<>())
+					.computeIfAbsent(e.getClass(), type -> timer(method, type.getSimpleName()))
+					.record(registry.config().clock().monotonicTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+	}
+	
+	private Timer timer(Method method, String exception) {
+		return Timer.builder("sscatalog.service")
+				.tag("class", method.getDeclaringClass().getSimpleName())
+				.tag("method", method.getName())
+				.tag("exception", exception)
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+}
@@ -0,0 +1,59 @@
+package com.ssotter.sscatalog.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records sscatalog.transactions from the moment a new transaction holds its
+ * connection until it completes, tagged by outcome and read-only flag. The
+ * wait for the connection itself is hikaricp.connections.acquire.
+ */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+	private static final long serialVersionUID = 1L;
+	
+	private final transient Timer committed;
+	private final transient Timer committedReadOnly;
+	private final transient Timer rolledBack;
+	private final transient Timer rolledBackReadOnly;
+	
+	public TimedJpaTransactionManager(MeterRegistry registry) {
+		committed = timer(registry, "committed", false);
+		committedReadOnly = timer(registry, "committed", true);
+		rolledBack = timer(registry, "rolled-back", false);
+		rolledBackReadOnly = timer(registry, "rolled-back", true);
+	}
+	
+	private static Timer timer(MeterRegistry registry, String outcome, boolean readOnly) {
+		return Timer.builder("sscatalog.transactions")
+				.tag("outcome", outcome)
+				.tag("read-only", String.valueOf(readOnly))
+				.publishPercentileHistogram()
+				.register(registry);
+	}
+	
+	@Override
+	protected void prepareSynchronization(DefaultTransactionStatus status, TransactionDefinition definition) {
+		super.prepareSynchronization(status, definition);
+		if (status.isNewTransaction() && status.isNewSynchronization()) {
+			long start = System.nanoTime();
+			boolean readOnly = definition.isReadOnly();
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int completion) {
+					Timer timer = completion == STATUS_COMMITTED
+							? (readOnly ? committedReadOnly : committed)
+							: (readOnly ? rolledBackReadOnly : rolledBack);
+					timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			});
+		}
+	}
+}
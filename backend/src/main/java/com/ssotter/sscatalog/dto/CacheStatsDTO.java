@@ -0,0 +1,55 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+
+public class CacheStatsDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private String name;
+	private Long size;
+	private Long maxSize;
+	private Long hitCount;
+	private Long missCount;
+	private Long evictionCount;
+	
+	public CacheStatsDTO() {
+	}
+
+	public CacheStatsDTO(String name, Long size, Long maxSize, Long hitCount, Long missCount, Long evictionCount) {
+		this.name = name;
+		this.size = size;
+		this.maxSize = maxSize;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Long getSize() {
+		return size;
+	}
+
+	public Long getMaxSize() {
+		return maxSize;
+	}
+
+	public Long getHitCount() {
+		return hitCount;
+	}
+
+	public Long getMissCount() {
+		return missCount;
+	}
+
+	public Long getEvictionCount() {
+		return evictionCount;
+	}
+	
+	public Double getHitRate() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 1.0 : (double) hitCount / requests;
+	}
+}
@@ -0,0 +1,36 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DeleteSummaryDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private List<Long> deleted = new ArrayList<>();
+	private List<Long> missing = new ArrayList<>();
+	
+	public DeleteSummaryDTO() {
+	}
+
+	public DeleteSummaryDTO(List<Long> deleted, List<Long> missing) {
+		this.deleted = deleted;
+		this.missing = missing;
+	}
+
+	public List<Long> getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(List<Long> deleted) {
+		this.deleted = deleted;
+	}
+
+	public List<Long> getMissing() {
+		return missing;
+	}
+
+	public void setMissing(List<Long> missing) {
+		this.missing = missing;
+	}
+}
@@ -0,0 +1,25 @@
+package com.ssotter.sscatalog.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * A page serialized like any other, with the facets of the whole result next
+ * to it.
+ */
+public class FacetedPageDTO<T> extends PageImpl<T> {
+	private static final long serialVersionUID = 1L;
+	
+	private final FacetsDTO facets;
+	
+	public FacetedPageDTO(List<T> content, Pageable pageable, long total, FacetsDTO facets) {
+		super(content, pageable, total);
+		this.facets = facets;
+	}
+
+	public FacetsDTO getFacets() {
+		return facets;
+	}
+}
@@ -0,0 +1,95 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FacetsDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private Long total;
+	private List<CategoryCount> categories = new ArrayList<>();
+	private List<PriceBucket> prices = new ArrayList<>();
+	
+	public FacetsDTO() {
+	}
+
+	public FacetsDTO(Long total, List<CategoryCount> categories, List<PriceBucket> prices) {
+		this.total = total;
+		this.categories = categories;
+		this.prices = prices;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public List<CategoryCount> getCategories() {
+		return categories;
+	}
+
+	public List<PriceBucket> getPrices() {
+		return prices;
+	}
+	
+	public static class CategoryCount implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private Long id;
+		private String name;
+		private Long count;
+		
+		public CategoryCount() {
+		}
+		
+		public CategoryCount(Long id, String name, Long count) {
+			this.id = id;
+			this.name = name;
+			this.count = count;
+		}
+		
+		public Long getId() {
+			return id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public Long getCount() {
+			return count;
+		}
+	}
+	
+	/**
+	 * Prices from "from" inclusive to "to" exclusive; a null bound is open.
+	 */
+	public static class PriceBucket implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private Double from;
+		private Double to;
+		private Long count;
+		
+		public PriceBucket() {
+		}
+		
+		public PriceBucket(Double from, Double to, Long count) {
+			this.from = from;
+			this.to = to;
+			this.count = count;
+		}
+		
+		public Double getFrom() {
+			return from;
+		}
+		
+		public Double getTo() {
+			return to;
+		}
+		
+		public Long getCount() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ssotter.sscatalog.resources.exceptions.FieldMessage;
+
+public class ImportErrorDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private Long line;
+	private List<FieldMessage> errors = new ArrayList<>();
+	
+	public ImportErrorDTO() {
+	}
+
+	public ImportErrorDTO(Long line, List<FieldMessage> errors) {
+		this.line = line;
+		this.errors = errors;
+	}
+
+	public Long getLine() {
+		return line;
+	}
+
+	public void setLine(Long line) {
+		this.line = line;
+	}
+
+	public List<FieldMessage> getErrors() {
+		return errors;
+	}
+
+	public void setErrors(List<FieldMessage> errors) {
+		this.errors = errors;
+	}
+}
@@ -0,0 +1,34 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+
+public class ImportSummaryDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private Long imported;
+	private Long failed;
+	
+	public ImportSummaryDTO() {
+	}
+
+	public ImportSummaryDTO(Long imported, Long failed) {
+		this.imported = imported;
+		this.failed = failed;
+	}
+
+	public Long getImported() {
+		return imported;
+	}
+
+	public void setImported(Long imported) {
+		this.imported = imported;
+	}
+
+	public Long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(Long failed) {
+		this.failed = failed;
+	}
+}
@@ -0,0 +1,60 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class KeysetPageDTO<T> implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private List<T> content = new ArrayList<>();
+	private Integer size;
+	private String next;
+	private String previous;
+	
+	public KeysetPageDTO() {
+	}
+
+	public KeysetPageDTO(List<T> content, Integer size, String next, String previous) {
+		this.content = content;
+		this.size = size;
+		this.next = next;
+		this.previous = previous;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Integer getNumberOfElements() {
+		return content.size();
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public String getPrevious() {
+		return previous;
+	}
+
+	public void setPrevious(String previous) {
+		this.previous = previous;
+	}
+}
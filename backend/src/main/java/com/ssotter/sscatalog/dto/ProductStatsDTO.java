@@ -0,0 +1,163 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductStatsDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private Long products;
+	private List<CategoryStats> categories = new ArrayList<>();
+	private List<PeriodCount> periods = new ArrayList<>();
+	private Snapshot snapshot;
+	
+	public ProductStatsDTO() {
+	}
+
+	public ProductStatsDTO(Long products, List<CategoryStats> categories, List<PeriodCount> periods,
+			Snapshot snapshot) {
+		this.products = products;
+		this.categories = categories;
+		this.periods = periods;
+		this.snapshot = snapshot;
+	}
+
+	public Long getProducts() {
+		return products;
+	}
+
+	public List<CategoryStats> getCategories() {
+		return categories;
+	}
+
+	public List<PeriodCount> getPeriods() {
+		return periods;
+	}
+
+	public Snapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Price figures are null when no product of the category has a price.
+	 */
+	public static class CategoryStats implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private Long id;
+		private String name;
+		private Long count;
+		private Double minPrice;
+		private Double maxPrice;
+		private Double avgPrice;
+		private Double p50Price;
+		private Double p90Price;
+		private Double p99Price;
+		
+		public CategoryStats() {
+		}
+		
+		public CategoryStats(Long id, String name, Long count, Double minPrice, Double maxPrice, Double avgPrice,
+				Double p50Price, Double p90Price, Double p99Price) {
+			this.id = id;
+			this.name = name;
+			this.count = count;
+			this.minPrice = minPrice;
+			this.maxPrice = maxPrice;
+			this.avgPrice = avgPrice;
+			this.p50Price = p50Price;
+			this.p90Price = p90Price;
+			this.p99Price = p99Price;
+		}
+		
+		public Long getId() {
+			return id;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public Long getCount() {
+			return count;
+		}
+		
+		public Double getMinPrice() {
+			return minPrice;
+		}
+		
+		public Double getMaxPrice() {
+			return maxPrice;
+		}
+		
+		public Double getAvgPrice() {
+			return avgPrice;
+		}
+		
+		public Double getP50Price() {
+			return p50Price;
+		}
+		
+		public Double getP90Price() {
+			return p90Price;
+		}
+		
+		public Double getP99Price() {
+			return p99Price;
+		}
+	}
+	
+	public static class PeriodCount implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private Instant start;
+		private Long count;
+		
+		public PeriodCount() {
+		}
+		
+		public PeriodCount(Instant start, Long count) {
+			this.start = start;
+			this.count = count;
+		}
+		
+		public Instant getStart() {
+			return start;
+		}
+		
+		public Long getCount() {
+			return count;
+		}
+	}
+	
+	public static class Snapshot implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private Long loadMillis;
+		private Long bytes;
+		private Long statsMillis;
+		
+		public Snapshot() {
+		}
+		
+		public Snapshot(Long loadMillis, Long bytes, Long statsMillis) {
+			this.loadMillis = loadMillis;
+			this.bytes = bytes;
+			this.statsMillis = statsMillis;
+		}
+		
+		public Long getLoadMillis() {
+			return loadMillis;
+		}
+		
+		public Long getBytes() {
+			return bytes;
+		}
+		
+		public Long getStatsMillis() {
+			return statsMillis;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+
+public class SuggestionDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private Long id;
+	private String name;
+	
+	public SuggestionDTO() {
+	}
+
+	public SuggestionDTO(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
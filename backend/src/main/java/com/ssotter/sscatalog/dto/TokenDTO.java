@@ -0,0 +1,53 @@
+package com.ssotter.sscatalog.dto;
+
+import java.io.Serializable;
+
+public class TokenDTO implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private String accessToken;
+	private String tokenType = "Bearer";
+	private long expiresIn;
+	private UserDTO user;
+	
+	public TokenDTO() {
+	}
+
+	public TokenDTO(String accessToken, long expiresIn, UserDTO user) {
+		this.accessToken = accessToken;
+		this.expiresIn = expiresIn;
+		this.user = user;
+	}
+
+	public String getAccessToken() {
+		return accessToken;
+	}
+
+	public void setAccessToken(String accessToken) {
+		this.accessToken = accessToken;
+	}
+
+	public String getTokenType() {
+		return tokenType;
+	}
+
+	public void setTokenType(String tokenType) {
+		this.tokenType = tokenType;
+	}
+
+	public long getExpiresIn() {
+		return expiresIn;
+	}
+
+	public void setExpiresIn(long expiresIn) {
+		this.expiresIn = expiresIn;
+	}
+
+	public UserDTO getUser() {
+		return user;
+	}
+
+	public void setUser(UserDTO user) {
+		this.user = user;
+	}
+}
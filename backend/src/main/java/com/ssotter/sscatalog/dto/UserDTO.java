@@ -40,6 +40,14 @@ public class UserDTO implements Serializable{
 		email = entity.getEmail();
 		entity.getRoles().forEach(role -> this.roles.add(new RoleDTO(role)));
 	}
+	
+	public UserDTO(User entity, Set<RoleDTO> roles) {
+		id = entity.getId();
+		firstName = entity.getFirstName();
+		lastName = entity.getLastName();
+		email = entity.getEmail();
+		this.roles.addAll(roles);
+	}
 
 	public Long getId() {
 		return id;
@@ -11,13 +11,15 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
-@Table(name = "tb_category")
+@Table(name = "tb_category", indexes = @Index(name = "ix_category_name_id", columnList = "name, id"))
 public class Category implements Serializable{
 	private static final long serialVersionUID = 1L;
 	
@@ -32,6 +34,9 @@ public class Category implements Serializable{
 	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant updatedAt;
 	
+	@Version
+	private Long version;
+	
 	@ManyToMany(mappedBy = "categories")
 	private Set<Product> products = new HashSet<>();
 	
@@ -66,6 +71,10 @@ public class Category implements Serializable{
 	public Instant getUpdatedAt() {
 		return updatedAt;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
 	
 	@PrePersist
 	public void prePersist() {
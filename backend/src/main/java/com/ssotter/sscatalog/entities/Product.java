@@ -11,13 +11,20 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = {
+		@Index(name = "ix_product_name_id", columnList = "name, id"),
+		@Index(name = "ix_product_price_id", columnList = "price, id"),
+		@Index(name = "ix_product_date_id", columnList = "date, id") })
 public class Product implements Serializable{
 	private static final long serialVersionUID = 1L;
 	
@@ -34,6 +41,12 @@ public class Product implements Serializable{
 	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant date;
 	
+	@Version
+	private Long version;
+	
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant updatedAt;
+	
 	@ManyToMany
 	@JoinTable(name = "tb_product_category",
 		joinColumns = @JoinColumn(name = "product_id"),
@@ -101,9 +114,27 @@ public class Product implements Serializable{
 		this.date = date;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+	
+	@PrePersist
+	@PreUpdate
+	public void preUpdated() {
+		updatedAt = Instant.now();
+	}
+
 	public Set<Category> getCategories() {
 		return categories;
 	}
+	
+	public void setCategories(Set<Category> categories) {
+		this.categories = categories;
+	}
 
 	@Override
 	public int hashCode() {
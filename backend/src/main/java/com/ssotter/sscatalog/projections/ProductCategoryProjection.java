@@ -0,0 +1,7 @@
+package com.ssotter.sscatalog.projections;
+
+public interface ProductCategoryProjection {
+	
+	Long getProductId();
+	Long getCategoryId();
+}
@@ -0,0 +1,10 @@
+package com.ssotter.sscatalog.projections;
+
+import java.time.Instant;
+
+public interface ProductColumnProjection {
+	
+	Long getId();
+	Double getPrice();
+	Instant getDate();
+}
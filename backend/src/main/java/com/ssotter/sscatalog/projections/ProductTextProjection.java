@@ -0,0 +1,9 @@
+package com.ssotter.sscatalog.projections;
+
+public interface ProductTextProjection {
+	
+	Long getId();
+	Long getVersion();
+	String getName();
+	String getDescription();
+}
@@ -0,0 +1,10 @@
+package com.ssotter.sscatalog.projections;
+
+import java.time.Instant;
+
+public interface VersionProjection {
+	
+	Long getId();
+	Long getVersion();
+	Instant getUpdatedAt();
+}
@@ -1,11 +1,26 @@
 package com.ssotter.sscatalog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.ssotter.sscatalog.entities.Category;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long>{
-
+public interface CategoryRepository extends JpaRepository<Category, Long>, CategoryRepositoryCustom{
+	
+	Slice<Category> findSliceBy(Pageable pageable);
+	
+	@Query("SELECT obj.id FROM Category obj WHERE obj.id IN :ids ORDER BY obj.id")
+	List<Long> findIdsByIdIn(Collection<Long> ids);
+	
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM tb_category WHERE id IN :ids")
+	int deleteAllByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.ssotter.sscatalog.entities.Category;
+
+public interface CategoryRepositoryCustom {
+	
+	List<Category> findKeyset(String property, Direction direction, boolean backward, Object value, Long id, int limit);
+
+}
@@ -0,0 +1,21 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.ssotter.sscatalog.entities.Category;
+
+public class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<Category> findKeyset(String property, Direction direction, boolean backward, Object value, Long id, int limit) {
+		return KeysetQuery.seek(em, Category.class, property, direction, backward, value, id, limit);
+	}
+}
@@ -0,0 +1,115 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Builds the seek query behind keyset pagination. The row value comparison
+ * (key, id) &gt; (?, ?) is written out as key &gt; ? OR (key = ? AND id &gt; ?),
+ * which is what Hibernate would render for it anyway and lets the database
+ * range scan the (key, id) index instead of skipping OFFSET rows.
+ * 
+ * Null keys sort last ascending and first descending, as in PostgreSQL. The
+ * databases disagree on that, so rows with a null key are read by a second
+ * seek on id alone and never ordered next to the others; it only runs when
+ * the walk reaches them.
+ */
+class KeysetQuery {
+	
+	private KeysetQuery() {
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	static <T> List<T> seek(EntityManager em, Class<T> type, String property, Direction direction,
+			boolean backward, Object value, Long id, int limit) {
+		
+		boolean ascending = direction.isAscending() != backward;
+		if ("id".equals(property)) {
+			return fetch(em, query(em, type, property, ascending, false, null, id), limit);
+		}
+		boolean nullable = ((SingularAttribute) em.getMetamodel().entity(type).getAttribute(property)).isOptional();
+		boolean inNulls = id != null && value == null;
+		Long nullsAfter = inNulls ? id : null;
+		List<T> rows = new ArrayList<>();
+		// ascending walks the keyed rows then the null ones, descending the other way round
+		if (ascending) {
+			if (!inNulls) {
+				rows.addAll(fetch(em, query(em, type, property, true, false, value, id), limit));
+			}
+			if (nullable && rows.size() < limit) {
+				rows.addAll(fetch(em, query(em, type, property, true, true, null, nullsAfter), limit - rows.size()));
+			}
+		}
+		else {
+			if (nullable && (id == null || inNulls)) {
+				rows.addAll(fetch(em, query(em, type, property, false, true, null, nullsAfter), limit));
+			}
+			if (rows.size() < limit) {
+				rows.addAll(fetch(em, query(em, type, property, false, false, inNulls ? null : value,
+						inNulls ? null : id), limit - rows.size()));
+			}
+		}
+		return rows;
+	}
+	
+	private static <T> List<T> fetch(EntityManager em, CriteriaQuery<T> query, int limit) {
+		return em.createQuery(query).setMaxResults(limit).getResultList();
+	}
+	
+	/**
+	 * Rows past (value, id) in walk order, either among those with a null key
+	 * (nulls) or among those with one. A null id starts from the beginning.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static <T> CriteriaQuery<T> query(EntityManager em, Class<T> type, String property, boolean ascending,
+			boolean nulls, Object value, Long id) {
+		
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<T> cq = cb.createQuery(type);
+		Root<T> root = cq.from(type);
+		
+		Path<Comparable> key = root.get(property);
+		Path<Comparable> idPath = root.get("id");
+		
+		if ("id".equals(property)) {
+			if (id != null) {
+				cq.where(after(cb, idPath, id, ascending));
+			}
+			return cq.orderBy(order(cb, idPath, ascending));
+		}
+		if (nulls) {
+			cq.where(id == null ? cb.isNull(key) : cb.and(cb.isNull(key), after(cb, idPath, id, ascending)));
+			return cq.orderBy(order(cb, idPath, ascending));
+		}
+		if (id == null) {
+			cq.where(cb.isNotNull(key));
+		}
+		else {
+			Comparable keyValue = (Comparable) value;
+			Predicate afterId = after(cb, idPath, id, ascending);
+			cq.where(cb.or(after(cb, key, keyValue, ascending), cb.and(cb.equal(key, keyValue), afterId)));
+		}
+		return cq.orderBy(order(cb, key, ascending), order(cb, idPath, ascending));
+	}
+	
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Predicate after(CriteriaBuilder cb, Expression<Comparable> path, Comparable value, boolean ascending) {
+		return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+	}
+	
+	private static Order order(CriteriaBuilder cb, Expression<?> path, boolean ascending) {
+		return ascending ? cb.asc(path) : cb.desc(path);
+	}
+}
@@ -1,11 +1,85 @@
 package com.ssotter.sscatalog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.projections.IdRangeProjection;
+import com.ssotter.sscatalog.projections.ProductCategoryProjection;
+import com.ssotter.sscatalog.projections.ProductColumnProjection;
+import com.ssotter.sscatalog.projections.ProductNameProjection;
+import com.ssotter.sscatalog.projections.ProductTextProjection;
+import com.ssotter.sscatalog.projections.VersionProjection;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>{
-
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom{
+	
+	Slice<Product> findSliceBy(Pageable pageable);
+	
+	@Query("SELECT DISTINCT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj IN :products")
+	List<Product> findProductsWithCategories(List<Product> products);
+	
+	@Query("SELECT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id = :id")
+	Optional<Product> findWithCategoriesById(Long id);
+	
+	@Query("SELECT obj.id AS id, obj.version AS version, obj.updatedAt AS updatedAt FROM Product obj WHERE obj.id = :id")
+	Optional<VersionProjection> findVersionById(Long id);
+	
+	@Query(value = "SELECT obj.id AS id, obj.version AS version, obj.updatedAt AS updatedAt FROM Product obj",
+			countQuery = "SELECT COUNT(obj) FROM Product obj")
+	Page<VersionProjection> findVersions(Pageable pageable);
+	
+	@Query("SELECT obj.id AS id, obj.version AS version, obj.updatedAt AS updatedAt FROM Product obj")
+	Slice<VersionProjection> findVersionSlice(Pageable pageable);
+	
+	@Query(nativeQuery = true, value = "SELECT product_id AS productId, category_id AS categoryId FROM tb_product_category WHERE product_id IN :ids")
+	List<ProductCategoryProjection> findCategoryIds(List<Long> ids);
+	
+	@Query(nativeQuery = true, value = "SELECT product_id AS productId, category_id AS categoryId FROM tb_product_category")
+	List<ProductCategoryProjection> findAllCategoryIds();
+	
+	@Query("SELECT obj.id AS id, obj.price AS price, obj.date AS date FROM Product obj")
+	List<ProductColumnProjection> findColumnValues();
+	
+	@Query("SELECT obj FROM Product obj WHERE obj.id IN "
+			+ "(SELECT p.id FROM Product p JOIN p.categories cat WHERE cat.id IN :categoryIds)")
+	Slice<Product> findSliceInAnyCategory(Collection<Long> categoryIds, Pageable pageable);
+	
+	@Query("SELECT obj FROM Product obj WHERE obj.id IN "
+			+ "(SELECT p.id FROM Product p JOIN p.categories cat WHERE cat.id IN :categoryIds "
+			+ "GROUP BY p.id HAVING COUNT(cat) = :count)")
+	Slice<Product> findSliceInAllCategories(Collection<Long> categoryIds, long count, Pageable pageable);
+	
+	@Query("SELECT DISTINCT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id IN :ids")
+	List<Product> findWithCategoriesByIdIn(Collection<Long> ids);
+	
+	@Query("SELECT MIN(obj.id) AS min, MAX(obj.id) AS max FROM Product obj")
+	IdRangeProjection findIdRange();
+	
+	@Query("SELECT obj.id AS id, obj.version AS version, obj.name AS name, obj.description AS description "
+			+ "FROM Product obj WHERE obj.id > :after AND obj.id <= :last ORDER BY obj.id")
+	List<ProductTextProjection> findTextBetween(Long after, Long last, Pageable pageable);
+	
+	@Query("SELECT obj.id AS id, obj.name AS name FROM Product obj")
+	List<ProductNameProjection> findNames();
+	
+	@Query("SELECT obj.id FROM Product obj WHERE obj.id IN :ids ORDER BY obj.id")
+	List<Long> findIdsByIdIn(Collection<Long> ids);
+	
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM tb_product_category WHERE product_id IN :ids")
+	int deleteCategoryLinksByProductIdIn(Collection<Long> ids);
+	
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM tb_product WHERE id IN :ids")
+	int deleteAllByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,34 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.Tuple;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.ssotter.sscatalog.entities.Product;
+
+public interface ProductRepositoryCustom {
+	
+	List<Product> findKeyset(String property, Direction direction, boolean backward, Object value, Long id, int limit);
+	
+	Stream<Product> streamAll(Instant from, Instant to, Long categoryId, int fetchSize);
+	
+	List<Long> insertAll(List<Product> products);
+	
+	/**
+	 * Up to limit ids above after, ascending, of the products that pass the
+	 * same filter as streamAll.
+	 */
+	List<Long> findIds(Instant from, Instant to, Long categoryId, Long after, int limit);
+	
+	/**
+	 * Only the given properties, plus "excerpt" for the first characters of
+	 * the description, as one Tuple per row.
+	 */
+	List<Tuple> findColumns(List<String> properties, int excerptLength, Pageable pageable);
+
+}
@@ -0,0 +1,157 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.Selection;
+
+import org.hibernate.jpa.QueryHints;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.entities.Product;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+	
+	private static final String INSERT_PRODUCT = "INSERT INTO tb_product "
+			+ "(name, description, price, img_url, date, version, updated_at) VALUES (?, ?, ?, ?, ?, 0, ?)";
+	
+	private static final String INSERT_PRODUCT_CATEGORY = "INSERT INTO tb_product_category "
+			+ "(product_id, category_id) VALUES (?, ?)";
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Override
+	public List<Product> findKeyset(String property, Direction direction, boolean backward, Object value, Long id, int limit) {
+		return KeysetQuery.seek(em, Product.class, property, direction, backward, value, id, limit);
+	}
+	
+	@Override
+	public Stream<Product> streamAll(Instant from, Instant to, Long categoryId, int fetchSize) {
+		StringBuilder jpql = new StringBuilder("SELECT obj FROM Product obj WHERE 1 = 1");
+		appendFilter(jpql, from, to, categoryId);
+		jpql.append(" ORDER BY obj.id");
+		
+		TypedQuery<Product> query = em.createQuery(jpql.toString(), Product.class);
+		bindFilter(query, from, to, categoryId);
+		// forward-only cursor: rows are pulled from the driver fetchSize at a time
+		return query.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.HINT_READONLY, true)
+				.getResultStream();
+	}
+	
+	@Override
+	public List<Long> findIds(Instant from, Instant to, Long categoryId, Long after, int limit) {
+		StringBuilder jpql = new StringBuilder("SELECT obj.id FROM Product obj WHERE obj.id > :after");
+		appendFilter(jpql, from, to, categoryId);
+		jpql.append(" ORDER BY obj.id");
+		
+		TypedQuery<Long> query = em.createQuery(jpql.toString(), Long.class);
+		bindFilter(query, from, to, categoryId);
+		return query.setParameter("after", after)
+				.setMaxResults(limit)
+				.getResultList();
+	}
+	
+	private static void appendFilter(StringBuilder jpql, Instant from, Instant to, Long categoryId) {
+		if (from != null) {
+			jpql.append(" AND obj.date >= :from");
+		}
+		if (to != null) {
+			jpql.append(" AND obj.date < :to");
+		}
+		if (categoryId != null) {
+			jpql.append(" AND EXISTS (SELECT cat FROM obj.categories cat WHERE cat.id = :categoryId)");
+		}
+	}
+	
+	private static void bindFilter(TypedQuery<?> query, Instant from, Instant to, Long categoryId) {
+		if (from != null) {
+			query.setParameter("from", from);
+		}
+		if (to != null) {
+			query.setParameter("to", to);
+		}
+		if (categoryId != null) {
+			query.setParameter("categoryId", categoryId);
+		}
+	}
+	
+	@Override
+	public List<Long> insertAll(List<Product> products) {
+		if (products.isEmpty()) {
+			return List.of();
+		}
+		// identity ids switch off Hibernate insert batching, so the chunk goes
+		// through plain JDBC as two batches sharing the surrounding transaction
+		Timestamp now = Timestamp.from(Instant.now());
+		List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) con -> {
+			try (PreparedStatement ps = con.prepareStatement(INSERT_PRODUCT, new String[] { "id" })) {
+				for (Product product : products) {
+					ps.setString(1, product.getName());
+					ps.setString(2, product.getDescription());
+					ps.setObject(3, product.getPrice(), Types.DOUBLE);
+					ps.setString(4, product.getImgUrl());
+					ps.setTimestamp(5, product.getDate() == null ? null : Timestamp.from(product.getDate()));
+					ps.setTimestamp(6, now);
+					ps.addBatch();
+				}
+				ps.executeBatch();
+				List<Long> keys = new ArrayList<>(products.size());
+				try (ResultSet rs = ps.getGeneratedKeys()) {
+					while (rs.next()) {
+						keys.add(rs.getLong(1));
+					}
+				}
+				return keys;
+			}
+		});
+		
+		List<Object[]> links = new ArrayList<>();
+		for (int i = 0; i < products.size(); i++) {
+			for (Category cat : products.get(i).getCategories()) {
+				links.add(new Object[] { ids.get(i), cat.getId() });
+			}
+		}
+		if (!links.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_PRODUCT_CATEGORY, links);
+		}
+		return ids;
+	}
+	
+	@Override
+	public List<Tuple> findColumns(List<String> properties, int excerptLength, Pageable pageable) {
+		return ProjectionQuery.select(em, Product.class, (cb, root) -> {
+			List<Selection<?>> columns = new ArrayList<>(properties.size());
+			for (String property : properties) {
+				if (property.equals("excerpt")) {
+					// one character past the excerpt tells whether the text was cut
+					columns.add(cb.substring(root.get("description"), 1, excerptLength + 1).alias(property));
+				}
+				else {
+					columns.add(root.get(property).alias(property));
+				}
+			}
+			return columns;
+		}, pageable);
+	}
+}
@@ -0,0 +1,49 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Builds the query behind ?fields=: only the chosen columns are selected,
+ * each aliased by its property name, so wide columns the client did not ask
+ * for never leave the database. The page is read with one extra row, which
+ * is how the caller learns whether there is a next one.
+ */
+class ProjectionQuery {
+	
+	private ProjectionQuery() {
+	}
+	
+	static <T> List<Tuple> select(EntityManager em, Class<T> type,
+			BiFunction<CriteriaBuilder, Root<T>, List<Selection<?>>> columns, Pageable pageable) {
+		
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+		Root<T> root = cq.from(type);
+		cq.multiselect(columns.apply(cb, root));
+		cq.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+		return em.createQuery(cq)
+				.setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize() + 1)
+				.getResultList();
+	}
+	
+	static <T> List<Selection<?>> properties(Root<T> root, List<String> properties) {
+		List<Selection<?>> result = new ArrayList<>(properties.size());
+		for (String property : properties) {
+			result.add(root.get(property).alias(property));
+		}
+		return result;
+	}
+}
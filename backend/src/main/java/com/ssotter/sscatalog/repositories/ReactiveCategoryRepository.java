@@ -0,0 +1,36 @@
+package com.ssotter.sscatalog.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+public class ReactiveCategoryRepository {
+	
+	@Autowired
+	private DatabaseClient client;
+	
+	public Flux<CategoryDTO> findAll(Pageable pageable) {
+		String sql = "SELECT id, name FROM tb_category" + ReactiveQueries.orderBy(pageable.getSort(), "id", "name")
+				+ " LIMIT :limit OFFSET :offset";
+		return client.sql(sql)
+				.bind("limit", pageable.getPageSize())
+				.bind("offset", pageable.getOffset())
+				.map(row -> new CategoryDTO(row.get("id", Long.class), row.get("name", String.class)))
+				.all();
+	}
+	
+	public Mono<Long> count() {
+		return client.sql("SELECT COUNT(*) FROM tb_category")
+				.map(row -> row.get(0, Long.class))
+				.one();
+	}
+}
@@ -0,0 +1,76 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read side of tb_product over R2DBC. Rows map straight to DTOs; category
+ * names are not joined here since the caller resolves them from memory.
+ */
+@Repository
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+public class ReactiveProductRepository {
+	
+	private static final String SELECT_PRODUCT = "SELECT id, name, description, price, img_url, date FROM tb_product";
+	
+	@Autowired
+	private DatabaseClient client;
+	
+	public Flux<ProductDTO> findAll(Pageable pageable) {
+		String sql = SELECT_PRODUCT + ReactiveQueries.orderBy(pageable.getSort(), "id", "name", "price", "date")
+				+ " LIMIT :limit OFFSET :offset";
+		return client.sql(sql)
+				.bind("limit", pageable.getPageSize())
+				.bind("offset", pageable.getOffset())
+				.map(ReactiveProductRepository::toDto)
+				.all();
+	}
+	
+	public Flux<ProductDTO> streamAll() {
+		return client.sql(SELECT_PRODUCT + " ORDER BY id").map(ReactiveProductRepository::toDto).all();
+	}
+	
+	public Mono<ProductDTO> findById(Long id) {
+		return client.sql(SELECT_PRODUCT + " WHERE id = :id")
+				.bind("id", id)
+				.map(ReactiveProductRepository::toDto)
+				.one();
+	}
+	
+	public Mono<Long> count() {
+		return client.sql("SELECT COUNT(*) FROM tb_product")
+				.map(row -> row.get(0, Long.class))
+				.one();
+	}
+	
+	public Mono<Map<Long, Collection<Long>>> findCategoryIds(List<Long> ids) {
+		return client.sql("SELECT product_id, category_id FROM tb_product_category WHERE product_id IN (:ids)")
+				.bind("ids", ids)
+				.map(row -> Map.entry(row.get("product_id", Long.class), row.get("category_id", Long.class)))
+				.all()
+				.collectMultimap(Map.Entry::getKey, Map.Entry::getValue);
+	}
+	
+	private static ProductDTO toDto(Row row) {
+		// Hibernate writes the Instant as wall time in the JVM zone
+		LocalDateTime date = row.get("date", LocalDateTime.class);
+		return new ProductDTO(row.get("id", Long.class), row.get("name", String.class),
+				row.get("description", String.class), row.get("price", Double.class), row.get("img_url", String.class),
+				date == null ? null : date.atZone(ZoneId.systemDefault()).toInstant());
+	}
+}
@@ -0,0 +1,40 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+/**
+ * SQL fragments for the R2DBC repositories, which have no query derivation to
+ * lean on. Sort properties are checked against the columns a caller allows,
+ * so they can go into the statement text.
+ */
+final class ReactiveQueries {
+	
+	private ReactiveQueries() {
+	}
+	
+	static String orderBy(Sort sort, String... columns) {
+		List<String> allowed = Arrays.asList(columns);
+		StringBuilder sql = new StringBuilder(" ORDER BY ");
+		boolean byId = false;
+		for (Sort.Order order : sort) {
+			if (!allowed.contains(order.getProperty())) {
+				throw new InvalidParameterException("Invalid sort: " + order.getProperty());
+			}
+			sql.append(order.getProperty()).append(order.isAscending() ? " ASC, " : " DESC, ");
+			byId |= order.getProperty().equals("id");
+		}
+		if (byId) {
+			sql.setLength(sql.length() - 2);
+		}
+		else {
+			// id breaks ties so OFFSET pages do not overlap
+			sql.append("id");
+		}
+		return sql.toString();
+	}
+}
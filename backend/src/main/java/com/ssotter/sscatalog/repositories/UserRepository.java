@@ -1,13 +1,27 @@
 package com.ssotter.sscatalog.repositories;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.ssotter.sscatalog.entities.User;
+import com.ssotter.sscatalog.projections.UserRoleProjection;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>{
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom{
+	
+	Slice<User> findSliceBy(Pageable pageable);
 	
 	User findByEmail(String email);
+	
+	@Query("SELECT obj.email FROM User obj")
+	List<String> findAllEmails();
+	
+	@Query(nativeQuery = true, value = "SELECT user_id AS userId, role_id AS roleId FROM tb_user_role WHERE user_id IN :ids")
+	List<UserRoleProjection> findUserRoles(List<Long> ids);
 
 }
@@ -0,0 +1,13 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.List;
+
+import javax.persistence.Tuple;
+
+import org.springframework.data.domain.Pageable;
+
+public interface UserRepositoryCustom {
+	
+	List<Tuple> findColumns(List<String> properties, Pageable pageable);
+
+}
@@ -0,0 +1,22 @@
+package com.ssotter.sscatalog.repositories;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+
+import org.springframework.data.domain.Pageable;
+
+import com.ssotter.sscatalog.entities.User;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public List<Tuple> findColumns(List<String> properties, Pageable pageable) {
+		return ProjectionQuery.select(em, User.class, (cb, root) -> ProjectionQuery.properties(root, properties), pageable);
+	}
+}
@@ -0,0 +1,28 @@
+package com.ssotter.sscatalog.resources;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ssotter.sscatalog.dto.LoginDTO;
+import com.ssotter.sscatalog.dto.TokenDTO;
+import com.ssotter.sscatalog.services.AuthService;
+
+@RestController
+@RequestMapping(value = "/auth")
+public class AuthResource {
+	
+	@Autowired
+	private AuthService service;
+	
+	@PostMapping(value = "/login")
+	public ResponseEntity<TokenDTO> login(@Valid @RequestBody LoginDTO dto) {
+		TokenDTO token = service.login(dto);
+		return ResponseEntity.ok().body(token);
+	}
+}
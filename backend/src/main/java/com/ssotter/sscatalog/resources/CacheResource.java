@@ -0,0 +1,26 @@
+package com.ssotter.sscatalog.resources;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ssotter.sscatalog.dto.CacheStatsDTO;
+import com.ssotter.sscatalog.services.cache.ProductCache;
+
+@RestController
+@RequestMapping(value = "/caches")
+public class CacheResource {
+	
+	@Autowired
+	private ProductCache productCache;
+	
+	@GetMapping
+	public ResponseEntity<List<CacheStatsDTO>> findAll() {
+		List<CacheStatsDTO> list = List.of(productCache.stats());
+		return ResponseEntity.ok().body(list);
+	}
+}
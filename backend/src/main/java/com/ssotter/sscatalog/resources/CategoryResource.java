@@ -1,10 +1,12 @@
 package com.ssotter.sscatalog.resources;
 
 import java.net.URI;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,11 +15,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.ssotter.sscatalog.dto.KeysetPageDTO;
 import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.DeleteSummaryDTO;
 import com.ssotter.sscatalog.services.CategoryService;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.services.versioning.ResourceVersion;
 
 @RestController
 @RequestMapping(value = "/categories")
@@ -27,13 +35,29 @@ public class CategoryResource {
 	private CategoryService service;
 	
 	@GetMapping
-	public ResponseEntity<Page<CategoryDTO>> findAll(Pageable pageable) {
-		Page<CategoryDTO> list = service.findAllPaged(pageable);
+	public ResponseEntity<Slice<CategoryDTO>> findAll(Pageable pageable,
+			@RequestParam(value = "count", defaultValue = "exact") String count, WebRequest request) {
+		CountMode countMode = CountMode.parse(count);
+		ResourceVersion version = service.findPageVersion();
+		if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
+		Slice<CategoryDTO> list = service.findAllPaged(pageable, countMode);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(params = "cursor")
+	public ResponseEntity<KeysetPageDTO<CategoryDTO>> findAllKeyset(@RequestParam String cursor, Pageable pageable) {
+		KeysetPageDTO<CategoryDTO> list = service.findAllKeyset(cursor, pageable);
 		return ResponseEntity.ok().body(list);
 	}
 	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id) {
+	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id, WebRequest request) {
+		ResourceVersion version = service.findVersion(id);
+		if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
 		CategoryDTO dto = service.findById(id);
 		return ResponseEntity.ok().body(dto);
 	}
@@ -52,6 +76,12 @@ public class CategoryResource {
 		return ResponseEntity.ok().body(dto);
 	}
 	
+	@DeleteMapping(params = "ids")
+	public ResponseEntity<DeleteSummaryDTO> deleteAll(@RequestParam List<Long> ids) {
+		DeleteSummaryDTO summary = service.deleteAll(ids);
+		return ResponseEntity.ok().body(summary);
+	}
+	
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable Long id) {
 		service.delete(id);
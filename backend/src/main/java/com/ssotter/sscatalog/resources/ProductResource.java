@@ -1,12 +1,21 @@
 package com.ssotter.sscatalog.resources;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,12 +23,33 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.ssotter.sscatalog.dto.DeleteSummaryDTO;
+import com.ssotter.sscatalog.dto.FacetedPageDTO;
+import com.ssotter.sscatalog.dto.FacetsDTO;
+import com.ssotter.sscatalog.dto.KeysetPageDTO;
 import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.dto.ProductStatsDTO;
+import com.ssotter.sscatalog.dto.SuggestionDTO;
+import com.ssotter.sscatalog.services.ProductDeleteService;
+import com.ssotter.sscatalog.services.ProductExportService;
+import com.ssotter.sscatalog.services.ProductImportService;
 import com.ssotter.sscatalog.services.ProductService;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+import com.ssotter.sscatalog.services.fields.FieldSelection;
+import com.ssotter.sscatalog.services.filter.CategoryFilter;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.versioning.ResourceVersion;
+import com.ssotter.sscatalog.services.versioning.Versioned;
 
 @RestController
 @RequestMapping(value = "/products")
@@ -28,14 +58,156 @@ public class ProductResource {
 	@Autowired
 	private ProductService service;
 	
+	@Autowired
+	private ProductExportService exportService;
+	
+	@Autowired
+	private ProductImportService importService;
+	
+	@Autowired
+	private ProductDeleteService deleteService;
+	
+	@Autowired
+	private NameSuggester nameSuggester;
+	
 	@GetMapping
-	public ResponseEntity<Page<ProductDTO>> findAll(Pageable pageable) {
-		Page<ProductDTO> list = service.findAllPaged(pageable);
+	public ResponseEntity<Slice<ProductDTO>> findAll(Pageable pageable,
+			@RequestParam(value = "count", defaultValue = "exact") String count,
+			@RequestParam(value = "expand", defaultValue = "") String expand,
+			@RequestParam(value = "facets", defaultValue = "false") boolean facets, WebRequest request) {
+		if (!expand.isEmpty() && !expand.equals("categories")) {
+			throw new InvalidParameterException("Invalid expand: " + expand);
+		}
+		CountMode countMode = CountMode.parse(count);
+		boolean withCategories = !expand.isEmpty();
+		if (facets) {
+			// facets change with any product, not just the page, so they get no ETag
+			Slice<ProductDTO> list = service.findAllPaged(pageable, CountMode.NONE, withCategories);
+			FacetsDTO block = service.findFacets();
+			return ResponseEntity.ok().body(new FacetedPageDTO<>(list.getContent(), pageable, block.getTotal(), block));
+		}
+		if (isConditional(request)) {
+			ResourceVersion version = service.findPageVersion(pageable, countMode, withCategories);
+			if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+			}
+			Slice<ProductDTO> list = service.findAllPaged(pageable, countMode, withCategories);
+			return ResponseEntity.ok().body(list);
+		}
+		Versioned<Slice<ProductDTO>> list = service.findAllPagedVersioned(pageable, countMode, withCategories);
+		return ok(list);
+	}
+	
+	@GetMapping(params = { "categories", "!cursor" })
+	public ResponseEntity<Page<ProductDTO>> findAllByCategories(Pageable pageable, @RequestParam String categories,
+			@RequestParam(value = "match", defaultValue = "any") String match,
+			@RequestParam(value = "expand", defaultValue = "") String expand,
+			@RequestParam(value = "facets", defaultValue = "false") boolean facets) {
+		if (!expand.isEmpty() && !expand.equals("categories")) {
+			throw new InvalidParameterException("Invalid expand: " + expand);
+		}
+		CategoryFilter filter = CategoryFilter.parse(categories, match);
+		Page<ProductDTO> list = service.findAllFiltered(filter, pageable, !expand.isEmpty());
+		if (facets) {
+			list = new FacetedPageDTO<>(list.getContent(), pageable, list.getTotalElements(), service.findFacets(filter));
+		}
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(params = { "fields", "!cursor", "!categories" })
+	public ResponseEntity<Slice<Map<String, Object>>> findAllFields(Pageable pageable, @RequestParam String fields,
+			@RequestParam(value = "count", defaultValue = "exact") String count, WebRequest request) {
+		CountMode countMode = CountMode.parse(count);
+		FieldSelection selection = FieldSelection.parse(fields, ProductService.FIELDS);
+		if (isConditional(request)) {
+			ResourceVersion version = service.findPageVersion(pageable, countMode, selection.contains("categories"));
+			if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+			}
+			Slice<Map<String, Object>> list = service.findAllFields(pageable, countMode, selection);
+			return ResponseEntity.ok().body(list);
+		}
+		Versioned<Slice<Map<String, Object>>> list = service.findAllFieldsVersioned(pageable, countMode, selection);
+		return ok(list);
+	}
+	
+	// without a validator to compare, the version query would only repeat the page query
+	private static boolean isConditional(WebRequest request) {
+		return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+				|| request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+	}
+	
+	private static <T> ResponseEntity<T> ok(Versioned<T> versioned) {
+		ResourceVersion version = versioned.getVersion();
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(version.getETag());
+		if (version.getLastModified() != null) {
+			builder.lastModified(version.getLastModified());
+		}
+		return builder.body(versioned.getBody());
+	}
+	
+	@GetMapping(params = "cursor")
+	public ResponseEntity<KeysetPageDTO<ProductDTO>> findAllKeyset(@RequestParam String cursor, Pageable pageable) {
+		KeysetPageDTO<ProductDTO> list = service.findAllKeyset(cursor, pageable);
 		return ResponseEntity.ok().body(list);
 	}
 	
+	@GetMapping(value = "/search")
+	public ResponseEntity<Page<ProductDTO>> search(@RequestParam("q") String text, Pageable pageable) {
+		Page<ProductDTO> list = service.search(text, pageable);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(value = "/suggest")
+	public ResponseEntity<List<SuggestionDTO>> suggest(@RequestParam String prefix,
+			@RequestParam(value = "limit", defaultValue = "10") int limit) {
+		if (limit < 1 || limit > NameSuggester.MAX_LIMIT) {
+			throw new InvalidParameterException("Invalid limit: " + limit + ", expected 1 to " + NameSuggester.MAX_LIMIT);
+		}
+		List<SuggestionDTO> list = nameSuggester.suggest(prefix, limit);
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(value = "/stats")
+	public ResponseEntity<ProductStatsDTO> stats(@RequestParam(value = "period", defaultValue = "month") String period) {
+		ProductStatsDTO dto = service.findStats(ProductColumns.Period.parse(period));
+		return ResponseEntity.ok().body(dto);
+	}
+	
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(
+			@RequestParam(value = "expand", defaultValue = "") String expand,
+			@RequestParam(value = "from", required = false) Instant from,
+			@RequestParam(value = "to", required = false) Instant to,
+			@RequestParam(value = "category", required = false) Long category,
+			@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+		if (!expand.isEmpty() && !expand.equals("categories")) {
+			throw new InvalidParameterException("Invalid expand: " + expand);
+		}
+		boolean withCategories = !expand.isEmpty();
+		StreamingResponseBody body = out -> {
+			if (gzip) {
+				GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+				exportService.export(from, to, category, withCategories, gzipOut);
+				gzipOut.finish();
+			}
+			else {
+				exportService.export(from, to, category, withCategories, out);
+			}
+		};
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson"));
+		if (gzip) {
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return response.body(body);
+	}
+	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
+	public ResponseEntity<ProductDTO> findById(@PathVariable Long id, WebRequest request) {
+		ResourceVersion version = service.findVersion(id);
+		if (request.checkNotModified(version.getETag(), version.getLastModifiedMillis())) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+		}
 		ProductDTO dto = service.findById(id);
 		return ResponseEntity.ok().body(dto);
 	}
@@ -48,12 +220,34 @@ public class ProductResource {
 		return ResponseEntity.created(uri).body(dto);
 	}
 	
+	@PostMapping(value = "/import", consumes = { ProductImportService.NDJSON, ProductImportService.CSV })
+	public ResponseEntity<StreamingResponseBody> importProducts(InputStream in,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+		StreamingResponseBody body = out -> importService.importProducts(in, contentType, out);
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(ProductImportService.NDJSON)).body(body);
+	}
+	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO dto) {
 		dto = service.update(id, dto);
 		return ResponseEntity.ok().body(dto);
 	}
 	
+	@DeleteMapping(params = "ids")
+	public ResponseEntity<DeleteSummaryDTO> deleteAll(@RequestParam List<Long> ids) {
+		DeleteSummaryDTO summary = deleteService.deleteByIds(ids);
+		return ResponseEntity.ok().body(summary);
+	}
+	
+	@DeleteMapping(params = "!ids")
+	public ResponseEntity<DeleteSummaryDTO> deleteMatching(
+			@RequestParam(value = "from", required = false) Instant from,
+			@RequestParam(value = "to", required = false) Instant to,
+			@RequestParam(value = "category", required = false) Long category) {
+		DeleteSummaryDTO summary = deleteService.deleteMatching(from, to, category);
+		return ResponseEntity.ok().body(summary);
+	}
+	
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable Long id) {
 		service.delete(id);
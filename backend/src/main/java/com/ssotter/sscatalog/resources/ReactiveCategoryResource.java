@@ -0,0 +1,33 @@
+package com.ssotter.sscatalog.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.services.ReactiveCategoryService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only counterpart of {@link CategoryResource} over R2DBC; see
+ * {@link ReactiveProductResource} for why it is no faster on H2.
+ */
+@RestController
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+@RequestMapping(value = "/reactive/categories")
+public class ReactiveCategoryResource {
+	
+	@Autowired
+	private ReactiveCategoryService service;
+	
+	@GetMapping
+	public Mono<ResponseEntity<Page<CategoryDTO>>> findAll(Pageable pageable) {
+		return service.findAllPaged(pageable).map(ResponseEntity::ok);
+	}
+}
@@ -0,0 +1,66 @@
+package com.ssotter.sscatalog.resources;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.services.ReactiveProductService;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only counterpart of {@link ProductResource} over R2DBC, served by
+ * Spring MVC as async requests rather than by WebFlux. The servlet thread is
+ * handed back once the query is issued, but r2dbc-h2 runs the statement on
+ * the subscribing thread, which is that same servlet thread, so on H2 this
+ * path blocks like the JDBC one and gains nothing. It has only been compared
+ * against the servlet endpoints on H2 at 40 req/s; until it is measured
+ * against Postgres at a load that fills the connection pools, treat it as
+ * no faster than {@link ProductResource}.
+ */
+@RestController
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+@RequestMapping(value = "/reactive/products")
+public class ReactiveProductResource {
+	
+	@Autowired
+	private ReactiveProductService service;
+	
+	@GetMapping
+	public Mono<ResponseEntity<Page<ProductDTO>>> findAll(Pageable pageable,
+			@RequestParam(value = "expand", defaultValue = "") String expand) {
+		return service.findAllPaged(pageable, withCategories(expand)).map(ResponseEntity::ok);
+	}
+	
+	/**
+	 * Newline-delimited JSON, written one product at a time; the next row is
+	 * only requested once the previous one has been written out.
+	 */
+	@GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<ProductDTO> stream(@RequestParam(value = "expand", defaultValue = "") String expand) {
+		return service.streamAll(withCategories(expand));
+	}
+	
+	@GetMapping(value = "/{id}")
+	public Mono<ResponseEntity<ProductDTO>> findById(@PathVariable Long id) {
+		return service.findById(id).map(ResponseEntity::ok);
+	}
+	
+	private static boolean withCategories(String expand) {
+		if (!expand.isEmpty() && !expand.equals("categories")) {
+			throw new InvalidParameterException("Invalid expand: " + expand);
+		}
+		return !expand.isEmpty();
+	}
+}
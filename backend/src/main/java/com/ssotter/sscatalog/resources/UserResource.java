@@ -1,12 +1,13 @@
 package com.ssotter.sscatalog.resources;
 
 import java.net.URI;
+import java.util.Map;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,12 +16,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.ssotter.sscatalog.dto.UserDTO;
 import com.ssotter.sscatalog.dto.UserInsertDTO;
 import com.ssotter.sscatalog.services.UserService;
+import com.ssotter.sscatalog.services.fields.FieldSelection;
+import com.ssotter.sscatalog.services.pagination.CountMode;
 
 @RestController
 @RequestMapping(value = "/users")
@@ -30,8 +34,17 @@ public class UserResource {
 	private UserService service;
 	
 	@GetMapping
-	public ResponseEntity<Page<UserDTO>> findAll(Pageable pageable) {
-		Page<UserDTO> list = service.findAllPaged(pageable);
+	public ResponseEntity<Slice<UserDTO>> findAll(Pageable pageable,
+			@RequestParam(value = "count", defaultValue = "exact") String count) {
+		Slice<UserDTO> list = service.findAllPaged(pageable, CountMode.parse(count));
+		return ResponseEntity.ok().body(list);
+	}
+	
+	@GetMapping(params = "fields")
+	public ResponseEntity<Slice<Map<String, Object>>> findAllFields(Pageable pageable, @RequestParam String fields,
+			@RequestParam(value = "count", defaultValue = "exact") String count) {
+		FieldSelection selection = FieldSelection.parse(fields, UserService.FIELDS);
+		Slice<Map<String, Object>> list = service.findAllFields(pageable, CountMode.parse(count), selection);
 		return ResponseEntity.ok().body(list);
 	}
 	
@@ -4,6 +4,7 @@ import java.time.Instant;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,8 +12,14 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.ssotter.sscatalog.services.exceptions.AuthenticationFailedException;
 import com.ssotter.sscatalog.services.exceptions.DatabaseException;
+import com.ssotter.sscatalog.services.exceptions.FieldValidationException;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Metrics;
 
 @ControllerAdvice
 public class ResorceExceptionHandler {
@@ -25,6 +32,7 @@ public class ResorceExceptionHandler {
 		err.setError("Resource not found!");
 		err.setMessage(e.getMessage());
 		err.setPath(request.getRequestURI());
+		count(err);
 		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(err);
 	}
 	
@@ -37,9 +45,49 @@ public class ResorceExceptionHandler {
 		err.setError("Database exception!");
 		err.setMessage(e.getMessage());
 		err.setPath(request.getRequestURI());
+		count(err);
+		return ResponseEntity.status(status).body(err);
+	}
+	
+	@ExceptionHandler(InvalidParameterException.class)
+	public ResponseEntity<StandardError> invalidParameter(InvalidParameterException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.BAD_REQUEST;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Invalid parameter!");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		count(err);
 		return ResponseEntity.status(status).body(err);
 	}
 	
+	@ExceptionHandler(AuthenticationFailedException.class)
+	public ResponseEntity<StandardError> authenticationFailed(AuthenticationFailedException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.UNAUTHORIZED;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Authentication failed!");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		count(err);
+		return ResponseEntity.status(status).body(err);
+	}
+	
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<StandardError> serviceUnavailable(ServiceUnavailableException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Service unavailable!");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		count(err);
+		return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(err);
+	}
+	
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<ValidationError> validation(MethodArgumentNotValidException e, HttpServletRequest request) {
 		HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
@@ -53,7 +101,28 @@ public class ResorceExceptionHandler {
 		for (FieldError f : e.getBindingResult().getFieldErrors()) {
 			err.addError(f.getField(), f.getDefaultMessage());
 		}
+		count(err);
 
 		return ResponseEntity.status(status).body(err);
 	}
+	
+	@ExceptionHandler(FieldValidationException.class)
+	public ResponseEntity<ValidationError> fieldValidation(FieldValidationException e, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+		ValidationError err = new ValidationError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Validation exception!");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		err.addError(e.getFieldName(), e.getMessage());
+		count(err);
+		return ResponseEntity.status(status).body(err);
+	}
+	
+	// Spring Boot adds its registry to the global one, which also works in web slice tests
+	private void count(StandardError err) {
+		Metrics.counter("sscatalog.errors", "status", String.valueOf(err.getStatus()), "error", err.getError())
+				.increment();
+	}
 }
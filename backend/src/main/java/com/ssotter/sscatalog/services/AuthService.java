@@ -0,0 +1,65 @@
+package com.ssotter.sscatalog.services;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.ssotter.sscatalog.dto.LoginDTO;
+import com.ssotter.sscatalog.dto.RoleDTO;
+import com.ssotter.sscatalog.dto.TokenDTO;
+import com.ssotter.sscatalog.dto.UserDTO;
+import com.ssotter.sscatalog.entities.User;
+import com.ssotter.sscatalog.projections.UserRoleProjection;
+import com.ssotter.sscatalog.repositories.UserRepository;
+import com.ssotter.sscatalog.services.cache.RoleRegistry;
+import com.ssotter.sscatalog.services.exceptions.AuthenticationFailedException;
+import com.ssotter.sscatalog.services.security.LoginCache;
+import com.ssotter.sscatalog.services.security.PasswordHasher;
+import com.ssotter.sscatalog.services.security.TokenService;
+
+/**
+ * Password logins, answered with an access token. The user and its roles
+ * are read in two short statements and no transaction is open while BCrypt
+ * runs, so a login queued behind other hashes does not hold a connection.
+ */
+@Service
+public class AuthService {
+	
+	@Autowired
+	private UserRepository repository;
+	
+	@Autowired
+	private RoleRegistry roleRegistry;
+	
+	@Autowired
+	private PasswordHasher passwordHasher;
+	
+	@Autowired
+	private LoginCache loginCache;
+	
+	@Autowired
+	private TokenService tokenService;
+	
+	public TokenDTO login(LoginDTO dto) {
+		User user = repository.findByEmail(dto.getEmail());
+		// unknown emails pay for one hash too, so response times do not tell registered ones apart
+		if (user == null) {
+			passwordHasher.matches(dto.getPassword(), passwordHasher.getDummyHash());
+			throw new AuthenticationFailedException("Invalid email or password");
+		}
+		if (!loginCache.matches(user.getEmail(), dto.getPassword(), user.getPassword())) {
+			if (!passwordHasher.matches(dto.getPassword(), user.getPassword())) {
+				throw new AuthenticationFailedException("Invalid email or password");
+			}
+			loginCache.put(user.getEmail(), dto.getPassword(), user.getPassword());
+		}
+		Set<RoleDTO> roles = new HashSet<>();
+		for (UserRoleProjection row : repository.findUserRoles(List.of(user.getId()))) {
+			roles.add(roleRegistry.getRoleDTO(row.getRoleId()));
+		}
+		return tokenService.issue(new UserDTO(user, roles));
+	}
+}
@@ -1,41 +1,115 @@
 package com.ssotter.sscatalog.services;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.DeleteSummaryDTO;
+import com.ssotter.sscatalog.dto.KeysetPageDTO;
 import com.ssotter.sscatalog.entities.Category;
 import com.ssotter.sscatalog.repositories.CategoryRepository;
+import com.ssotter.sscatalog.services.cache.CategorySnapshot;
+import com.ssotter.sscatalog.services.cache.ProductCache;
 import com.ssotter.sscatalog.services.exceptions.DatabaseException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.pagination.CountCache;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.services.pagination.Keyset;
+import com.ssotter.sscatalog.services.pagination.KeysetCursor;
+import com.ssotter.sscatalog.services.versioning.ResourceVersion;
 
 @Service
 public class CategoryService {
 	
+	private static final Keyset<Category> KEYSET = new Keyset<>(Category::getId)
+			.key("id", Long.class, Category::getId)
+			.key("name", String.class, Category::getName);
+	
 	@Autowired
 	private CategoryRepository repository;
 	
-	@Transactional(readOnly = true)
+	@Autowired
+	private CountCache countCache;
+	
+	@Autowired
+	private ProductCache productCache;
+	
+	@Autowired
+	private CategorySnapshot snapshot;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${sscatalog.delete.chunk-size:500}")
+	private int chunkSize;
+	
 	public Page<CategoryDTO> findAllPaged(Pageable pageable) {
+		Optional<Page<CategoryDTO>> cached = snapshot.findAll(pageable);
+		if (cached.isPresent()) {
+			return cached.get();
+		}
 		Page<Category> list =  repository.findAll(pageable);
 		
 		return list.map(x -> new CategoryDTO(x));
 	}
 
+	public Slice<CategoryDTO> findAllPaged(Pageable pageable, CountMode count) {
+		Optional<Page<CategoryDTO>> cached = snapshot.findAll(pageable);
+		if (cached.isPresent()) {
+			Page<CategoryDTO> page = cached.get();
+			return count == CountMode.NONE ? new SliceImpl<>(page.getContent(), pageable, page.hasNext()) : page;
+		}
+		if (count == CountMode.EXACT) {
+			return findAllPaged(pageable);
+		}
+		Slice<Category> slice = repository.findSliceBy(pageable);
+		if (count == CountMode.ESTIMATE) {
+			long total = countCache.get("categories", repository::count);
+			slice = new PageImpl<>(slice.getContent(), pageable, total);
+		}
+		return slice.map(x -> new CategoryDTO(x));
+	}
+	
 	@Transactional(readOnly = true)
+	public KeysetPageDTO<CategoryDTO> findAllKeyset(String cursor, Pageable pageable) {
+		KeysetCursor keyset = KEYSET.cursor(cursor, pageable.getSort());
+		List<Category> list = repository.findKeyset(keyset.getProperty(), keyset.getDirection(), keyset.isBackward(),
+				keyset.getValue(), keyset.getId(), pageable.getPageSize() + 1);
+		return KEYSET.page(list, keyset, pageable.getPageSize(), x -> new CategoryDTO(x));
+	}
+
 	public CategoryDTO findById(Long id) {
-		Optional<Category> obj = repository.findById(id);
-		Category entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found!"));
-		return new CategoryDTO(entity);
+		Optional<CategoryDTO> obj = snapshot.findById(id);
+		return obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found!"));
+	}
+	
+	public ResourceVersion findVersion(Long id) {
+		Optional<ResourceVersion> obj = snapshot.findVersion(id);
+		return obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found!"));
+	}
+	
+	public ResourceVersion findPageVersion() {
+		return snapshot.version();
 	}
 
 	@Transactional
@@ -43,6 +117,8 @@ public class CategoryService {
 		Category entity = new Category();
 		entity.setName(dto.getName());;
 		entity = repository.save(entity);
+		countCache.invalidate("categories");
+		snapshot.refreshAfterCommit();
 		return new CategoryDTO(entity);
 	}
 
@@ -52,6 +128,9 @@ public class CategoryService {
 		Category entity = repository.getOne(id);
 		entity.setName(dto.getName());
 		entity = repository.save(entity);
+		countCache.invalidate("categories");
+		productCache.evictByCategory(id);
+		snapshot.refreshAfterCommit();
 		return new CategoryDTO(entity);
 		}
 		catch (EntityNotFoundException e) {
@@ -62,6 +141,8 @@ public class CategoryService {
 	public void delete(Long id) {
 		try {
 			repository.deleteById(id);
+			countCache.invalidate("categories");
+			snapshot.refreshAfterCommit();
 		}
 		catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
@@ -70,4 +151,38 @@ public class CategoryService {
 			throw new DatabaseException("Integrity violation");
 		}
 	}
+	
+	/**
+	 * One set-based DELETE per chunk of ids, each chunk in its own
+	 * transaction. A chunk holding a category still in use fails as a whole
+	 * and ends the run; the chunks before it stay deleted.
+	 */
+	public DeleteSummaryDTO deleteAll(List<Long> ids) {
+		List<Long> distinct = ids.stream().distinct().collect(Collectors.toList());
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		List<Long> deleted = new ArrayList<>();
+		List<Long> missing = new ArrayList<>();
+		for (int i = 0; i < distinct.size(); i += chunkSize) {
+			List<Long> chunk = distinct.subList(i, Math.min(i + chunkSize, distinct.size()));
+			List<Long> existing;
+			try {
+				existing = template.execute(status -> {
+					List<Long> found = repository.findIdsByIdIn(chunk);
+					if (!found.isEmpty()) {
+						repository.deleteAllByIdIn(found);
+						countCache.invalidate("categories");
+						snapshot.refreshAfterCommit();
+					}
+					return found;
+				});
+			}
+			catch (DataIntegrityViolationException e) {
+				throw new DatabaseException("Integrity violation, " + deleted.size() + " deleted before the failing chunk");
+			}
+			deleted.addAll(existing);
+			Set<Long> found = new HashSet<>(existing);
+			chunk.stream().filter(id -> !found.contains(id)).forEach(missing::add);
+		}
+		return new DeleteSummaryDTO(deleted, missing);
+	}
 }
@@ -0,0 +1,123 @@
+package com.ssotter.sscatalog.services;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.dto.DeleteSummaryDTO;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.ProductCache;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
+import com.ssotter.sscatalog.services.exceptions.DatabaseException;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+import com.ssotter.sscatalog.services.filter.CategoryBitmaps;
+import com.ssotter.sscatalog.services.pagination.CountCache;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.search.ProductIndex;
+
+/**
+ * Deletes products in chunks, each chunk in its own transaction and in three
+ * set-based statements: the ids that exist, their category links, then the
+ * rows. Caches and in-memory views are told once per chunk, after it
+ * commits. A chunk rejected by the database ends the run; the chunks before
+ * it stay deleted.
+ */
+@Service
+public class ProductDeleteService {
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private CountCache countCache;
+	
+	@Autowired
+	private ProductCache productCache;
+	
+	@Autowired
+	private ProductIndex productIndex;
+	
+	@Autowired
+	private NameSuggester nameSuggester;
+	
+	@Autowired
+	private CategoryBitmaps categoryBitmaps;
+	
+	@Autowired
+	private ProductColumns productColumns;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${sscatalog.delete.chunk-size:500}")
+	private int chunkSize;
+	
+	public DeleteSummaryDTO deleteByIds(List<Long> ids) {
+		List<Long> distinct = ids.stream().distinct().collect(Collectors.toList());
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		List<Long> deleted = new ArrayList<>();
+		List<Long> missing = new ArrayList<>();
+		for (int i = 0; i < distinct.size(); i += chunkSize) {
+			List<Long> chunk = distinct.subList(i, Math.min(i + chunkSize, distinct.size()));
+			List<Long> existing = deleteChunk(template, deleted.size(), () -> repository.findIdsByIdIn(chunk));
+			deleted.addAll(existing);
+			Set<Long> found = new HashSet<>(existing);
+			chunk.stream().filter(id -> !found.contains(id)).forEach(missing::add);
+		}
+		return new DeleteSummaryDTO(deleted, missing);
+	}
+	
+	/**
+	 * Deletes the products dated from (inclusive) to (exclusive) and in the
+	 * category, the same filter as the export. At least one bound is needed.
+	 */
+	public DeleteSummaryDTO deleteMatching(Instant from, Instant to, Long categoryId) {
+		if (from == null && to == null && categoryId == null) {
+			throw new InvalidParameterException("Expected ids, from, to or category");
+		}
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		List<Long> deleted = new ArrayList<>();
+		List<Long> chunk;
+		do {
+			Long after = deleted.isEmpty() ? 0L : deleted.get(deleted.size() - 1);
+			chunk = deleteChunk(template, deleted.size(),
+					() -> repository.findIds(from, to, categoryId, after, chunkSize));
+			deleted.addAll(chunk);
+		}
+		while (chunk.size() == chunkSize);
+		return new DeleteSummaryDTO(deleted, new ArrayList<>());
+	}
+	
+	private List<Long> deleteChunk(TransactionTemplate template, int deletedBefore, Supplier<List<Long>> ids) {
+		try {
+			return template.execute(status -> {
+				List<Long> chunk = ids.get();
+				if (!chunk.isEmpty()) {
+					repository.deleteCategoryLinksByProductIdIn(chunk);
+					repository.deleteAllByIdIn(chunk);
+					countCache.invalidate("products");
+					productCache.evict(chunk);
+					productIndex.removeAllAfterCommit(chunk);
+					nameSuggester.removeAllAfterCommit(chunk);
+					categoryBitmaps.removeAllAfterCommit(chunk);
+					productColumns.removeAllAfterCommit(chunk);
+				}
+				return chunk;
+			});
+		}
+		catch (DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity violation! " + deletedBefore + " deleted before the failing chunk");
+		}
+	}
+}
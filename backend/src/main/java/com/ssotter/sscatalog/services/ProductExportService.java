@@ -0,0 +1,110 @@
+package com.ssotter.sscatalog.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.projections.ProductCategoryProjection;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.CategorySnapshot;
+
+/**
+ * Writes the catalog as newline-delimited JSON from a forward-only cursor.
+ * Rows are handled fetch-size at a time: categories for the chunk come from
+ * one join-table query and the persistence context is cleared afterwards, so
+ * heap use does not grow with the table.
+ */
+@Service
+public class ProductExportService {
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private CategorySnapshot categorySnapshot;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@PersistenceContext
+	private EntityManager em;
+	
+	@Value("${sscatalog.export.fetch-size:500}")
+	private int fetchSize;
+	
+	@Transactional(readOnly = true)
+	public long export(Instant from, Instant to, Long categoryId, boolean withCategories, OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(ProductDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setRootValueSeparator(null);
+		
+		long count = 0;
+		try (Stream<Product> stream = repository.streamAll(from, to, categoryId, fetchSize)) {
+			List<Product> chunk = new ArrayList<>(fetchSize);
+			Iterator<Product> it = stream.iterator();
+			while (it.hasNext()) {
+				chunk.add(it.next());
+				if (chunk.size() == fetchSize) {
+					count += writeChunk(chunk, withCategories, writer, generator);
+				}
+			}
+			count += writeChunk(chunk, withCategories, writer, generator);
+		}
+		generator.close();
+		return count;
+	}
+	
+	private int writeChunk(List<Product> chunk, boolean withCategories, ObjectWriter writer, JsonGenerator generator)
+			throws IOException {
+		int size = chunk.size();
+		Map<Long, List<CategoryDTO>> categories = withCategories ? findCategories(chunk) : Map.of();
+		for (Product product : chunk) {
+			ProductDTO dto = new ProductDTO(product);
+			if (withCategories) {
+				dto.setCategories(categories.getOrDefault(product.getId(), new ArrayList<>()));
+			}
+			writer.writeValue(generator, dto);
+			generator.writeRaw('\n');
+		}
+		generator.flush();
+		chunk.clear();
+		em.clear();
+		return size;
+	}
+	
+	private Map<Long, List<CategoryDTO>> findCategories(List<Product> chunk) {
+		Map<Long, List<CategoryDTO>> result = new HashMap<>();
+		if (chunk.isEmpty()) {
+			return result;
+		}
+		List<Long> ids = chunk.stream().map(Product::getId).collect(Collectors.toList());
+		for (ProductCategoryProjection row : repository.findCategoryIds(ids)) {
+			categorySnapshot.findById(row.getCategoryId()).ifPresent(
+					cat -> result.computeIfAbsent(row.getProductId(), k -> new ArrayList<>()).add(cat));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,252 @@
+package com.ssotter.sscatalog.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.ImportErrorDTO;
+import com.ssotter.sscatalog.dto.ImportSummaryDTO;
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.repositories.CategoryRepository;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+import com.ssotter.sscatalog.services.filter.CategoryBitmaps;
+import com.ssotter.sscatalog.services.imports.CsvProductReader;
+import com.ssotter.sscatalog.services.imports.NdjsonProductReader;
+import com.ssotter.sscatalog.services.imports.ProductRecord;
+import com.ssotter.sscatalog.services.imports.ProductRecordReader;
+import com.ssotter.sscatalog.services.pagination.CountCache;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.search.ProductIndex;
+
+/**
+ * Reads NDJSON or CSV products one record at a time and inserts them in
+ * chunks, each chunk in its own transaction. Records that fail to parse or
+ * validate are reported as NDJSON lines while the file is still being read;
+ * a chunk rejected by the database is retried record by record so only the
+ * offending rows are lost.
+ */
+@Service
+public class ProductImportService {
+	
+	public static final String NDJSON = "application/x-ndjson";
+	public static final String CSV = "text/csv";
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private CategoryRepository categoryRepository;
+	
+	@Autowired
+	private CountCache countCache;
+	
+	@Autowired
+	private ProductIndex productIndex;
+	
+	@Autowired
+	private NameSuggester nameSuggester;
+	
+	@Autowired
+	private CategoryBitmaps categoryBitmaps;
+	
+	@Autowired
+	private ProductColumns productColumns;
+	
+	@Autowired
+	private Validator validator;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${sscatalog.import.chunk-size:500}")
+	private int chunkSize;
+	
+	public ImportSummaryDTO importProducts(InputStream in, String contentType, OutputStream out) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		ProductRecordReader records = newReader(reader, contentType);
+		
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setRootValueSeparator(null);
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		
+		long imported = 0;
+		long failed = 0;
+		List<ProductRecord> chunk = new ArrayList<>(chunkSize);
+		ProductRecord record;
+		while ((record = records.next()) != null) {
+			if (!record.hasErrors()) {
+				validate(record);
+			}
+			if (record.hasErrors()) {
+				failed++;
+				write(writer, generator, new ImportErrorDTO(record.getLine(), record.getErrors()));
+				continue;
+			}
+			chunk.add(record);
+			if (chunk.size() == chunkSize) {
+				long saved = saveChunk(chunk, template, writer, generator);
+				imported += saved;
+				failed += chunk.size() - saved;
+				chunk.clear();
+			}
+		}
+		long saved = saveChunk(chunk, template, writer, generator);
+		imported += saved;
+		failed += chunk.size() - saved;
+		
+		ImportSummaryDTO summary = new ImportSummaryDTO(imported, failed);
+		write(writer, generator, summary);
+		generator.close();
+		return summary;
+	}
+	
+	private ProductRecordReader newReader(BufferedReader reader, String contentType) {
+		String type = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase();
+		switch (type) {
+		case NDJSON:
+			return new NdjsonProductReader(reader, objectMapper.reader());
+		case CSV:
+			return new CsvProductReader(reader);
+		default:
+			throw new InvalidParameterException("Unsupported import type: " + contentType);
+		}
+	}
+	
+	private void validate(ProductRecord record) {
+		Set<ConstraintViolation<ProductDTO>> violations = validator.validate(record.getDto());
+		for (ConstraintViolation<ProductDTO> v : violations) {
+			record.addError(v.getPropertyPath().toString(), v.getMessage());
+		}
+	}
+	
+	private long saveChunk(List<ProductRecord> chunk, TransactionTemplate template, ObjectWriter writer,
+			JsonGenerator generator) throws IOException {
+		if (chunk.isEmpty()) {
+			return 0;
+		}
+		List<ProductRecord> saved;
+		try {
+			saved = template.execute(status -> insert(chunk));
+		}
+		catch (DataAccessException e) {
+			saved = new ArrayList<>();
+			for (ProductRecord record : chunk) {
+				if (record.hasErrors()) {
+					continue;
+				}
+				try {
+					saved.addAll(template.execute(status -> insert(List.of(record))));
+				}
+				catch (DataAccessException ex) {
+					record.addError("record", ex.getMostSpecificCause().getMessage());
+				}
+			}
+		}
+		if (!saved.isEmpty()) {
+			countCache.invalidate("products");
+		}
+		for (ProductRecord record : chunk) {
+			if (record.hasErrors()) {
+				write(writer, generator, new ImportErrorDTO(record.getLine(), record.getErrors()));
+			}
+		}
+		generator.flush();
+		return saved.size();
+	}
+	
+	private List<ProductRecord> insert(List<ProductRecord> chunk) {
+		List<Long> ids = chunk.stream()
+				.flatMap(record -> record.getDto().getCategories().stream())
+				.map(CategoryDTO::getId)
+				.filter(Objects::nonNull)
+				.distinct()
+				.collect(Collectors.toList());
+		Map<Long, Category> categories = new HashMap<>();
+		categoryRepository.findAllById(ids).forEach(cat -> categories.put(cat.getId(), cat));
+		
+		List<ProductRecord> accepted = new ArrayList<>();
+		List<Product> products = new ArrayList<>();
+		for (ProductRecord record : chunk) {
+			Product product = toEntity(record, categories);
+			if (!record.hasErrors()) {
+				accepted.add(record);
+				products.add(product);
+			}
+		}
+		List<Long> productIds = repository.insertAll(products);
+		Map<Long, String> names = new HashMap<>();
+		Map<Long, Set<Long>> memberships = new HashMap<>();
+		for (int i = 0; i < products.size(); i++) {
+			Product product = products.get(i);
+			product.setId(productIds.get(i));
+			names.put(product.getId(), product.getName());
+			memberships.put(product.getId(),
+					product.getCategories().stream().map(Category::getId).collect(Collectors.toSet()));
+		}
+		// one notification per chunk rather than one per row
+		productIndex.indexAllAfterCommit(products);
+		productColumns.putAllAfterCommit(products);
+		nameSuggester.putAllAfterCommit(names);
+		categoryBitmaps.putAllAfterCommit(memberships);
+		return accepted;
+	}
+	
+	private Product toEntity(ProductRecord record, Map<Long, Category> categories) {
+		ProductDTO dto = record.getDto();
+		Product entity = new Product();
+		entity.setName(dto.getName());
+		entity.setDescription(dto.getDescription());
+		entity.setPrice(dto.getPrice());
+		entity.setImgUrl(dto.getImgUrl());
+		entity.setDate(dto.getDate());
+		for (CategoryDTO catDto : dto.getCategories()) {
+			Category category = categories.get(catDto.getId());
+			if (category == null) {
+				record.addError("categories", "Category not found " + catDto.getId());
+			}
+			else {
+				entity.getCategories().add(category);
+			}
+		}
+		return entity;
+	}
+	
+	private void write(ObjectWriter writer, JsonGenerator generator, Object value) throws IOException {
+		writer.writeValue(generator, value);
+		generator.writeRaw('\n');
+	}
+}
@@ -1,35 +1,113 @@
 package com.ssotter.sscatalog.services;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.Tuple;
 
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.FacetsDTO;
+import com.ssotter.sscatalog.dto.KeysetPageDTO;
 import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.dto.ProductStatsDTO;
 import com.ssotter.sscatalog.entities.Category;
 import com.ssotter.sscatalog.entities.Product;
 import com.ssotter.sscatalog.repositories.CategoryRepository;
 import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.projections.ProductCategoryProjection;
+import com.ssotter.sscatalog.projections.VersionProjection;
+import com.ssotter.sscatalog.services.cache.CategorySnapshot;
+import com.ssotter.sscatalog.services.cache.ProductCache;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
 import com.ssotter.sscatalog.services.exceptions.DatabaseException;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.fields.Excerpt;
+import com.ssotter.sscatalog.services.fields.FieldSelection;
+import com.ssotter.sscatalog.services.filter.CategoryBitmaps;
+import com.ssotter.sscatalog.services.filter.CategoryFilter;
+import com.ssotter.sscatalog.services.pagination.CountCache;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.services.pagination.Keyset;
+import com.ssotter.sscatalog.services.pagination.KeysetCursor;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.search.ProductIndex;
+import com.ssotter.sscatalog.services.versioning.ResourceVersion;
+import com.ssotter.sscatalog.services.versioning.Versioned;
 
 @Service
 public class ProductService {
 	
+	private static final Keyset<Product> KEYSET = new Keyset<>(Product::getId)
+			.key("id", Long.class, Product::getId)
+			.key("name", String.class, Product::getName)
+			.key("price", Double.class, Product::getPrice)
+			.key("date", Instant.class, Product::getDate);
+	
+	public static final List<String> FIELDS = List.of("name", "description", "excerpt", "price", "imgUrl", "date",
+			"categories");
+	
 	@Autowired
 	private ProductRepository repository;
 	
+	@Autowired
+	private CountCache countCache;
+	
+	@Autowired
+	private ProductCache productCache;
+	
+	@Autowired
+	private CategorySnapshot categorySnapshot;
+	
 	@Autowired
 	private CategoryRepository categoryRepository;
 	
+	@Autowired
+	private ProductIndex productIndex;
+	
+	@Autowired
+	private NameSuggester nameSuggester;
+	
+	@Autowired
+	private CategoryBitmaps categoryBitmaps;
+	
+	@Autowired
+	private ProductColumns productColumns;
+	
+	@Value("${sscatalog.products.excerpt-length:160}")
+	private int excerptLength;
+	
+	@Value("${sscatalog.facets.price-buckets:100,500,1000,5000}")
+	private double[] priceBuckets;
+	
 	@Transactional(readOnly = true)
 	public Page<ProductDTO> findAllPaged(Pageable pageable) {
 		Page<Product> list =  repository.findAll(pageable);
@@ -37,10 +115,255 @@ public class ProductService {
 	}
 
 	@Transactional(readOnly = true)
+	public Slice<ProductDTO> findAllPaged(Pageable pageable, CountMode count) {
+		return findAllPaged(pageable, count, false);
+	}
+	
+	@Transactional(readOnly = true)
+	public Slice<ProductDTO> findAllPaged(Pageable pageable, CountMode count, boolean withCategories) {
+		return findAllPagedVersioned(pageable, count, withCategories).getBody();
+	}
+	
+	/**
+	 * The page with validators taken from the rows it was built from, for a GET
+	 * that has nothing to revalidate; a conditional GET asks
+	 * {@link #findPageVersion} first so a match never loads the page.
+	 */
+	@Transactional(readOnly = true)
+	public Versioned<Slice<ProductDTO>> findAllPagedVersioned(Pageable pageable, CountMode count,
+			boolean withCategories) {
+		Slice<Product> list;
+		if (count == CountMode.EXACT) {
+			list = repository.findAll(pageable);
+		}
+		else {
+			list = repository.findSliceBy(pageable);
+			if (count == CountMode.ESTIMATE) {
+				long total = countCache.get("products", repository::count);
+				list = new PageImpl<>(list.getContent(), pageable, total);
+			}
+		}
+		ResourceVersion.Builder builder = pageVersion(list);
+		list.forEach(x -> builder.add(x.getId(), x.getVersion()).modified(x.getUpdatedAt()));
+		ResourceVersion version = pageVersion(builder, withCategories);
+		if (withCategories && list.hasContent()) {
+			// one fetch join initializes the categories of the whole page
+			repository.findProductsWithCategories(list.getContent());
+			return new Versioned<>(list.map(x -> new ProductDTO(x, x.getCategories())), version);
+		}
+		return new Versioned<>(list.map(x -> new ProductDTO(x)), version);
+	}
+	
+	@Transactional(readOnly = true)
+	public Slice<Map<String, Object>> findAllFields(Pageable pageable, CountMode count, FieldSelection fields) {
+		return findAllFieldsVersioned(pageable, count, fields).getBody();
+	}
+	
+	/**
+	 * Also selects version and updatedAt, which only feed the validators and
+	 * never reach the body.
+	 */
+	@Transactional(readOnly = true)
+	public Versioned<Slice<Map<String, Object>>> findAllFieldsVersioned(Pageable pageable, CountMode count,
+			FieldSelection fields) {
+		List<String> columns = new ArrayList<>(fields.columns("categories"));
+		columns.add("version");
+		columns.add("updatedAt");
+		List<Tuple> rows = repository.findColumns(columns, excerptLength, pageable);
+		Map<Long, List<CategoryDTO>> categories = fields.contains("categories") ? findCategories(rows) : Map.of();
+		List<Map<String, Object>> content = new ArrayList<>(rows.size());
+		for (Tuple row : rows) {
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (String name : fields.getNames()) {
+				if (name.equals("categories")) {
+					values.put(name, categories.getOrDefault(row.get("id", Long.class), List.of()));
+				}
+				else if (name.equals("excerpt")) {
+					values.put(name, Excerpt.of(row.get(name, String.class), excerptLength));
+				}
+				else {
+					values.put(name, row.get(name));
+				}
+			}
+			content.add(values);
+		}
+		LongSupplier total = count == CountMode.ESTIMATE ? () -> countCache.get("products", repository::count)
+				: repository::count;
+		Slice<Map<String, Object>> list = count.slice(content, pageable, total);
+		ResourceVersion.Builder builder = pageVersion(list);
+		for (Tuple row : rows.subList(0, list.getNumberOfElements())) {
+			builder.add(row.get("id", Long.class), row.get("version", Long.class))
+					.modified(row.get("updatedAt", Instant.class));
+		}
+		return new Versioned<>(list, pageVersion(builder, fields.contains("categories")));
+	}
+	
+	/**
+	 * Filters by category on the bitmaps and reads only the page from the
+	 * database. In id order the page ids come straight from the bitmap, and a
+	 * single price or date order picks them from the columnar snapshot. Other
+	 * orders, by name say, still need the database to sort, so it filters
+	 * through the join table itself rather than getting every matching id
+	 * bound into an IN list. The total is the bitmap cardinality, so it never
+	 * costs a COUNT.
+	 */
+	@Transactional(readOnly = true)
+	public Page<ProductDTO> findAllFiltered(CategoryFilter filter, Pageable pageable, boolean withCategories) {
+		RoaringBitmap ids = categoryBitmaps.match(filter);
+		long total = ids.getLongCardinality();
+		List<Product> list;
+		List<Sort.Order> orders = pageable.getSort().toList();
+		Sort.Order order = orders.size() == 1 ? orders.get(0) : null;
+		if (orders.isEmpty() || (order != null && order.getProperty().equals("id"))) {
+			list = findInOrder(pageIds(ids, pageable, order != null && order.isDescending()), withCategories);
+		}
+		else if (order != null && ProductColumns.isSortable(order.getProperty())) {
+			list = findInOrder(productColumns.pageIds(ids, order.getProperty(), order.isDescending(),
+					pageable.getOffset(), pageable.getPageSize()), withCategories);
+		}
+		else if (ids.isEmpty()) {
+			list = List.of();
+		}
+		else {
+			List<Long> categoryIds = filter.getCategoryIds();
+			Slice<Product> slice = filter.getMatch() == CategoryFilter.Match.ALL
+					? repository.findSliceInAllCategories(categoryIds, categoryIds.size(), pageable)
+					: repository.findSliceInAnyCategory(categoryIds, pageable);
+			list = slice.getContent();
+			if (withCategories && !list.isEmpty()) {
+				repository.findProductsWithCategories(list);
+			}
+		}
+		List<ProductDTO> content = list.stream()
+				.map(x -> withCategories ? new ProductDTO(x, x.getCategories()) : new ProductDTO(x))
+				.collect(Collectors.toList());
+		return new PageImpl<>(content, pageable, total);
+	}
+	
+	public FacetsDTO findFacets() {
+		return facets(null);
+	}
+	
+	public FacetsDTO findFacets(CategoryFilter filter) {
+		return facets(categoryBitmaps.match(filter));
+	}
+	
+	/**
+	 * Served from the columnar snapshot, so dashboards refreshing it never
+	 * reach the database.
+	 */
+	public ProductStatsDTO findStats(ProductColumns.Period period) {
+		long start = System.nanoTime();
+		ProductColumns.Stats stats = productColumns.stats(period);
+		List<ProductStatsDTO.CategoryStats> categories = new ArrayList<>();
+		for (int i = 0; i < stats.getCategoryCount(); i++) {
+			if (stats.getCount(i) == 0) {
+				continue;
+			}
+			int ordinal = i;
+			double[] percentiles = stats.getPercentiles(i);
+			categorySnapshot.findById(stats.getCategoryId(i)).ifPresent(cat -> categories.add(
+					new ProductStatsDTO.CategoryStats(cat.getId(), cat.getName(), stats.getCount(ordinal),
+							price(stats.getMin(ordinal)), price(stats.getMax(ordinal)),
+							price(stats.getAverage(ordinal)), price(percentiles[0]), price(percentiles[1]),
+							price(percentiles[2]))));
+		}
+		categories.sort(Comparator.comparing(ProductStatsDTO.CategoryStats::getId));
+		List<ProductStatsDTO.PeriodCount> periods = new ArrayList<>();
+		for (int i = 0; i < stats.getPeriodCount(); i++) {
+			if (stats.getProductsInPeriod(i) > 0) {
+				periods.add(new ProductStatsDTO.PeriodCount(stats.getPeriodStart(i), stats.getProductsInPeriod(i)));
+			}
+		}
+		ProductStatsDTO.Snapshot snapshot = new ProductStatsDTO.Snapshot(productColumns.getLoadMillis(),
+				productColumns.getEstimatedBytes(), (System.nanoTime() - start) / 1_000_000);
+		return new ProductStatsDTO(stats.getTotal(), categories, periods, snapshot);
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ProductDTO> search(String text, Pageable pageable) {
+		if (text.isBlank()) {
+			throw new InvalidParameterException("Invalid search: empty query");
+		}
+		Page<Long> ids;
+		try {
+			ids = productIndex.search(text, pageable);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Map<Long, Product> products = new HashMap<>();
+		repository.findAllById(ids.getContent()).forEach(x -> products.put(x.getId(), x));
+		// relevance order; a hit deleted since the last refresh is left out
+		List<ProductDTO> content = ids.stream().map(products::get).filter(Objects::nonNull)
+				.map(x -> new ProductDTO(x)).collect(Collectors.toList());
+		return new PageImpl<>(content, pageable, ids.getTotalElements());
+	}
+	
+	@Transactional(readOnly = true)
+	public KeysetPageDTO<ProductDTO> findAllKeyset(String cursor, Pageable pageable) {
+		KeysetCursor keyset = KEYSET.cursor(cursor, pageable.getSort());
+		List<Product> list = repository.findKeyset(keyset.getProperty(), keyset.getDirection(), keyset.isBackward(),
+				keyset.getValue(), keyset.getId(), pageable.getPageSize() + 1);
+		return KEYSET.page(list, keyset, pageable.getPageSize(), x -> new ProductDTO(x));
+	}
+
 	public ProductDTO findById(Long id) {
-		Optional<Product> obj = repository.findById(id);
-		Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found!"));
-		return new ProductDTO(entity, entity.getCategories());
+		return productCache.get(id, key -> {
+			Optional<Product> obj = repository.findWithCategoriesById(key);
+			Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found!"));
+			return new ProductCache.Entry(new ProductDTO(entity, entity.getCategories()), entity.getVersion(),
+					entity.getUpdatedAt());
+		});
+	}
+	
+	public ResourceVersion findVersion(Long id) {
+		ProductCache.Entry cached = productCache.getIfPresent(id);
+		if (cached != null) {
+			return version(id, cached.getVersion(), cached.getUpdatedAt());
+		}
+		Optional<VersionProjection> obj = repository.findVersionById(id);
+		VersionProjection entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found!"));
+		return version(id, entity.getVersion(), entity.getUpdatedAt());
+	}
+	
+	@Transactional(readOnly = true)
+	public ResourceVersion findPageVersion(Pageable pageable, CountMode count, boolean withCategories) {
+		Slice<VersionProjection> list;
+		if (count == CountMode.EXACT) {
+			list = repository.findVersions(pageable);
+		}
+		else {
+			list = repository.findVersionSlice(pageable);
+			if (count == CountMode.ESTIMATE) {
+				long total = countCache.get("products", repository::count);
+				list = new PageImpl<>(list.getContent(), pageable, total);
+			}
+		}
+		ResourceVersion.Builder builder = pageVersion(list);
+		list.forEach(x -> builder.add(x.getId(), x.getVersion()).modified(x.getUpdatedAt()));
+		return pageVersion(builder, withCategories);
+	}
+	
+	// must hash the same parts in the same order as the page the body is built from
+	private static ResourceVersion.Builder pageVersion(Slice<?> list) {
+		ResourceVersion.Builder builder = ResourceVersion.builder("products");
+		return list instanceof Page ? builder.add(((Page<?>) list).getTotalElements()) : builder.add(list.hasNext());
+	}
+	
+	private ResourceVersion pageVersion(ResourceVersion.Builder builder, boolean withCategories) {
+		if (withCategories) {
+			ResourceVersion categories = categorySnapshot.version();
+			builder.add(categories.getETag()).modified(categories.getLastModified());
+		}
+		return builder.build();
+	}
+	
+	private ResourceVersion version(Long id, Long version, Instant updatedAt) {
+		// category names are part of the body, so a rename must change the tag too
+		ResourceVersion categories = categorySnapshot.version();
+		return ResourceVersion.builder("product").add(id, version).add(categories.getETag())
+				.modified(updatedAt).modified(categories.getLastModified()).build();
 	}
 
 	@Transactional
@@ -48,6 +371,11 @@ public class ProductService {
 		Product entity = new Product();
 		copyDtoToEntity(dto, entity);
 		entity = repository.save(entity);
+		countCache.invalidate("products");
+		productIndex.indexAfterCommit(entity);
+		nameSuggester.putAfterCommit(entity.getId(), entity.getName());
+		categoryBitmaps.putAfterCommit(entity.getId(), categoryIds(entity));
+		productColumns.putAfterCommit(entity);
 		return new ProductDTO(entity);
 	}
 
@@ -55,8 +383,14 @@ public class ProductService {
 	public ProductDTO update(Long id, ProductDTO dto) {
 		try {
 		Product entity = repository.getOne(id);
+		// managed, so dirty checking writes it; save() would merge and load every category
 		copyDtoToEntity(dto, entity);
-		entity = repository.save(entity);
+		countCache.invalidate("products");
+		productCache.evict(id);
+		productIndex.indexAfterCommit(entity);
+		nameSuggester.putAfterCommit(id, entity.getName());
+		categoryBitmaps.putAfterCommit(id, categoryIds(entity));
+		productColumns.putAfterCommit(entity);
 		return new ProductDTO(entity);
 		}
 		catch (EntityNotFoundException e) {
@@ -67,6 +401,12 @@ public class ProductService {
 	public void delete(Long id) {
 		try {
 		repository.deleteById(id);
+		countCache.invalidate("products");
+		productCache.evict(id);
+		productIndex.removeAfterCommit(id);
+		nameSuggester.removeAfterCommit(id);
+		categoryBitmaps.removeAfterCommit(id);
+		productColumns.removeAfterCommit(id);
 	}
 		catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found - id nr: " + id);
@@ -76,6 +416,80 @@ public class ProductService {
 		}
 	}
 	
+	private FacetsDTO facets(RoaringBitmap ids) {
+		ProductColumns.Facets facets = productColumns.facets(ids, priceBuckets);
+		List<FacetsDTO.CategoryCount> categories = new ArrayList<>();
+		long[] categoryIds = facets.getCategoryIds();
+		long[] categoryCounts = facets.getCategoryCounts();
+		for (int i = 0; i < categoryIds.length; i++) {
+			long count = categoryCounts[i];
+			if (count > 0) {
+				categorySnapshot.findById(categoryIds[i]).ifPresent(
+						cat -> categories.add(new FacetsDTO.CategoryCount(cat.getId(), cat.getName(), count)));
+			}
+		}
+		categories.sort(Comparator.comparing(FacetsDTO.CategoryCount::getCount).reversed()
+				.thenComparing(FacetsDTO.CategoryCount::getId));
+		List<FacetsDTO.PriceBucket> prices = new ArrayList<>();
+		long[] priceCounts = facets.getPriceCounts();
+		for (int k = 0; k < priceCounts.length; k++) {
+			Double from = k == 0 ? null : priceBuckets[k - 1];
+			Double to = k == priceBuckets.length ? null : priceBuckets[k];
+			prices.add(new FacetsDTO.PriceBucket(from, to, priceCounts[k]));
+		}
+		return new FacetsDTO(facets.getTotal(), categories, prices);
+	}
+	
+	private static Double price(double value) {
+		return Double.isNaN(value) ? null : value;
+	}
+	
+	private List<Product> findInOrder(List<Long> pageIds, boolean withCategories) {
+		Map<Long, Product> products = new HashMap<>();
+		(withCategories ? repository.findWithCategoriesByIdIn(pageIds) : repository.findAllById(pageIds))
+				.forEach(x -> products.put(x.getId(), x));
+		// a product deleted since the bitmaps were read is left out
+		return pageIds.stream().map(products::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+	
+	private static List<Long> pageIds(RoaringBitmap ids, Pageable pageable, boolean descending) {
+		long total = ids.getLongCardinality();
+		long offset = pageable.getOffset();
+		List<Long> result = new ArrayList<>(pageable.getPageSize());
+		if (offset >= total) {
+			return result;
+		}
+		if (descending) {
+			for (long i = total - 1 - offset; i >= 0 && result.size() < pageable.getPageSize(); i--) {
+				result.add((long) ids.select((int) i));
+			}
+			return result;
+		}
+		PeekableIntIterator it = ids.getIntIterator();
+		it.advanceIfNeeded(ids.select((int) offset));
+		while (it.hasNext() && result.size() < pageable.getPageSize()) {
+			result.add((long) it.next());
+		}
+		return result;
+	}
+	
+	private static Set<Long> categoryIds(Product entity) {
+		return entity.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+	}
+	
+	private Map<Long, List<CategoryDTO>> findCategories(List<Tuple> rows) {
+		Map<Long, List<CategoryDTO>> result = new HashMap<>();
+		if (rows.isEmpty()) {
+			return result;
+		}
+		List<Long> ids = rows.stream().map(row -> row.get("id", Long.class)).collect(Collectors.toList());
+		for (ProductCategoryProjection row : repository.findCategoryIds(ids)) {
+			categorySnapshot.findById(row.getCategoryId()).ifPresent(
+					cat -> result.computeIfAbsent(row.getProductId(), k -> new ArrayList<>()).add(cat));
+		}
+		return result;
+	}
+	
 	private void copyDtoToEntity(ProductDTO dto, Product entity) {
 		
 		entity.setName(dto.getName());
@@ -84,10 +498,20 @@ public class ProductService {
 		entity.setImgUrl(dto.getImgUrl());
 		entity.setPrice(dto.getPrice());
 		
-		entity.getCategories().clear();
-		for (CategoryDTO catDto : dto.getCategories()) {
-			Category category = categoryRepository.getOne(catDto.getId());
-			entity.getCategories().add(category);
+		// one select loads them into this session; getOne proxies would each be
+		// initialized as soon as the set hashes them
+		Set<Long> ids = dto.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+		Map<Long, Category> found = new HashMap<>();
+		categoryRepository.findAllById(ids).forEach(cat -> found.put(cat.getId(), cat));
+		// a new set replaces the join rows without loading the old ones first
+		Set<Category> categories = new HashSet<>();
+		for (Long catId : ids) {
+			Category category = found.get(catId);
+			if (category == null) {
+				throw new ResourceNotFoundException("Category not found " + catId);
+			}
+			categories.add(category);
 		}
+		entity.setCategories(categories);
 	}
 }
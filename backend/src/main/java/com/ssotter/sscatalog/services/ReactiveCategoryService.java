@@ -0,0 +1,26 @@
+package com.ssotter.sscatalog.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.repositories.ReactiveCategoryRepository;
+
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+public class ReactiveCategoryService {
+	
+	@Autowired
+	private ReactiveCategoryRepository repository;
+	
+	public Mono<Page<CategoryDTO>> findAllPaged(Pageable pageable) {
+		return Mono.zip(repository.findAll(pageable).collectList(), repository.count())
+				.<Page<CategoryDTO>>map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+	}
+}
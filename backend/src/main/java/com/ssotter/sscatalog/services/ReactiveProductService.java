@@ -0,0 +1,95 @@
+package com.ssotter.sscatalog.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.repositories.ReactiveProductRepository;
+import com.ssotter.sscatalog.services.cache.CategorySnapshot;
+import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Product reads over R2DBC, returning the same DTOs as {@link ProductService}.
+ * Nothing here waits on a result: categories come from one join-table query
+ * per page or per streamed chunk, and their names from the in-memory
+ * snapshot. Whether that frees any thread depends on the driver; r2dbc-h2
+ * does the work on the caller's thread, so on H2 it does not.
+ */
+@Service
+@ConditionalOnProperty("sscatalog.r2dbc.url")
+public class ReactiveProductService {
+	
+	@Autowired
+	private ReactiveProductRepository repository;
+	
+	@Autowired
+	private CategorySnapshot categorySnapshot;
+	
+	@Value("${sscatalog.export.fetch-size:500}")
+	private int fetchSize;
+	
+	public Mono<Page<ProductDTO>> findAllPaged(Pageable pageable, boolean withCategories) {
+		Mono<List<ProductDTO>> content = repository.findAll(pageable).collectList();
+		if (withCategories) {
+			content = content.flatMap(this::withCategories);
+		}
+		return Mono.zip(content, repository.count())
+				.<Page<ProductDTO>>map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+	}
+	
+	/**
+	 * The whole catalog in id order. Rows are requested from the driver as the
+	 * subscriber consumes them, fetch-size at a time when categories are
+	 * expanded.
+	 */
+	public Flux<ProductDTO> streamAll(boolean withCategories) {
+		Flux<ProductDTO> products = repository.streamAll();
+		if (!withCategories) {
+			return products;
+		}
+		return products.buffer(fetchSize)
+				.concatMap(this::withCategories, 1)
+				.concatMapIterable(chunk -> chunk);
+	}
+	
+	public Mono<ProductDTO> findById(Long id) {
+		return repository.findById(id)
+				.switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Entity not found!")))
+				.flatMap(dto -> withCategories(List.of(dto)))
+				.map(list -> list.get(0));
+	}
+	
+	private Mono<List<ProductDTO>> withCategories(List<ProductDTO> products) {
+		if (products.isEmpty()) {
+			return Mono.just(products);
+		}
+		List<Long> ids = products.stream().map(ProductDTO::getId).collect(Collectors.toList());
+		return repository.findCategoryIds(ids).map(categoryIds -> {
+			products.forEach(dto -> dto.setCategories(categories(categoryIds.get(dto.getId()))));
+			return products;
+		});
+	}
+	
+	private List<CategoryDTO> categories(Collection<Long> ids) {
+		List<CategoryDTO> result = new ArrayList<>();
+		if (ids != null) {
+			ids.forEach(id -> categorySnapshot.findById(id).ifPresent(result::add));
+		}
+		return result;
+	}
+}
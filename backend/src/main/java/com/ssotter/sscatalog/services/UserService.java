@@ -1,15 +1,25 @@
 package com.ssotter.sscatalog.services;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.Tuple;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,27 +28,91 @@ import com.ssotter.sscatalog.dto.UserDTO;
 import com.ssotter.sscatalog.dto.UserInsertDTO;
 import com.ssotter.sscatalog.entities.Role;
 import com.ssotter.sscatalog.entities.User;
-import com.ssotter.sscatalog.repositories.RoleRepository;
+import com.ssotter.sscatalog.projections.UserRoleProjection;
 import com.ssotter.sscatalog.repositories.UserRepository;
+import com.ssotter.sscatalog.services.cache.RoleRegistry;
 import com.ssotter.sscatalog.services.exceptions.DatabaseException;
+import com.ssotter.sscatalog.services.exceptions.FieldValidationException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.fields.FieldSelection;
+import com.ssotter.sscatalog.services.pagination.CountCache;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.services.security.LoginCache;
+import com.ssotter.sscatalog.services.security.PasswordHasher;
+import com.ssotter.sscatalog.services.security.TokenRevocations;
+import com.ssotter.sscatalog.services.validation.EmailFilter;
 
 @Service
 public class UserService {
 	
+	public static final List<String> FIELDS = List.of("firstName", "lastName", "email", "roles");
+	
+	private static final String SIGNUP_ROLE = "ROLE_CLIENT";
+	
 	@Autowired
-	private BCryptPasswordEncoder passwordEncoder;
+	private PasswordHasher passwordHasher;
+	
+	@Autowired
+	private LoginCache loginCache;
+	
+	@Autowired
+	private EmailFilter emailFilter;
+	
+	@Autowired
+	private TokenRevocations tokenRevocations;
 	
 	@Autowired
 	private UserRepository repository;
 	
 	@Autowired
-	private RoleRepository roleRepository;
+	private CountCache countCache;
+	
+	@Autowired
+	private RoleRegistry roleRegistry;
 		
 	@Transactional(readOnly = true)
 	public Page<UserDTO> findAllPaged(Pageable pageable) {
 		Page<User> list =  repository.findAll(pageable);
-		return list.map(x -> new UserDTO(x));
+		Map<Long, Set<RoleDTO>> roles = findRoles(list.getContent());
+		return list.map(x -> new UserDTO(x, roles.getOrDefault(x.getId(), Set.of())));
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<UserDTO> findAllPaged(Pageable pageable, CountMode count) {
+		if (count == CountMode.EXACT) {
+			return findAllPaged(pageable);
+		}
+		Slice<User> slice = repository.findSliceBy(pageable);
+		if (count == CountMode.ESTIMATE) {
+			long total = countCache.get("users", repository::count);
+			slice = new PageImpl<>(slice.getContent(), pageable, total);
+		}
+		Map<Long, Set<RoleDTO>> roles = findRoles(slice.getContent());
+		return slice.map(x -> new UserDTO(x, roles.getOrDefault(x.getId(), Set.of())));
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<Map<String, Object>> findAllFields(Pageable pageable, CountMode count, FieldSelection fields) {
+		List<Tuple> rows = repository.findColumns(fields.columns("roles"), pageable);
+		Map<Long, Set<RoleDTO>> roles = fields.contains("roles")
+				? findRoleIds(rows.stream().map(row -> row.get("id", Long.class)).collect(Collectors.toList()))
+				: Map.of();
+		List<Map<String, Object>> content = new ArrayList<>(rows.size());
+		for (Tuple row : rows) {
+			Map<String, Object> values = new LinkedHashMap<>();
+			for (String name : fields.getNames()) {
+				if (name.equals("roles")) {
+					values.put(name, roles.getOrDefault(row.get("id", Long.class), Set.of()));
+				}
+				else {
+					values.put(name, row.get(name));
+				}
+			}
+			content.add(values);
+		}
+		LongSupplier total = count == CountMode.ESTIMATE ? () -> countCache.get("users", repository::count)
+				: repository::count;
+		return count.slice(content, pageable, total);
 	}
 
 	@Transactional(readOnly = true)
@@ -48,12 +122,22 @@ public class UserService {
 		return new UserDTO(entity);
 	}
 
-	@Transactional
+	// no transaction around the hash: a signup queued for BCrypt must not hold a connection
 	public UserDTO insert(UserInsertDTO dto) {
 		User entity = new User();
 		copyDtoToEntity(dto, entity);
-		entity.setPassword(passwordEncoder.encode(dto.getPassword()));
-		entity = repository.save(entity);
+		// signing up is open, so roles sent with it are ignored; only an admin's PUT grants more
+		entity.getRoles().add(roleRegistry.getRoleByAuthority(SIGNUP_ROLE));
+		entity.setPassword(passwordHasher.encode(dto.getPassword()));
+		try {
+			entity = repository.save(entity);
+		}
+		catch (DataIntegrityViolationException e) {
+			// a concurrent signup got the email after the validator looked
+			throw new FieldValidationException("email", "Email já existe");
+		}
+		emailFilter.addAfterCommit(entity.getEmail());
+		countCache.invalidate("users");
 		return new UserDTO(entity);
 	}
 
@@ -61,8 +145,12 @@ public class UserService {
 	public UserDTO update(Long id, UserDTO dto) {
 		try {
 		User entity = repository.getOne(id);
+		loginCache.invalidate(entity.getEmail());
 		copyDtoToEntity(dto, entity);
-		entity = repository.save(entity);
+		copyRolesToEntity(dto, entity);
+		emailFilter.addAfterCommit(entity.getEmail());
+		tokenRevocations.revokeAfterCommit(id);
+		countCache.invalidate("users");
 		return new UserDTO(entity);
 		}
 		catch (EntityNotFoundException e) {
@@ -70,13 +158,18 @@ public class UserService {
 		}
 	}
 
+	// loaded in the deleting transaction, so the email to evict costs no extra select
+	@Transactional
 	public void delete(Long id) {
 		try {
-		repository.deleteById(id);
+		User entity = repository.findById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Id not found - id nr: " + id));
+		repository.delete(entity);
+		repository.flush();
+		countCache.invalidate("users");
+		loginCache.invalidate(entity.getEmail());
+		tokenRevocations.revokeAfterCommit(id);
 	}
-		catch (EmptyResultDataAccessException e) {
-			throw new ResourceNotFoundException("Id not found - id nr: " + id);
-		}
 		catch (DataIntegrityViolationException e) {
 			throw new DatabaseException("Integrity violation!");
 		}
@@ -87,11 +180,28 @@ public class UserService {
 		entity.setFirstName(dto.getFirstName());
 		entity.setLastName(dto.getLastName());
 		entity.setEmail(dto.getEmail());
-		
-		entity.getRoles().clear();
+	}
+	
+	private void copyRolesToEntity(UserDTO dto, User entity) {
+		Set<Role> roles = new HashSet<>();
 		for (RoleDTO roleDto : dto.getRoles()) {
-			Role role = roleRepository.getOne(roleDto.getId());
-			entity.getRoles().add(role);
+			roles.add(roleRegistry.getRole(roleDto.getId()));
+		}
+		entity.setRoles(roles);
+	}
+	
+	private Map<Long, Set<RoleDTO>> findRoles(List<User> users) {
+		return findRoleIds(users.stream().map(User::getId).collect(Collectors.toList()));
+	}
+	
+	private Map<Long, Set<RoleDTO>> findRoleIds(List<Long> ids) {
+		Map<Long, Set<RoleDTO>> result = new HashMap<>();
+		if (ids.isEmpty()) {
+			return result;
+		}
+		for (UserRoleProjection row : repository.findUserRoles(ids)) {
+			result.computeIfAbsent(row.getUserId(), k -> new HashSet<>()).add(roleRegistry.getRoleDTO(row.getRoleId()));
 		}
+		return result;
 	}
 }
@@ -0,0 +1,44 @@
+package com.ssotter.sscatalog.services.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evictions issued from inside a write transaction are repeated once it
+ * completes, otherwise a reader could cache the pre-commit state in between.
+ */
+public final class AfterCompletion {
+	
+	private AfterCompletion() {
+	}
+	
+	public static void evict(Runnable eviction) {
+		eviction.run();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					eviction.run();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Runs the action once the current transaction commits, or right away
+	 * when there is none. A rollback skips it.
+	 */
+	public static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		}
+		else {
+			action.run();
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package com.ssotter.sscatalog.services.cache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.repositories.CategoryRepository;
+import com.ssotter.sscatalog.services.versioning.ResourceVersion;
+
+/**
+ * Copy-on-write image of tb_category. Readers go through a volatile reference
+ * without locking; writers rebuild the whole image after their transaction
+ * commits, so a rolled back write is never visible. Sorting follows
+ * PostgreSQL: ties broken by id, null names last when ascending and first
+ * when descending.
+ * 
+ * Names are compared by code point, like String.compareTo. H2 does the same
+ * by default, PostgreSQL only for a COLLATE "C" column, so name sorts are
+ * served from memory only with sscatalog.categories.sort-names-in-memory and
+ * go to the database otherwise.
+ * 
+ * A rebuild reads in a transaction of its own, which needs a second pooled
+ * connection while the committing thread still holds its first. Nobody ever
+ * waits for the rebuild lock: a writer that finds it taken only bumps the
+ * requested generation and the thread holding the lock rebuilds again, so
+ * threads that hold connections cannot queue up behind one that needs one.
+ */
+@Component
+public class CategorySnapshot {
+	
+	private static final Set<String> SORTABLE = Set.of("id", "name");
+	
+	private static final Comparator<CategoryDTO> BY_ID = Comparator.comparing(CategoryDTO::getId);
+	private static final Comparator<CategoryDTO> BY_NAME = Comparator
+			.comparing(CategoryDTO::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+			.thenComparing(BY_ID);
+	
+	@Autowired
+	private CategoryRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${sscatalog.categories.sort-names-in-memory:false}")
+	private boolean sortNamesInMemory;
+	
+	private volatile Snapshot snapshot;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	private final AtomicLong requested = new AtomicLong();
+	private long loaded;
+	
+	public Optional<CategoryDTO> findById(Long id) {
+		return Optional.ofNullable(current().byId.get(id));
+	}
+	
+	public Optional<ResourceVersion> findVersion(Long id) {
+		return Optional.ofNullable(current().versions.get(id));
+	}
+	
+	/**
+	 * Version of the table as a whole; any category write changes it.
+	 */
+	public ResourceVersion version() {
+		return current().version;
+	}
+	
+	/**
+	 * Empty when the sort uses a property the snapshot does not hold, in which
+	 * case the caller falls back to the repository.
+	 */
+	public Optional<Page<CategoryDTO>> findAll(Pageable pageable) {
+		Sort sort = pageable.getSort();
+		for (Order order : sort) {
+			if (!SORTABLE.contains(order.getProperty()) || order.isIgnoreCase()
+					|| (order.getProperty().equals("name") && !sortNamesInMemory)) {
+				return Optional.empty();
+			}
+		}
+		Snapshot current = current();
+		List<CategoryDTO> sorted = current.sorted(sort);
+		if (pageable.isUnpaged()) {
+			return Optional.of(new PageImpl<>(sorted));
+		}
+		int from = (int) Math.min(pageable.getOffset(), sorted.size());
+		int to = Math.min(from + pageable.getPageSize(), sorted.size());
+		return Optional.of(new PageImpl<>(new ArrayList<>(sorted.subList(from, to)), pageable, sorted.size()));
+	}
+	
+	public void refreshAfterCommit() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					refresh();
+				}
+			});
+		}
+		else {
+			refresh();
+		}
+	}
+	
+	@PostConstruct
+	public void refresh() {
+		requested.incrementAndGet();
+		while (requested.get() != loaded && lock.tryLock()) {
+			try {
+				long target = requested.get();
+				snapshot = load(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+				loaded = target;
+			}
+			catch (RuntimeException e) {
+				// force the next reader to load again instead of serving a stale image
+				snapshot = null;
+				throw e;
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+	}
+	
+	private Snapshot load(int propagation) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setPropagationBehavior(propagation);
+		template.setReadOnly(true);
+		return template.execute(status -> new Snapshot(new ArrayList<>(repository.findAll())));
+	}
+	
+	private Snapshot current() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			refresh();
+			current = snapshot;
+			if (current == null) {
+				// another thread is rebuilding; read a private copy instead of waiting
+				current = load(TransactionDefinition.PROPAGATION_REQUIRED);
+			}
+		}
+		return current;
+	}
+	
+	private static class Snapshot {
+		private final Map<Long, CategoryDTO> byId;
+		private final Map<Long, ResourceVersion> versions;
+		private final ResourceVersion version;
+		private final CategoryDTO[] sortedById;
+		private final CategoryDTO[] sortedByName;
+		
+		Snapshot(List<Category> categories) {
+			Map<Long, CategoryDTO> map = new HashMap<>();
+			Map<Long, ResourceVersion> versionMap = new HashMap<>();
+			ResourceVersion.Builder all = ResourceVersion.builder("categories");
+			categories.sort(Comparator.comparing(Category::getId));
+			for (Category category : categories) {
+				Instant modified = category.getUpdatedAt() != null ? category.getUpdatedAt() : category.getCreatedAt();
+				map.put(category.getId(), new CategoryDTO(category));
+				versionMap.put(category.getId(), ResourceVersion.builder("category")
+						.add(category.getId(), category.getVersion()).modified(modified).build());
+				all.add(category.getId(), category.getVersion()).modified(modified);
+			}
+			byId = Map.copyOf(map);
+			versions = Map.copyOf(versionMap);
+			version = all.build();
+			sortedById = map.values().toArray(new CategoryDTO[0]);
+			Arrays.sort(sortedById, BY_ID);
+			sortedByName = map.values().toArray(new CategoryDTO[0]);
+			Arrays.sort(sortedByName, BY_NAME);
+		}
+		
+		List<CategoryDTO> sorted(Sort sort) {
+			List<Order> orders = sort.toList();
+			if (orders.isEmpty()) {
+				return Arrays.asList(sortedById);
+			}
+			if (orders.size() == 1) {
+				Order order = orders.get(0);
+				List<CategoryDTO> list = Arrays.asList(order.getProperty().equals("id") ? sortedById : sortedByName);
+				if (order.isDescending()) {
+					list = new ArrayList<>(list);
+					Collections.reverse(list);
+				}
+				return list;
+			}
+			Comparator<CategoryDTO> comparator = null;
+			for (Order order : orders) {
+				Comparator<CategoryDTO> next = order.getProperty().equals("id") ? BY_ID : BY_NAME;
+				next = order.isDescending() ? next.reversed() : next;
+				comparator = comparator == null ? next : comparator.thenComparing(next);
+			}
+			List<CategoryDTO> list = new ArrayList<>(byId.values());
+			list.sort(comparator);
+			return list;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.ssotter.sscatalog.services.cache;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ssotter.sscatalog.dto.CacheStatsDTO;
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+/**
+ * Finished ProductDTOs served by GET /products/{id}, bounded by
+ * sscatalog.cache.products.max-size with Caffeine's W-TinyLFU eviction.
+ * Cached DTOs are shared between requests and must not be modified. Each
+ * entry keeps the version it was built from so conditional GETs need no query.
+ * 
+ * Loads run outside the map. Caffeine's computing get would hold a hash bin
+ * lock while the loader waits for a pooled connection, and a writer evicting
+ * from inside its transaction (connection held) would then wait on that bin.
+ * A load that overlaps an eviction is dropped instead of cached.
+ */
+@Component
+public class ProductCache {
+	
+	public static final String NAME = "products";
+	
+	private final long maxSize;
+	private final Cache<Long, Entry> cache;
+	private final AtomicLong evictions = new AtomicLong();
+	
+	public ProductCache(@Value("${sscatalog.cache.products.max-size:10000}") long maxSize) {
+		this.maxSize = maxSize;
+		this.cache = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+	}
+	
+	public ProductDTO get(Long id, Function<Long, Entry> loader) {
+		Entry entry = cache.getIfPresent(id);
+		if (entry == null) {
+			long generation = evictions.get();
+			entry = loader.apply(id);
+			cache.put(id, entry);
+			if (evictions.get() != generation) {
+				cache.asMap().remove(id, entry);
+			}
+		}
+		return entry.getDto();
+	}
+	
+	public Entry getIfPresent(Long id) {
+		return cache.getIfPresent(id);
+	}
+	
+	public void evict(Long id) {
+		AfterCompletion.evict(() -> {
+			evictions.incrementAndGet();
+			cache.invalidate(id);
+		});
+	}
+	
+	public void evict(Collection<Long> ids) {
+		AfterCompletion.evict(() -> {
+			evictions.incrementAndGet();
+			cache.invalidateAll(ids);
+		});
+	}
+	
+	public void evictAll() {
+		AfterCompletion.evict(() -> {
+			evictions.incrementAndGet();
+			cache.invalidateAll();
+		});
+	}
+	
+	public void evictByCategory(Long categoryId) {
+		AfterCompletion.evict(() -> {
+			evictions.incrementAndGet();
+			cache.asMap().values().removeIf(
+					entry -> entry.getDto().getCategories().stream().anyMatch(cat -> categoryId.equals(cat.getId())));
+		});
+	}
+	
+	public Cache<Long, Entry> getNativeCache() {
+		return cache;
+	}
+	
+	public CacheStatsDTO stats() {
+		CacheStats stats = cache.stats();
+		return new CacheStatsDTO(NAME, cache.estimatedSize(), maxSize, stats.hitCount(), stats.missCount(),
+				stats.evictionCount());
+	}
+	
+	public static class Entry {
+		private final ProductDTO dto;
+		private final Long version;
+		private final Instant updatedAt;
+		
+		public Entry(ProductDTO dto, Long version, Instant updatedAt) {
+			this.dto = dto;
+			this.version = version;
+			this.updatedAt = updatedAt;
+		}
+
+		public ProductDTO getDto() {
+			return dto;
+		}
+
+		public Long getVersion() {
+			return version;
+		}
+
+		public Instant getUpdatedAt() {
+			return updatedAt;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.ssotter.sscatalog.services.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ssotter.sscatalog.dto.RoleDTO;
+import com.ssotter.sscatalog.entities.Role;
+import com.ssotter.sscatalog.repositories.RoleRepository;
+import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+
+/**
+ * Immutable copy of tb_role. Roles are a handful of rows that only change
+ * through a deploy, so lookups never touch the database; call reload() if
+ * they are edited by hand.
+ */
+@Component
+public class RoleRegistry {
+	
+	@Autowired
+	private RoleRepository repository;
+	
+	private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+	
+	@PostConstruct
+	public void reload() {
+		Map<Long, Role> roles = new HashMap<>();
+		Map<Long, RoleDTO> dtos = new HashMap<>();
+		for (Role role : repository.findAll()) {
+			roles.put(role.getId(), new Role(role.getId(), role.getAuthority()));
+			dtos.put(role.getId(), new RoleDTO(role));
+		}
+		snapshot = new Snapshot(Map.copyOf(roles), Map.copyOf(dtos));
+	}
+	
+	/**
+	 * Detached reference usable as the target of a User.roles association.
+	 */
+	public Role getRole(Long id) {
+		Role role = snapshot.roles.get(id);
+		if (role == null) {
+			throw new ResourceNotFoundException("Role not found " + id);
+		}
+		return role;
+	}
+	
+	public Role getRoleByAuthority(String authority) {
+		for (Role role : snapshot.roles.values()) {
+			if (role.getAuthority().equals(authority)) {
+				return role;
+			}
+		}
+		throw new ResourceNotFoundException("Role not found " + authority);
+	}
+	
+	public RoleDTO getRoleDTO(Long id) {
+		RoleDTO dto = snapshot.dtos.get(id);
+		if (dto == null) {
+			throw new ResourceNotFoundException("Role not found " + id);
+		}
+		return dto;
+	}
+	
+	private static class Snapshot {
+		private final Map<Long, Role> roles;
+		private final Map<Long, RoleDTO> dtos;
+		
+		Snapshot(Map<Long, Role> roles, Map<Long, RoleDTO> dtos) {
+			this.roles = roles;
+			this.dtos = dtos;
+		}
+	}
+}
@@ -0,0 +1,700 @@
+package com.ssotter.sscatalog.services.columnar;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.PostConstruct;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.projections.ProductCategoryProjection;
+import com.ssotter.sscatalog.projections.ProductColumnProjection;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+/**
+ * Columnar image of the catalog for counting over many products at once.
+ * Arrays indexed by product id hold each price, the date in epoch millis and
+ * a bitset of category ordinals, and a bitmap marks the ids in use. Identity
+ * ids are dense, so indexing by id wastes little and lets a filter bitmap
+ * drive a pass directly, with no lookup per product. A removed product keeps
+ * its slot with no price, no date and no categories, so the aggregations can
+ * run plain loops over the arrays without consulting the bitmap.
+ *
+ * Writes change one product in place after its transaction commits, under
+ * the write lock; a pass holds the read lock, so it never sees half a write.
+ */
+@Component
+public class ProductColumns {
+	
+	public enum Period {
+		DAY, MONTH, YEAR;
+		
+		public static Period parse(String value) {
+			for (Period period : values()) {
+				if (period.name().equalsIgnoreCase(value)) {
+					return period;
+				}
+			}
+			throw new InvalidParameterException("Invalid period: " + value + ", expected day, month or year");
+		}
+	}
+	
+	private static final long NO_DATE = Long.MIN_VALUE;
+	private static final long DAY_MILLIS = 86_400_000L;
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final int MAX_PERIODS = 100_000;
+	private static final double[] PERCENTILES = { 0.5, 0.9, 0.99 };
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final RoaringBitmap present = new RoaringBitmap();
+	private final Map<Long, Integer> ordinals = new HashMap<>();
+	private long[] categoryIds = new long[0];
+	private double[] prices = new double[0];
+	private long[] dates = new long[0];
+	// words longs per product, bit n set when the product is in category ordinal n
+	private long[] categoryBits = new long[0];
+	private int words = 1;
+	private volatile long loadMillis;
+	
+	@PostConstruct
+	public void load() {
+		long start = System.nanoTime();
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		template.executeWithoutResult(status -> {
+			List<ProductColumnProjection> rows = repository.findColumnValues();
+			Map<Long, List<Long>> categories = repository.findAllCategoryIds().stream()
+					.collect(Collectors.groupingBy(ProductCategoryProjection::getProductId,
+							Collectors.mapping(ProductCategoryProjection::getCategoryId, Collectors.toList())));
+			lock.writeLock().lock();
+			try {
+				present.clear();
+				Arrays.fill(prices, Double.NaN);
+				Arrays.fill(dates, NO_DATE);
+				Arrays.fill(categoryBits, 0L);
+				for (ProductColumnProjection row : rows) {
+					set(row.getId(), row.getPrice(), row.getDate(),
+							categories.getOrDefault(row.getId(), List.of()));
+				}
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+		});
+		loadMillis = (System.nanoTime() - start) / 1_000_000;
+	}
+	
+	public void putAfterCommit(Product product) {
+		Long id = product.getId();
+		Double price = product.getPrice();
+		Instant date = product.getDate();
+		List<Long> categories = product.getCategories().stream().map(Category::getId).collect(Collectors.toList());
+		AfterCompletion.afterCommit(() -> put(id, price, date, categories));
+	}
+	
+	/**
+	 * Stores the products once the current transaction commits, taking the
+	 * write lock once for all of them.
+	 */
+	public void putAllAfterCommit(Collection<Product> products) {
+		List<Runnable> sets = new ArrayList<>(products.size());
+		for (Product product : products) {
+			Long id = product.getId();
+			Double price = product.getPrice();
+			Instant date = product.getDate();
+			List<Long> categories = product.getCategories().stream().map(Category::getId).collect(Collectors.toList());
+			sets.add(() -> set(id, price, date, categories));
+		}
+		AfterCompletion.afterCommit(() -> {
+			lock.writeLock().lock();
+			try {
+				sets.forEach(Runnable::run);
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+	
+	public void removeAfterCommit(Long id) {
+		AfterCompletion.afterCommit(() -> remove(id));
+	}
+	
+	public void removeAllAfterCommit(Collection<Long> ids) {
+		AfterCompletion.afterCommit(() -> removeAll(ids));
+	}
+	
+	public void put(Long id, Double price, Instant date, Collection<Long> categories) {
+		lock.writeLock().lock();
+		try {
+			set(id, price, date, categories);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	public void remove(Long productId) {
+		removeAll(List.of(productId));
+	}
+	
+	public void removeAll(Collection<Long> productIds) {
+		lock.writeLock().lock();
+		try {
+			for (Long productId : productIds) {
+				int id = Math.toIntExact(productId);
+				if (present.checkedRemove(id)) {
+					prices[id] = Double.NaN;
+					dates[id] = NO_DATE;
+					Arrays.fill(categoryBits, id * words, (id + 1) * words, 0L);
+				}
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Category and price bucket counts in one pass over the products in ids,
+	 * or over every product when ids is null. Bounds are ascending; bucket k
+	 * counts prices from bounds[k - 1] inclusive to bounds[k] exclusive, with
+	 * open ends on both sides.
+	 */
+	public Facets facets(RoaringBitmap ids, double[] bounds) {
+		lock.readLock().lock();
+		try {
+			RoaringBitmap rows = ids == null ? present : RoaringBitmap.and(ids, present);
+			long[] bits = categoryBits;
+			double[] values = prices;
+			int stride = words;
+			long[] categoryCounts = new long[categoryIds.length];
+			long[] priceCounts = new long[bounds.length + 1];
+			PeekableIntIterator it = rows.getIntIterator();
+			while (it.hasNext()) {
+				int id = it.next();
+				int base = id * stride;
+				for (int w = 0; w < stride; w++) {
+					for (long word = bits[base + w]; word != 0; word &= word - 1) {
+						categoryCounts[(w << 6) + Long.numberOfTrailingZeros(word)]++;
+					}
+				}
+				double price = values[id];
+				if (!Double.isNaN(price)) {
+					int k = Arrays.binarySearch(bounds, price);
+					priceCounts[k >= 0 ? k + 1 : -k - 1]++;
+				}
+			}
+			return new Facets(rows.getLongCardinality(), categoryIds.clone(), categoryCounts, priceCounts);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	public static boolean isSortable(String property) {
+		return property.equals("price") || property.equals("date");
+	}
+	
+	/**
+	 * Ids of one page of the products in ids ordered by price or date, with
+	 * missing values lowest and ties by id. A bounded heap keeps the first
+	 * offset + size products of one pass, so the whole match is never sorted.
+	 */
+	public List<Long> pageIds(RoaringBitmap ids, String property, boolean descending, long offset, int size) {
+		if (!isSortable(property)) {
+			throw new InvalidParameterException("Invalid sort: " + property + ", expected price or date");
+		}
+		boolean byPrice = property.equals("price");
+		lock.readLock().lock();
+		try {
+			RoaringBitmap rows = RoaringBitmap.and(ids, present);
+			int capacity = (int) Math.min(offset + size, rows.getLongCardinality());
+			long[] heapKeys = new long[capacity];
+			int[] heapIds = new int[capacity];
+			int count = 0;
+			PeekableIntIterator it = rows.getIntIterator();
+			while (it.hasNext()) {
+				int id = it.next();
+				long key = byPrice ? priceKey(prices[id]) : dates[id];
+				if (descending) {
+					key = ~key;
+				}
+				if (count < capacity) {
+					heapKeys[count] = key;
+					heapIds[count] = id;
+					siftUp(heapKeys, heapIds, count++);
+				}
+				else if (capacity > 0 && before(key, id, heapKeys[0], heapIds[0])) {
+					heapKeys[0] = key;
+					heapIds[0] = id;
+					siftDown(heapKeys, heapIds, 0, count);
+				}
+			}
+			// popping the largest into the freed slot leaves the heap sorted
+			for (int last = count - 1; last > 0; last--) {
+				swap(heapKeys, heapIds, 0, last);
+				siftDown(heapKeys, heapIds, 0, last);
+			}
+			List<Long> page = new ArrayList<>(Math.max(0, count - (int) Math.min(offset, count)));
+			for (int i = (int) Math.min(offset, count); i < count; i++) {
+				page.add((long) heapIds[i]);
+			}
+			return page;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Price statistics per category and product counts per date period.
+	 * Totals come from a fork-join reduction over chunks of the arrays; the
+	 * percentiles sort each category's prices, one category per task.
+	 */
+	public Stats stats(Period period) {
+		lock.readLock().lock();
+		try {
+			int length = prices.length;
+			int chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+			Totals totals = IntStream.range(0, chunks).parallel()
+					.mapToObj(c -> totals(c * CHUNK_SIZE, Math.min(length, (c + 1) * CHUNK_SIZE)))
+					.reduce(Totals::merge).orElseGet(() -> new Totals(categoryIds.length));
+			double[][] percentiles = percentiles(totals.priced);
+			
+			long[] periodCounts = new long[0];
+			long firstKey = 0;
+			if (totals.minDate != Long.MAX_VALUE) {
+				firstKey = key(period, totals.minDate);
+				long span = key(period, totals.maxDate) - firstKey + 1;
+				if (span > MAX_PERIODS) {
+					throw new InvalidParameterException("Too many periods: " + span + ", use a longer period");
+				}
+				long first = firstKey;
+				periodCounts = IntStream.range(0, chunks).parallel()
+						.mapToObj(c -> periodCounts(period, first, (int) span, c * CHUNK_SIZE,
+								Math.min(length, (c + 1) * CHUNK_SIZE)))
+						.reduce(ProductColumns::add).get();
+			}
+			return new Stats(present.getLongCardinality(), categoryIds.clone(), totals.counts, totals.priced,
+					totals.min, totals.max, totals.sum, percentiles, period, firstKey, periodCounts);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	public long getProductCount() {
+		lock.readLock().lock();
+		try {
+			return present.getLongCardinality();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Time the last full load took, reading included.
+	 */
+	public long getLoadMillis() {
+		return loadMillis;
+	}
+	
+	/**
+	 * Heap held by the arrays and the bitmap of ids.
+	 */
+	public long getEstimatedBytes() {
+		lock.readLock().lock();
+		try {
+			return 8L * (prices.length + dates.length + categoryBits.length + categoryIds.length)
+					+ present.getLongSizeInBytes();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	// orders doubles as their bits do, with no price lowest
+	private static long priceKey(double price) {
+		if (Double.isNaN(price)) {
+			return Long.MIN_VALUE;
+		}
+		long bits = Double.doubleToLongBits(price);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+	
+	private static boolean before(long key, int id, long otherKey, int otherId) {
+		return key < otherKey || (key == otherKey && id < otherId);
+	}
+	
+	// max-heap on (key, id), so the root is the first product to drop
+	private static void siftUp(long[] keys, int[] ids, int i) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!before(keys[parent], ids[parent], keys[i], ids[i])) {
+				return;
+			}
+			swap(keys, ids, parent, i);
+			i = parent;
+		}
+	}
+	
+	private static void siftDown(long[] keys, int[] ids, int i, int count) {
+		while (true) {
+			int largest = i;
+			for (int child = 2 * i + 1; child <= 2 * i + 2 && child < count; child++) {
+				if (before(keys[largest], ids[largest], keys[child], ids[child])) {
+					largest = child;
+				}
+			}
+			if (largest == i) {
+				return;
+			}
+			swap(keys, ids, i, largest);
+			i = largest;
+		}
+	}
+	
+	private static void swap(long[] keys, int[] ids, int i, int j) {
+		long key = keys[i];
+		keys[i] = keys[j];
+		keys[j] = key;
+		int id = ids[i];
+		ids[i] = ids[j];
+		ids[j] = id;
+	}
+	
+	private Totals totals(int from, int to) {
+		Totals totals = new Totals(categoryIds.length);
+		long[] bits = categoryBits;
+		int stride = words;
+		for (int id = from; id < to; id++) {
+			double price = prices[id];
+			boolean priced = !Double.isNaN(price);
+			int base = id * stride;
+			for (int w = 0; w < stride; w++) {
+				for (long word = bits[base + w]; word != 0; word &= word - 1) {
+					int ordinal = (w << 6) + Long.numberOfTrailingZeros(word);
+					totals.counts[ordinal]++;
+					if (priced) {
+						totals.priced[ordinal]++;
+						totals.sum[ordinal] += price;
+						totals.min[ordinal] = Math.min(totals.min[ordinal], price);
+						totals.max[ordinal] = Math.max(totals.max[ordinal], price);
+					}
+				}
+			}
+			long date = dates[id];
+			if (date != NO_DATE) {
+				totals.minDate = Math.min(totals.minDate, date);
+				totals.maxDate = Math.max(totals.maxDate, date);
+			}
+		}
+		return totals;
+	}
+	
+	private double[][] percentiles(long[] priced) {
+		int categories = categoryIds.length;
+		int[] offsets = new int[categories + 1];
+		for (int i = 0; i < categories; i++) {
+			offsets[i + 1] = offsets[i] + (int) priced[i];
+		}
+		// each category's prices side by side, then each slice sorted on its own
+		double[] values = new double[offsets[categories]];
+		int[] next = Arrays.copyOf(offsets, categories);
+		long[] bits = categoryBits;
+		int stride = words;
+		for (int id = 0; id < prices.length; id++) {
+			double price = prices[id];
+			if (Double.isNaN(price)) {
+				continue;
+			}
+			int base = id * stride;
+			for (int w = 0; w < stride; w++) {
+				for (long word = bits[base + w]; word != 0; word &= word - 1) {
+					values[next[(w << 6) + Long.numberOfTrailingZeros(word)]++] = price;
+				}
+			}
+		}
+		return IntStream.range(0, categories).parallel().mapToObj(i -> {
+			Arrays.sort(values, offsets[i], offsets[i + 1]);
+			double[] result = new double[PERCENTILES.length];
+			int count = offsets[i + 1] - offsets[i];
+			for (int p = 0; p < PERCENTILES.length; p++) {
+				// nearest rank
+				int rank = (int) Math.ceil(PERCENTILES[p] * count);
+				result[p] = count == 0 ? Double.NaN : values[offsets[i] + Math.max(rank, 1) - 1];
+			}
+			return result;
+		}).toArray(double[][]::new);
+	}
+	
+	private long[] periodCounts(Period period, long firstKey, int span, int from, int to) {
+		long[] counts = new long[span];
+		for (int id = from; id < to; id++) {
+			long date = dates[id];
+			if (date != NO_DATE) {
+				counts[(int) (key(period, date) - firstKey)]++;
+			}
+		}
+		return counts;
+	}
+	
+	private static long[] add(long[] a, long[] b) {
+		for (int i = 0; i < a.length; i++) {
+			a[i] += b[i];
+		}
+		return a;
+	}
+	
+	/**
+	 * Consecutive number of the period a date falls in, in UTC: epoch day,
+	 * months since year zero or the year.
+	 */
+	private static long key(Period period, long epochMillis) {
+		long day = Math.floorDiv(epochMillis, DAY_MILLIS);
+		if (period == Period.DAY) {
+			return day;
+		}
+		LocalDate date = LocalDate.ofEpochDay(day);
+		return period == Period.MONTH ? date.getYear() * 12L + date.getMonthValue() - 1 : date.getYear();
+	}
+	
+	private static Instant start(Period period, long key) {
+		LocalDate date;
+		switch (period) {
+		case DAY:
+			date = LocalDate.ofEpochDay(key);
+			break;
+		case MONTH:
+			date = LocalDate.of((int) Math.floorDiv(key, 12), (int) Math.floorMod(key, 12) + 1, 1);
+			break;
+		default:
+			date = LocalDate.of((int) key, 1, 1);
+		}
+		return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+	}
+	
+	private void set(Long productId, Double price, Instant date, Collection<Long> categories) {
+		int id = Math.toIntExact(productId);
+		int[] productOrdinals = categories.stream().mapToInt(this::ordinal).toArray();
+		ensureCapacity(id + 1);
+		prices[id] = price == null ? Double.NaN : price;
+		dates[id] = date == null ? NO_DATE : date.toEpochMilli();
+		int base = id * words;
+		Arrays.fill(categoryBits, base, base + words, 0L);
+		for (int ordinal : productOrdinals) {
+			categoryBits[base + (ordinal >>> 6)] |= 1L << ordinal;
+		}
+		present.add(id);
+	}
+	
+	private int ordinal(Long categoryId) {
+		Integer ordinal = ordinals.get(categoryId);
+		if (ordinal != null) {
+			return ordinal;
+		}
+		int next = categoryIds.length;
+		if (next == words * 64) {
+			widen(words + 1);
+		}
+		categoryIds = Arrays.copyOf(categoryIds, next + 1);
+		categoryIds[next] = categoryId;
+		ordinals.put(categoryId, next);
+		return next;
+	}
+	
+	private void ensureCapacity(int capacity) {
+		if (capacity > prices.length) {
+			int oldLength = prices.length;
+			int length = Math.max(capacity, oldLength + (oldLength >> 1) + 16);
+			prices = Arrays.copyOf(prices, length);
+			Arrays.fill(prices, oldLength, length, Double.NaN);
+			dates = Arrays.copyOf(dates, length);
+			Arrays.fill(dates, oldLength, length, NO_DATE);
+			categoryBits = Arrays.copyOf(categoryBits, length * words);
+		}
+	}
+	
+	private void widen(int newWords) {
+		long[] next = new long[prices.length * newWords];
+		for (int id = 0; id < prices.length; id++) {
+			System.arraycopy(categoryBits, id * words, next, id * newWords, words);
+		}
+		categoryBits = next;
+		words = newWords;
+	}
+	
+	private static final class Totals {
+		final long[] counts;
+		final long[] priced;
+		final double[] sum;
+		final double[] min;
+		final double[] max;
+		long minDate = Long.MAX_VALUE;
+		long maxDate = Long.MIN_VALUE;
+		
+		Totals(int categories) {
+			counts = new long[categories];
+			priced = new long[categories];
+			sum = new double[categories];
+			min = new double[categories];
+			max = new double[categories];
+			Arrays.fill(min, Double.POSITIVE_INFINITY);
+			Arrays.fill(max, Double.NEGATIVE_INFINITY);
+		}
+		
+		Totals merge(Totals other) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += other.counts[i];
+				priced[i] += other.priced[i];
+				sum[i] += other.sum[i];
+				min[i] = Math.min(min[i], other.min[i]);
+				max[i] = Math.max(max[i], other.max[i]);
+			}
+			minDate = Math.min(minDate, other.minDate);
+			maxDate = Math.max(maxDate, other.maxDate);
+			return this;
+		}
+	}
+	
+	public static final class Facets {
+		private final long total;
+		private final long[] categoryIds;
+		private final long[] categoryCounts;
+		private final long[] priceCounts;
+		
+		Facets(long total, long[] categoryIds, long[] categoryCounts, long[] priceCounts) {
+			this.total = total;
+			this.categoryIds = categoryIds;
+			this.categoryCounts = categoryCounts;
+			this.priceCounts = priceCounts;
+		}
+		
+		public long getTotal() {
+			return total;
+		}
+		
+		/**
+		 * Category ids by ordinal, parallel to the category counts.
+		 */
+		public long[] getCategoryIds() {
+			return categoryIds;
+		}
+		
+		public long[] getCategoryCounts() {
+			return categoryCounts;
+		}
+		
+		public long[] getPriceCounts() {
+			return priceCounts;
+		}
+	}
+	
+	/**
+	 * Per category arrays indexed by ordinal. Min, max and percentiles are
+	 * NaN for a category with no priced product.
+	 */
+	public static final class Stats {
+		private final long total;
+		private final long[] categoryIds;
+		private final long[] counts;
+		private final long[] priced;
+		private final double[] min;
+		private final double[] max;
+		private final double[] sum;
+		private final double[][] percentiles;
+		private final Period period;
+		private final long firstPeriod;
+		private final long[] periodCounts;
+		
+		Stats(long total, long[] categoryIds, long[] counts, long[] priced, double[] min, double[] max,
+				double[] sum, double[][] percentiles, Period period, long firstPeriod, long[] periodCounts) {
+			this.total = total;
+			this.categoryIds = categoryIds;
+			this.counts = counts;
+			this.priced = priced;
+			this.min = min;
+			this.max = max;
+			this.sum = sum;
+			this.percentiles = percentiles;
+			this.period = period;
+			this.firstPeriod = firstPeriod;
+			this.periodCounts = periodCounts;
+		}
+		
+		public long getTotal() {
+			return total;
+		}
+		
+		public int getCategoryCount() {
+			return categoryIds.length;
+		}
+		
+		public long getCategoryId(int ordinal) {
+			return categoryIds[ordinal];
+		}
+		
+		public long getCount(int ordinal) {
+			return counts[ordinal];
+		}
+		
+		public double getMin(int ordinal) {
+			return priced[ordinal] == 0 ? Double.NaN : min[ordinal];
+		}
+		
+		public double getMax(int ordinal) {
+			return priced[ordinal] == 0 ? Double.NaN : max[ordinal];
+		}
+		
+		public double getAverage(int ordinal) {
+			return priced[ordinal] == 0 ? Double.NaN : sum[ordinal] / priced[ordinal];
+		}
+		
+		/**
+		 * Median, 90th and 99th percentile.
+		 */
+		public double[] getPercentiles(int ordinal) {
+			return percentiles[ordinal];
+		}
+		
+		public int getPeriodCount() {
+			return periodCounts.length;
+		}
+		
+		public Instant getPeriodStart(int index) {
+			return start(period, firstPeriod + index);
+		}
+		
+		public long getProductsInPeriod(int index) {
+			return periodCounts[index];
+		}
+	}
+}
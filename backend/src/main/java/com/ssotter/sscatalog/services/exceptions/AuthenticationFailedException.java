@@ -0,0 +1,9 @@
+package com.ssotter.sscatalog.services.exceptions;
+
+public class AuthenticationFailedException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+	
+	public AuthenticationFailedException(String msg) {
+		super(msg);
+	}
+}
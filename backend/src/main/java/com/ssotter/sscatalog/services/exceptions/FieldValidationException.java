@@ -0,0 +1,16 @@
+package com.ssotter.sscatalog.services.exceptions;
+
+public class FieldValidationException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+	
+	private final String fieldName;
+	
+	public FieldValidationException(String fieldName, String msg) {
+		super(msg);
+		this.fieldName = fieldName;
+	}
+	
+	public String getFieldName() {
+		return fieldName;
+	}
+}
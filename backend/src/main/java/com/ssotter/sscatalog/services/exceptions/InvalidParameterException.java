@@ -0,0 +1,9 @@
+package com.ssotter.sscatalog.services.exceptions;
+
+public class InvalidParameterException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidParameterException(String msg) {
+		super(msg);
+	}
+}
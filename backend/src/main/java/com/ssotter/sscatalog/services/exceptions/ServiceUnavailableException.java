@@ -0,0 +1,9 @@
+package com.ssotter.sscatalog.services.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+	
+	public ServiceUnavailableException(String msg) {
+		super(msg);
+	}
+}
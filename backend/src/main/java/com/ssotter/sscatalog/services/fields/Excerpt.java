@@ -0,0 +1,24 @@
+package com.ssotter.sscatalog.services.fields;
+
+/**
+ * Short plain text preview for cards. The cut goes back to the last space when
+ * there is one in the second half, so words are not split.
+ */
+public class Excerpt {
+	
+	private static final String ELLIPSIS = "…";
+	
+	private Excerpt() {
+	}
+	
+	public static String of(String text, int length) {
+		if (text == null || text.length() <= length) {
+			return text;
+		}
+		int end = text.lastIndexOf(' ', length);
+		if (end < length / 2) {
+			end = length;
+		}
+		return text.substring(0, end).stripTrailing() + ELLIPSIS;
+	}
+}
@@ -0,0 +1,57 @@
+package com.ssotter.sscatalog.services.fields;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+/**
+ * Properties a list call asked for with ?fields=, in the order they were
+ * listed. The id always comes first so the rows stay addressable.
+ */
+public class FieldSelection {
+	
+	private final List<String> names;
+	
+	private FieldSelection(List<String> names) {
+		this.names = Collections.unmodifiableList(names);
+	}
+	
+	public static FieldSelection parse(String value, Collection<String> allowed) {
+		Set<String> names = new LinkedHashSet<>();
+		names.add("id");
+		for (String name : value.split(",")) {
+			name = name.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+			if (!allowed.contains(name)) {
+				throw new InvalidParameterException("Invalid field: " + name + ", expected some of " + allowed);
+			}
+			names.add(name);
+		}
+		return new FieldSelection(new ArrayList<>(names));
+	}
+	
+	public List<String> getNames() {
+		return names;
+	}
+	
+	public boolean contains(String name) {
+		return names.contains(name);
+	}
+	
+	/**
+	 * The selected names that are columns, leaving out the ones that come from
+	 * another table.
+	 */
+	public List<String> columns(String... joined) {
+		List<String> excluded = List.of(joined);
+		return names.stream().filter(name -> !excluded.contains(name)).collect(Collectors.toList());
+	}
+}
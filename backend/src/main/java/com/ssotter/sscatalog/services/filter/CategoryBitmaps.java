@@ -0,0 +1,159 @@
+package com.ssotter.sscatalog.services.filter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.projections.ProductCategoryProjection;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+
+/**
+ * One compressed bitmap of product ids per category, loaded from
+ * tb_product_category, so a category filter is an AND or OR of bitmaps
+ * instead of joins with GROUP BY/HAVING. Product ids must fit in an int.
+ * 
+ * Readers go through a volatile reference to a map of bitmaps that are never
+ * modified once published. A write clones only the bitmaps of the categories
+ * the product left or joined, after its transaction commits.
+ */
+@Component
+public class CategoryBitmaps {
+	
+	private static final RoaringBitmap EMPTY = new RoaringBitmap();
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private volatile Map<Long, RoaringBitmap> bitmaps = Map.of();
+	
+	@PostConstruct
+	public void load() {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		List<ProductCategoryProjection> rows = template.execute(status -> repository.findAllCategoryIds());
+		Map<Long, RoaringBitmap> next = new HashMap<>();
+		for (ProductCategoryProjection row : rows) {
+			next.computeIfAbsent(row.getCategoryId(), k -> new RoaringBitmap()).add(toInt(row.getProductId()));
+		}
+		next.values().forEach(RoaringBitmap::runOptimize);
+		bitmaps = Map.copyOf(next);
+	}
+	
+	public void putAfterCommit(Long productId, Collection<Long> categoryIds) {
+		AfterCompletion.afterCommit(() -> put(productId, categoryIds));
+	}
+	
+	/**
+	 * Sets the categories of a whole import chunk once the current transaction
+	 * commits, copying each affected bitmap once.
+	 */
+	public void putAllAfterCommit(Map<Long, ? extends Collection<Long>> categoryIds) {
+		Map<Long, Collection<Long>> copy = new HashMap<>(categoryIds);
+		AfterCompletion.afterCommit(() -> putAll(copy));
+	}
+	
+	public void removeAfterCommit(Long productId) {
+		AfterCompletion.afterCommit(() -> put(productId, List.of()));
+	}
+	
+	public void removeAllAfterCommit(Collection<Long> productIds) {
+		RoaringBitmap removed = new RoaringBitmap();
+		productIds.forEach(id -> removed.add(toInt(id)));
+		AfterCompletion.afterCommit(() -> removeAll(removed));
+	}
+	
+	/**
+	 * Makes the product a member of exactly the given categories.
+	 */
+	public void put(Long productId, Collection<Long> categoryIds) {
+		putAll(Map.of(productId, categoryIds));
+	}
+	
+	/**
+	 * Makes each product a member of exactly its categories. A bitmap that
+	 * held or gains any of the products is copied once for all of them.
+	 */
+	public void putAll(Map<Long, ? extends Collection<Long>> categoryIds) {
+		writeLock.lock();
+		try {
+			RoaringBitmap products = new RoaringBitmap();
+			Map<Long, RoaringBitmap> joined = new HashMap<>();
+			categoryIds.forEach((productId, categories) -> {
+				int id = toInt(productId);
+				products.add(id);
+				categories.forEach(categoryId -> joined.computeIfAbsent(categoryId, k -> new RoaringBitmap()).add(id));
+			});
+			Map<Long, RoaringBitmap> next = new HashMap<>(bitmaps);
+			bitmaps.forEach((categoryId, bitmap) -> {
+				RoaringBitmap added = joined.getOrDefault(categoryId, EMPTY);
+				if (RoaringBitmap.intersects(bitmap, products) || !added.isEmpty()) {
+					next.put(categoryId, RoaringBitmap.or(RoaringBitmap.andNot(bitmap, products), added));
+				}
+			});
+			joined.forEach(next::putIfAbsent);
+			bitmaps = Map.copyOf(next);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Takes the products out of every category, copying each bitmap that
+	 * held any of them once.
+	 */
+	public void removeAll(RoaringBitmap productIds) {
+		writeLock.lock();
+		try {
+			Map<Long, RoaringBitmap> next = new HashMap<>(bitmaps);
+			bitmaps.forEach((categoryId, bitmap) -> {
+				if (RoaringBitmap.intersects(bitmap, productIds)) {
+					next.put(categoryId, RoaringBitmap.andNot(bitmap, productIds));
+				}
+			});
+			bitmaps = Map.copyOf(next);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Ids of the products that pass the filter, in ascending order. The
+	 * result may be one of the shared bitmaps and must not be modified.
+	 */
+	public RoaringBitmap match(CategoryFilter filter) {
+		Map<Long, RoaringBitmap> snapshot = bitmaps;
+		List<RoaringBitmap> list = filter.getCategoryIds().stream()
+				.map(id -> snapshot.getOrDefault(id, EMPTY))
+				.collect(Collectors.toList());
+		if (list.size() == 1) {
+			return list.get(0);
+		}
+		if (filter.getMatch() == CategoryFilter.Match.ALL) {
+			return FastAggregation.and(list.iterator());
+		}
+		return FastAggregation.or(list.iterator());
+	}
+	
+	private static int toInt(Long productId) {
+		return Math.toIntExact(productId);
+	}
+}
@@ -0,0 +1,61 @@
+package com.ssotter.sscatalog.services.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+/**
+ * Categories a list call asked for with ?categories=1,2 and whether a product
+ * must be in all of them or in any one.
+ */
+public class CategoryFilter {
+	
+	public enum Match {
+		ALL, ANY
+	}
+	
+	private final List<Long> categoryIds;
+	private final Match match;
+	
+	private CategoryFilter(List<Long> categoryIds, Match match) {
+		this.categoryIds = Collections.unmodifiableList(categoryIds);
+		this.match = match;
+	}
+	
+	public static CategoryFilter parse(String categories, String match) {
+		Set<Long> ids = new LinkedHashSet<>();
+		for (String value : categories.split(",")) {
+			value = value.trim();
+			if (value.isEmpty()) {
+				continue;
+			}
+			try {
+				ids.add(Long.valueOf(value));
+			}
+			catch (NumberFormatException e) {
+				throw new InvalidParameterException("Invalid category: " + value);
+			}
+		}
+		if (ids.isEmpty()) {
+			throw new InvalidParameterException("Invalid categories: expected at least one id");
+		}
+		for (Match mode : Match.values()) {
+			if (mode.name().equalsIgnoreCase(match)) {
+				return new CategoryFilter(new ArrayList<>(ids), mode);
+			}
+		}
+		throw new InvalidParameterException("Invalid match: " + match + ", expected all or any");
+	}
+	
+	public List<Long> getCategoryIds() {
+		return categoryIds;
+	}
+	
+	public Match getMatch() {
+		return match;
+	}
+}
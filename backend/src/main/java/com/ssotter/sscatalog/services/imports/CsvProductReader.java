@@ -0,0 +1,153 @@
+package com.ssotter.sscatalog.services.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+/**
+ * RFC 4180 style CSV with a header row. Columns are matched by name: name,
+ * description, price, imgUrl, date (ISO instant) and categories (ids
+ * separated by ';'). Quoted fields may contain commas, quotes and newlines.
+ */
+public class CsvProductReader implements ProductRecordReader {
+	
+	private final BufferedReader reader;
+	private Map<String, Integer> header;
+	private long line;
+	
+	public CsvProductReader(BufferedReader reader) {
+		this.reader = reader;
+	}
+
+	@Override
+	public ProductRecord next() throws IOException {
+		if (header == null) {
+			List<String> names = readRow();
+			if (names == null) {
+				return null;
+			}
+			header = new HashMap<>();
+			for (int i = 0; i < names.size(); i++) {
+				header.put(names.get(i).trim(), i);
+			}
+		}
+		List<String> row;
+		long start;
+		do {
+			start = line + 1;
+			row = readRow();
+			if (row == null) {
+				return null;
+			}
+		} while (row.size() == 1 && row.get(0).isBlank());
+		return toRecord(start, row);
+	}
+	
+	private ProductRecord toRecord(long start, List<String> row) {
+		ProductDTO dto = new ProductDTO();
+		ProductRecord record = new ProductRecord(start, dto);
+		dto.setName(column(row, "name"));
+		dto.setDescription(column(row, "description"));
+		dto.setImgUrl(column(row, "imgUrl"));
+		
+		String price = column(row, "price");
+		if (price != null) {
+			try {
+				dto.setPrice(Double.valueOf(price));
+			}
+			catch (NumberFormatException e) {
+				record.addError("price", "Invalid number: " + price);
+			}
+		}
+		String date = column(row, "date");
+		if (date != null) {
+			try {
+				dto.setDate(Instant.parse(date));
+			}
+			catch (DateTimeParseException e) {
+				record.addError("date", "Invalid date: " + date);
+			}
+		}
+		String categories = column(row, "categories");
+		if (categories != null) {
+			for (String id : categories.split(";")) {
+				try {
+					dto.getCategories().add(new CategoryDTO(Long.valueOf(id.trim()), null));
+				}
+				catch (NumberFormatException e) {
+					record.addError("categories", "Invalid category id: " + id);
+				}
+			}
+		}
+		return record;
+	}
+	
+	private String column(List<String> row, String name) {
+		Integer index = header.get(name);
+		if (index == null || index >= row.size() || row.get(index).isEmpty()) {
+			return null;
+		}
+		return row.get(index);
+	}
+	
+	private List<String> readRow() throws IOException {
+		String text = reader.readLine();
+		if (text == null) {
+			return null;
+		}
+		line++;
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == text.length()) {
+				if (!quoted) {
+					break;
+				}
+				// a quoted field continues on the next physical line
+				text = reader.readLine();
+				if (text == null) {
+					break;
+				}
+				line++;
+				field.append('\n');
+				i = 0;
+				continue;
+			}
+			char c = text.charAt(i++);
+			if (quoted) {
+				if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				}
+				else if (c == '"') {
+					quoted = false;
+				}
+				else {
+					field.append(c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
@@ -0,0 +1,39 @@
+package com.ssotter.sscatalog.services.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+public class NdjsonProductReader implements ProductRecordReader {
+	
+	private final BufferedReader reader;
+	private final ObjectReader objectReader;
+	private long line;
+	
+	public NdjsonProductReader(BufferedReader reader, ObjectReader objectReader) {
+		this.reader = reader;
+		this.objectReader = objectReader.forType(ProductDTO.class);
+	}
+
+	@Override
+	public ProductRecord next() throws IOException {
+		String text;
+		do {
+			text = reader.readLine();
+			line++;
+			if (text == null) {
+				return null;
+			}
+		} while (text.isBlank());
+		
+		try {
+			return new ProductRecord(line, objectReader.readValue(text));
+		}
+		catch (JsonProcessingException e) {
+			return new ProductRecord(line, "record", "Invalid JSON: " + e.getOriginalMessage());
+		}
+	}
+}
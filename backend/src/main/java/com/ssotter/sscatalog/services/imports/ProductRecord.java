@@ -0,0 +1,49 @@
+package com.ssotter.sscatalog.services.imports;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.resources.exceptions.FieldMessage;
+
+/**
+ * One record of an import file: the parsed DTO, or the reasons it could not
+ * be parsed, together with the line it started on.
+ */
+public class ProductRecord {
+	
+	private final long line;
+	private final ProductDTO dto;
+	private final List<FieldMessage> errors = new ArrayList<>();
+	
+	public ProductRecord(long line, ProductDTO dto) {
+		this.line = line;
+		this.dto = dto;
+	}
+	
+	public ProductRecord(long line, String fieldName, String message) {
+		this.line = line;
+		this.dto = null;
+		addError(fieldName, message);
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public ProductDTO getDto() {
+		return dto;
+	}
+
+	public List<FieldMessage> getErrors() {
+		return errors;
+	}
+	
+	public void addError(String fieldName, String message) {
+		errors.add(new FieldMessage(fieldName, message));
+	}
+	
+	public boolean hasErrors() {
+		return !errors.isEmpty();
+	}
+}
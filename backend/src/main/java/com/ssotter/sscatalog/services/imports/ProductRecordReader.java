@@ -0,0 +1,12 @@
+package com.ssotter.sscatalog.services.imports;
+
+import java.io.IOException;
+
+public interface ProductRecordReader {
+	
+	/**
+	 * Next record of the file, or null at the end. Malformed records are
+	 * returned with errors instead of stopping the read.
+	 */
+	ProductRecord next() throws IOException;
+}
@@ -0,0 +1,47 @@
+package com.ssotter.sscatalog.services.pagination;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+
+/**
+ * Totals for ESTIMATE listings, keyed by "resource" or "resource:filter". The
+ * sort is not part of the key because it never changes the count.
+ * 
+ * Counts run outside the map, as in ProductCache: computeIfAbsent would hold
+ * a bin lock for the whole COUNT, blocking every other key in the bin on
+ * JDBC. A count that overlaps an eviction is dropped instead of cached.
+ */
+@Component
+public class CountCache {
+	
+	private final Map<String, Long> totals = new ConcurrentHashMap<>();
+	private final AtomicLong evictions = new AtomicLong();
+	
+	public long get(String signature, LongSupplier count) {
+		Long total = totals.get(signature);
+		if (total == null) {
+			long generation = evictions.get();
+			total = count.getAsLong();
+			totals.put(signature, total);
+			if (evictions.get() != generation) {
+				totals.remove(signature, total);
+			}
+		}
+		return total;
+	}
+	
+	public void invalidate(String resource) {
+		AfterCompletion.evict(() -> evict(resource));
+	}
+	
+	private void evict(String resource) {
+		evictions.incrementAndGet();
+		totals.keySet().removeIf(key -> key.equals(resource) || key.startsWith(resource + ":"));
+	}
+}
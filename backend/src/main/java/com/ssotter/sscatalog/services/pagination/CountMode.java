@@ -0,0 +1,48 @@
+package com.ssotter.sscatalog.services.pagination;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+/**
+ * How a paged listing computes its total: EXACT runs the COUNT query on every
+ * call, ESTIMATE reuses a total cached until the next write and NONE returns a
+ * Slice that only knows whether there is a next page.
+ */
+public enum CountMode {
+	EXACT, ESTIMATE, NONE;
+	
+	public static CountMode parse(String value) {
+		for (CountMode mode : values()) {
+			if (mode.name().equalsIgnoreCase(value)) {
+				return mode;
+			}
+		}
+		throw new InvalidParameterException("Invalid count mode: " + value);
+	}
+	
+	/**
+	 * Wraps rows fetched with one row past the page size, which tells NONE
+	 * whether there is a next page. EXACT skips the count when the page itself
+	 * shows the total.
+	 */
+	public <T> Slice<T> slice(List<T> rows, Pageable pageable, LongSupplier total) {
+		boolean hasNext = rows.size() > pageable.getPageSize();
+		List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+		switch (this) {
+		case EXACT:
+			return PageableExecutionUtils.getPage(content, pageable, total);
+		case ESTIMATE:
+			return new PageImpl<>(content, pageable, total.getAsLong());
+		default:
+			return new SliceImpl<>(content, pageable, hasNext);
+		}
+	}
+}
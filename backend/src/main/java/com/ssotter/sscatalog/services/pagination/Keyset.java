@@ -0,0 +1,124 @@
+package com.ssotter.sscatalog.services.pagination;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+
+import com.ssotter.sscatalog.dto.KeysetPageDTO;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+/**
+ * Sort keys an entity can be seeked on, plus the cursor handling shared by the
+ * keyset listing endpoints. The id is always the tie breaker.
+ */
+public class Keyset<T> {
+	
+	private final Function<T, Long> id;
+	private final Map<String, Key<T>> keys = new LinkedHashMap<>();
+	
+	public Keyset(Function<T, Long> id) {
+		this.id = id;
+	}
+	
+	public Keyset<T> key(String property, Class<?> type, Function<T, ?> getter) {
+		keys.put(property, new Key<>(type, getter));
+		return this;
+	}
+	
+	public KeysetCursor cursor(String token, Sort sort) {
+		if (token == null || token.isBlank()) {
+			return first(sort);
+		}
+		try {
+			String[] parts = KeysetCursor.decode(token);
+			Key<T> key = keys.get(parts[0]);
+			if (key == null || parts.length != 5) {
+				throw new InvalidParameterException("Invalid cursor");
+			}
+			return new KeysetCursor(parts[0], Direction.valueOf(parts[1]), "p".equals(parts[2]),
+					key.parse(KeysetCursor.keyText(parts[4])), Long.valueOf(parts[3]));
+		}
+		catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new InvalidParameterException("Invalid cursor");
+		}
+	}
+	
+	public <D> KeysetPageDTO<D> page(List<T> rows, KeysetCursor cursor, int size, Function<T, D> mapper) {
+		boolean more = rows.size() > size;
+		List<T> window = new ArrayList<>(more ? rows.subList(0, size) : rows);
+		if (cursor.isBackward()) {
+			Collections.reverse(window);
+		}
+		
+		String next = null;
+		String previous = null;
+		if (!window.isEmpty()) {
+			Key<T> key = keys.get(cursor.getProperty());
+			T first = window.get(0);
+			T last = window.get(window.size() - 1);
+			boolean hasNext = cursor.isBackward() ? cursor.isPositioned() : more;
+			boolean hasPrevious = cursor.isBackward() ? more : cursor.isPositioned();
+			if (hasNext) {
+				next = cursor.after(key.getter.apply(last), id.apply(last)).encode();
+			}
+			if (hasPrevious) {
+				previous = cursor.before(key.getter.apply(first), id.apply(first)).encode();
+			}
+		}
+		
+		List<D> content = new ArrayList<>(window.size());
+		window.forEach(x -> content.add(mapper.apply(x)));
+		return new KeysetPageDTO<>(content, size, next, previous);
+	}
+	
+	private KeysetCursor first(Sort sort) {
+		if (sort.isUnsorted()) {
+			return KeysetCursor.first("id", Direction.ASC);
+		}
+		List<Order> orders = sort.toList();
+		Order order = orders.get(0);
+		if (orders.size() > 1 || !keys.containsKey(order.getProperty())) {
+			throw new InvalidParameterException("Keyset pagination supports a single sort key among " + keys.keySet());
+		}
+		return KeysetCursor.first(order.getProperty(), order.getDirection());
+	}
+	
+	private static class Key<T> {
+		private final Class<?> type;
+		private final Function<T, ?> getter;
+		
+		Key(Class<?> type, Function<T, ?> getter) {
+			this.type = type;
+			this.getter = getter;
+		}
+		
+		Object parse(String value) {
+			if (value == null) {
+				return null;
+			}
+			if (type == Long.class) {
+				return Long.valueOf(value);
+			}
+			if (type == Double.class) {
+				return Double.valueOf(value);
+			}
+			if (type == Instant.class) {
+				try {
+					return Instant.parse(value);
+				}
+				catch (RuntimeException e) {
+					throw new IllegalArgumentException(e);
+				}
+			}
+			return value;
+		}
+	}
+}
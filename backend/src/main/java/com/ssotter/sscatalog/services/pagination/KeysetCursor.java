@@ -0,0 +1,92 @@
+package com.ssotter.sscatalog.services.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort.Direction;
+
+/**
+ * Opaque position of a keyset page: the (sort key, id) of the row the next
+ * seek starts after, and whether the seek walks forward or back.
+ */
+public class KeysetCursor {
+	
+	private static final String SEPARATOR = "|";
+	// the key is written after a marker, so a null key cannot be confused with the text "null"
+	private static final String NULL_KEY = "N";
+	private static final String KEY = "V";
+	
+	private final String property;
+	private final Direction direction;
+	private final boolean backward;
+	private final Object value;
+	private final Long id;
+	
+	public KeysetCursor(String property, Direction direction, boolean backward, Object value, Long id) {
+		this.property = property;
+		this.direction = direction;
+		this.backward = backward;
+		this.value = value;
+		this.id = id;
+	}
+	
+	public static KeysetCursor first(String property, Direction direction) {
+		return new KeysetCursor(property, direction, false, null, null);
+	}
+
+	public String getProperty() {
+		return property;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	public boolean isBackward() {
+		return backward;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	public Long getId() {
+		return id;
+	}
+	
+	public boolean isPositioned() {
+		return id != null;
+	}
+	
+	public KeysetCursor after(Object value, Long id) {
+		return new KeysetCursor(property, direction, false, value, id);
+	}
+	
+	public KeysetCursor before(Object value, Long id) {
+		return new KeysetCursor(property, direction, true, value, id);
+	}
+	
+	public String encode() {
+		String raw = property + SEPARATOR + direction.name() + SEPARATOR + (backward ? "p" : "n")
+				+ SEPARATOR + id + SEPARATOR + (value == null ? NULL_KEY : KEY + value);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	static String[] decode(String token) {
+		String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		return raw.split("\\" + SEPARATOR, 5);
+	}
+	
+	/**
+	 * The encoded key without its marker, null for a null key.
+	 */
+	static String keyText(String part) {
+		if (part.equals(NULL_KEY)) {
+			return null;
+		}
+		if (!part.startsWith(KEY)) {
+			throw new IllegalArgumentException("Invalid key " + part);
+		}
+		return part.substring(KEY.length());
+	}
+}
@@ -0,0 +1,460 @@
+package com.ssotter.sscatalog.services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.dto.SuggestionDTO;
+import com.ssotter.sscatalog.projections.ProductNameProjection;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+
+/**
+ * Typeahead over product names, served from memory. Every word start of a
+ * normalized name (lower case, no accents, single spaces) is a key in one
+ * sorted array, so a prefix is two binary searches and a scan of the range
+ * between them. Matches at the start of the name rank first, then shorter
+ * names. Ranges too large to scan on every keystroke, which only short
+ * prefixes produce, are ranked once per snapshot and remembered.
+ * 
+ * Readers go through a volatile reference to an immutable snapshot. A write
+ * lands, after its transaction commits, in a small sorted delta that hides
+ * the product's old keys; the delta is merged into the main arrays once it
+ * outgrows a sixteenth of them, so writes copy the full arrays only every so
+ * often and never reload the names from the database.
+ */
+@Component
+public class NameSuggester {
+	
+	public static final int MAX_LIMIT = 50;
+	
+	private static final int MAX_WORDS = 16;
+	private static final int SCAN_LIMIT = 256;
+	private static final int MIN_DELTA = 1024;
+	private static final long ARRAY_HEADERS = 4 * 16;
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern SPACES = Pattern.compile("\\s+");
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private volatile Snapshot snapshot = new Snapshot(Keys.EMPTY, Keys.EMPTY, Set.of());
+	
+	@PostConstruct
+	public void load() {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		List<ProductNameProjection> rows = template.execute(status -> repository.findNames());
+		Map<Long, String> names = new HashMap<>();
+		rows.forEach(row -> names.put(row.getId(), row.getName()));
+		replaceAll(names);
+	}
+	
+	public void replaceAll(Map<Long, String> names) {
+		writeLock.lock();
+		try {
+			List<Entry> entries = new ArrayList<>();
+			names.forEach((id, name) -> addEntries(entries, id, name));
+			snapshot = new Snapshot(Keys.build(entries), Keys.EMPTY, Set.of());
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	public void putAfterCommit(Long id, String name) {
+		AfterCompletion.afterCommit(() -> put(id, name));
+	}
+	
+	/**
+	 * Puts the names of a whole import chunk once the current transaction
+	 * commits, in one write.
+	 */
+	public void putAllAfterCommit(Map<Long, String> names) {
+		Map<Long, String> copy = new HashMap<>(names);
+		AfterCompletion.afterCommit(() -> putAll(copy));
+	}
+	
+	public void removeAfterCommit(Long id) {
+		AfterCompletion.afterCommit(() -> put(id, null));
+	}
+	
+	public void removeAllAfterCommit(Collection<Long> ids) {
+		Set<Long> removed = Set.copyOf(ids);
+		AfterCompletion.afterCommit(() -> removeAll(removed));
+	}
+	
+	/**
+	 * Replaces the keys of one product; a null name removes it.
+	 */
+	public void put(Long id, String name) {
+		putAll(Collections.singletonMap(id, name));
+	}
+	
+	/**
+	 * Replaces the keys of every given product in one write; a null name
+	 * removes that product.
+	 */
+	public void putAll(Map<Long, String> names) {
+		writeLock.lock();
+		try {
+			List<Entry> entries = new ArrayList<>();
+			names.forEach((id, name) -> {
+				if (name != null) {
+					addEntries(entries, id, name);
+				}
+			});
+			snapshot = snapshot.put(names.keySet(), entries);
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	/**
+	 * Drops the keys of all the products in one write.
+	 */
+	public void removeAll(Set<Long> ids) {
+		writeLock.lock();
+		try {
+			snapshot = snapshot.put(ids, new ArrayList<>());
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+	
+	public List<SuggestionDTO> suggest(String prefix, int limit) {
+		String key = normalize(prefix);
+		if (key.isEmpty()) {
+			return List.of();
+		}
+		List<SuggestionDTO> ranked = snapshot.suggest(key, limit);
+		return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+	}
+	
+	public int getNameCount() {
+		return snapshot.counts().nameCount;
+	}
+	
+	public int getKeyCount() {
+		return snapshot.counts().keyCount;
+	}
+	
+	/**
+	 * Heap taken by the arrays and strings, assuming compressed references
+	 * and compact strings. Each name is counted once, however many keys point
+	 * to it.
+	 */
+	public long getEstimatedBytes() {
+		return snapshot.counts().bytes;
+	}
+	
+	public static String normalize(String text) {
+		String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		return SPACES.matcher(folded).replaceAll(" ").strip().toLowerCase(Locale.ROOT);
+	}
+	
+	private static void addEntries(List<Entry> entries, Long id, String name) {
+		String key = normalize(name);
+		int word = 0;
+		for (int i = 0; i < key.length() && word < MAX_WORDS; i++) {
+			if (i == 0 || key.charAt(i - 1) == ' ') {
+				entries.add(new Entry(key.substring(i), name, id, word++));
+			}
+		}
+	}
+	
+	private static final class Entry {
+		private static final Comparator<Entry> ORDER = Comparator.<Entry, String>comparing(e -> e.key)
+				.thenComparingLong(e -> e.id);
+		
+		final String key;
+		final String name;
+		final long id;
+		final int word;
+		
+		Entry(String key, String name, long id, int word) {
+			this.key = key;
+			this.name = name;
+			this.id = id;
+			this.word = word;
+		}
+		
+		/**
+		 * One slot in each of the four arrays plus the key string; the name is
+		 * counted once, with the key of the first word.
+		 */
+		long bytes() {
+			return 4 + 4 + 8 + 1 + stringBytes(key) + (word == 0 ? stringBytes(name) : 0);
+		}
+		
+		private static long stringBytes(String s) {
+			boolean latin1 = s.chars().allMatch(c -> c <= 0xFF);
+			long array = 16 + (long) s.length() * (latin1 ? 1 : 2);
+			return 24 + ((array + 7) / 8) * 8;
+		}
+	}
+	
+	/**
+	 * Sorted key arrays, never modified once built.
+	 */
+	private static final class Keys {
+		static final Keys EMPTY = build(new ArrayList<>());
+		
+		final String[] keys;
+		final String[] names;
+		final long[] ids;
+		final byte[] words;
+		final int nameCount;
+		final long bytes;
+		
+		private Keys(String[] keys, String[] names, long[] ids, byte[] words, int nameCount, long bytes) {
+			this.keys = keys;
+			this.names = names;
+			this.ids = ids;
+			this.words = words;
+			this.nameCount = nameCount;
+			this.bytes = bytes;
+		}
+		
+		static Keys build(List<Entry> entries) {
+			entries.sort(Entry.ORDER);
+			int size = entries.size();
+			String[] keys = new String[size];
+			String[] names = new String[size];
+			long[] ids = new long[size];
+			byte[] words = new byte[size];
+			int nameCount = 0;
+			long bytes = ARRAY_HEADERS;
+			for (int i = 0; i < size; i++) {
+				Entry entry = entries.get(i);
+				set(keys, names, ids, words, i, entry);
+				nameCount += entry.word == 0 ? 1 : 0;
+				bytes += entry.bytes();
+			}
+			return new Keys(keys, names, ids, words, nameCount, bytes);
+		}
+		
+		/**
+		 * Copy with the keys of the given products swapped for the added ones,
+		 * merged into place; size and name count are adjusted rather than
+		 * recomputed.
+		 */
+		Keys replace(Set<Long> removedIds, List<Entry> added) {
+			added.sort(Entry.ORDER);
+			int nameCount = this.nameCount;
+			long bytes = this.bytes;
+			int removed = 0;
+			for (int i = 0; i < ids.length; i++) {
+				if (removedIds.contains(ids[i])) {
+					removed++;
+					nameCount -= words[i] == 0 ? 1 : 0;
+					bytes -= entry(i).bytes();
+				}
+			}
+			int size = keys.length - removed + added.size();
+			String[] nextKeys = new String[size];
+			String[] nextNames = new String[size];
+			long[] nextIds = new long[size];
+			byte[] nextWords = new byte[size];
+			int i = 0;
+			int j = 0;
+			int k = 0;
+			while (i < keys.length || j < added.size()) {
+				if (i < keys.length && removedIds.contains(ids[i])) {
+					i++;
+				}
+				else if (j == added.size() || (i < keys.length && compare(i, added.get(j)) < 0)) {
+					nextKeys[k] = keys[i];
+					nextNames[k] = names[i];
+					nextIds[k] = ids[i];
+					nextWords[k++] = words[i++];
+				}
+				else {
+					Entry entry = added.get(j++);
+					set(nextKeys, nextNames, nextIds, nextWords, k++, entry);
+					nameCount += entry.word == 0 ? 1 : 0;
+					bytes += entry.bytes();
+				}
+			}
+			return new Keys(nextKeys, nextNames, nextIds, nextWords, nameCount, bytes);
+		}
+		
+		List<Entry> entries() {
+			List<Entry> entries = new ArrayList<>(keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				entries.add(entry(i));
+			}
+			return entries;
+		}
+		
+		Entry entry(int i) {
+			return new Entry(keys[i], names[i], ids[i], words[i]);
+		}
+		
+		int lowerBound(String key) {
+			int low = 0;
+			int high = keys.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (keys[mid].compareTo(key) < 0) {
+					low = mid + 1;
+				}
+				else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+		
+		private int compare(int i, Entry entry) {
+			int result = keys[i].compareTo(entry.key);
+			return result != 0 ? result : Long.compare(ids[i], entry.id);
+		}
+		
+		private static void set(String[] keys, String[] names, long[] ids, byte[] words, int i, Entry entry) {
+			keys[i] = entry.key;
+			names[i] = entry.name;
+			ids[i] = entry.id;
+			words[i] = (byte) entry.word;
+		}
+	}
+	
+	/**
+	 * The keys as of the last merge, plus a small delta with the keys of the
+	 * products written since. Shadowed products are hidden in the base, the
+	 * delta holds their current keys, if any.
+	 */
+	private static final class Snapshot {
+		final Keys base;
+		final Keys delta;
+		final Set<Long> shadowed;
+		final Map<String, List<SuggestionDTO>> ranked = new ConcurrentHashMap<>();
+		private volatile Counts counts;
+		
+		Snapshot(Keys base, Keys delta, Set<Long> shadowed) {
+			this.base = base;
+			this.delta = delta;
+			this.shadowed = shadowed;
+		}
+		
+		/**
+		 * Replaces the keys of the given products in the delta, and merges the
+		 * delta into a new base once it outgrows a sixteenth of it, so a write
+		 * copies the full arrays only every so often.
+		 */
+		Snapshot put(Set<Long> ids, List<Entry> added) {
+			Keys nextDelta = delta.replace(ids, added);
+			Set<Long> nextShadowed = new HashSet<>(shadowed);
+			nextShadowed.addAll(ids);
+			if (nextDelta.keys.length + nextShadowed.size() > Math.max(MIN_DELTA, base.keys.length / 16)) {
+				return new Snapshot(base.replace(nextShadowed, nextDelta.entries()), Keys.EMPTY, Set.of());
+			}
+			return new Snapshot(base, nextDelta, nextShadowed);
+		}
+		
+		List<SuggestionDTO> suggest(String prefix, int limit) {
+			String end = prefix + Character.MAX_VALUE;
+			int from = base.lowerBound(prefix);
+			int to = base.lowerBound(end);
+			int deltaFrom = delta.lowerBound(prefix);
+			int deltaTo = delta.lowerBound(end);
+			if (to - from + deltaTo - deltaFrom <= SCAN_LIMIT) {
+				return rank(from, to, deltaFrom, deltaTo, limit);
+			}
+			return ranked.computeIfAbsent(prefix, k -> rank(from, to, deltaFrom, deltaTo, MAX_LIMIT));
+		}
+		
+		/**
+		 * Ranks base positions and delta positions, the latter offset by the
+		 * base length.
+		 */
+		private List<SuggestionDTO> rank(int from, int to, int deltaFrom, int deltaTo, int limit) {
+			Comparator<Integer> order = Comparator.<Integer>comparingInt(i -> keys(i).words[offset(i)])
+					.thenComparingInt(i -> keys(i).names[offset(i)].length())
+					.thenComparing(i -> keys(i).names[offset(i)])
+					.thenComparingLong(i -> keys(i).ids[offset(i)]);
+			Map<Long, Integer> best = new HashMap<>();
+			for (int i = from; i < to; i++) {
+				if (shadowed.isEmpty() || !shadowed.contains(base.ids[i])) {
+					best.merge(base.ids[i], i, (a, b) -> order.compare(a, b) <= 0 ? a : b);
+				}
+			}
+			for (int i = deltaFrom; i < deltaTo; i++) {
+				best.merge(delta.ids[i], base.keys.length + i, (a, b) -> order.compare(a, b) <= 0 ? a : b);
+			}
+			return best.values().stream().sorted(order).limit(limit)
+					.map(i -> new SuggestionDTO(keys(i).ids[offset(i)], keys(i).names[offset(i)]))
+					.collect(Collectors.toUnmodifiableList());
+		}
+		
+		private Keys keys(int i) {
+			return i < base.keys.length ? base : delta;
+		}
+		
+		private int offset(int i) {
+			return i < base.keys.length ? i : i - base.keys.length;
+		}
+		
+		/**
+		 * Counted on first use, with one pass over the base for the keys the
+		 * delta shadows, rather than on every write.
+		 */
+		Counts counts() {
+			Counts current = counts;
+			if (current == null) {
+				int nameCount = base.nameCount + delta.nameCount;
+				int keyCount = base.keys.length + delta.keys.length;
+				long bytes = base.bytes + delta.bytes;
+				if (!shadowed.isEmpty()) {
+					for (int i = 0; i < base.ids.length; i++) {
+						if (shadowed.contains(base.ids[i])) {
+							nameCount -= base.words[i] == 0 ? 1 : 0;
+							keyCount--;
+							bytes -= base.entry(i).bytes();
+						}
+					}
+				}
+				current = new Counts(nameCount, keyCount, bytes);
+				counts = current;
+			}
+			return current;
+		}
+	}
+	
+	private static final class Counts {
+		final int nameCount;
+		final int keyCount;
+		final long bytes;
+		
+		Counts(int nameCount, int keyCount, long bytes) {
+			this.nameCount = nameCount;
+			this.keyCount = keyCount;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.ssotter.sscatalog.services.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Portuguese analysis with accents folded away, so "eletronicos" and
+ * "Eletrônicos" index and search as the same term. Stop words are removed
+ * before folding because the stop list is written with accents.
+ */
+public class PortugueseFoldingAnalyzer extends Analyzer {
+	
+	@Override
+	protected TokenStreamComponents createComponents(String fieldName) {
+		StandardTokenizer source = new StandardTokenizer();
+		TokenStream result = new LowerCaseFilter(source);
+		result = new StopFilter(result, PortugueseAnalyzer.getDefaultStopSet());
+		result = new ASCIIFoldingFilter(result);
+		result = new PortugueseLightStemFilter(result);
+		return new TokenStreamComponents(source, result);
+	}
+	
+	@Override
+	protected TokenStream normalize(String fieldName, TokenStream in) {
+		return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+	}
+}
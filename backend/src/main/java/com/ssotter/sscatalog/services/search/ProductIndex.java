@@ -0,0 +1,491 @@
+package com.ssotter.sscatalog.services.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.projections.IdRangeProjection;
+import com.ssotter.sscatalog.projections.ProductTextProjection;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+
+/**
+ * Embedded Lucene index over product names and descriptions, on local disk
+ * (sscatalog.search.index-dir, a temporary directory when unset). Writes
+ * reach it once their transaction commits and become searchable right away
+ * through a near-real-time reader, without a commit to disk.
+ * 
+ * The whole index is rebuilt from the database at startup by a pool of its
+ * own, one id range per thread. Searches keep using the last opened reader
+ * until the rebuild is done. Commit-time writes that land during a rebuild
+ * record the version they wrote, and the rebuild skips rows older than that,
+ * so a row read before an update can never overwrite it. The lock only
+ * orders those writes against the start and end of a rebuild; nothing holds
+ * it while waiting for a connection.
+ * 
+ * A rebuild starts from a commit of everything written so far. If it fails,
+ * the writer rolls back to that commit and replays the writes made during
+ * the rebuild, so the half built index is never published.
+ */
+@Component
+public class ProductIndex {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(ProductIndex.class);
+	
+	private static final String ID = "id";
+	private static final String NAME = "name";
+	private static final String DESCRIPTION = "description";
+	private static final Set<String> ID_ONLY = Set.of(ID);
+	private static final int BATCH_SIZE = 500;
+	private static final long REMOVED = Long.MAX_VALUE;
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${sscatalog.search.index-dir:}")
+	private String indexDir;
+	
+	@Value("${sscatalog.search.reindex-threads:0}")
+	private int reindexThreads;
+	
+	private final Analyzer analyzer = new PortugueseFoldingAnalyzer();
+	private final Map<Long, Written> writtenDuringRebuild = new ConcurrentHashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ReentrantLock rebuildLock = new ReentrantLock();
+	
+	private Path path;
+	private boolean temporary;
+	private Directory directory;
+	private IndexWriter writer;
+	private volatile SearcherManager searcherManager;
+	private ExecutorService executor;
+	private int threadCount;
+	private CompletableFuture<Void> rebuild = CompletableFuture.completedFuture(null);
+	private volatile boolean rebuilding;
+	private volatile boolean closing;
+	
+	@PostConstruct
+	public void open() throws IOException {
+		temporary = indexDir.isBlank();
+		path = temporary ? Files.createTempDirectory("sscatalog-index") : Files.createDirectories(Path.of(indexDir));
+		directory = new MMapDirectory(path);
+		writer = openWriter();
+		searcherManager = new SearcherManager(writer, null);
+		
+		CustomizableThreadFactory threads = new CustomizableThreadFactory("product-reindex-");
+		threads.setDaemon(true);
+		threadCount = reindexThreads > 0 ? reindexThreads : Runtime.getRuntime().availableProcessors();
+		executor = Executors.newFixedThreadPool(threadCount, threads);
+	}
+	
+	/**
+	 * Lets a running rebuild stop at its next batch rather than interrupting
+	 * it: an interrupt inside Lucene IO closes the channel and leaves the
+	 * writer with a tragic error. The unfinished rebuild is rolled back.
+	 */
+	@PreDestroy
+	public void close() throws IOException, InterruptedException {
+		closing = true;
+		executor.shutdown();
+		if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+			LOG.warn("Product index rebuild did not stop within 30 s, closing the index under it");
+		}
+		searcherManager.close();
+		if (rebuilding) {
+			writer.rollback();
+		}
+		else {
+			writer.close();
+		}
+		directory.close();
+		if (temporary) {
+			FileSystemUtils.deleteRecursively(path);
+		}
+	}
+	
+	/**
+	 * Ids of the best matches for the page, best first. Every word must appear
+	 * in the name or in the description; name matches rank higher.
+	 */
+	public Page<Long> search(String text, Pageable pageable) throws IOException {
+		Query query = query(text);
+		if (query == null) {
+			return Page.empty(pageable);
+		}
+		SearcherManager manager = searcherManager;
+		IndexSearcher searcher;
+		try {
+			searcher = manager.acquire();
+		}
+		catch (AlreadyClosedException e) {
+			// replaced by a failed rebuild's restore in between
+			manager = searcherManager;
+			searcher = manager.acquire();
+		}
+		try {
+			int offset = (int) pageable.getOffset();
+			TopDocs top = searcher.search(query, offset + pageable.getPageSize());
+			List<Long> ids = new ArrayList<>(pageable.getPageSize());
+			ScoreDoc[] hits = top.scoreDocs;
+			for (int i = offset; i < hits.length; i++) {
+				ids.add(Long.valueOf(searcher.doc(hits[i].doc, ID_ONLY).get(ID)));
+			}
+			return new PageImpl<>(ids, pageable, searcher.count(query));
+		}
+		finally {
+			manager.release(searcher);
+		}
+	}
+	
+	/**
+	 * Indexes the product once the current transaction commits, reading its
+	 * fields then, after Hibernate has bumped the version.
+	 */
+	public void indexAfterCommit(Product product) {
+		AfterCompletion.afterCommit(() -> apply(product.getId(), version(product.getVersion()),
+				document(product.getId(), product.getName(), product.getDescription())));
+	}
+	
+	/**
+	 * Indexes the products once the current transaction commits, with a
+	 * single reader refresh for all of them.
+	 */
+	public void indexAllAfterCommit(Collection<Product> products) {
+		AfterCompletion.afterCommit(() -> indexAll(products));
+	}
+	
+	public void removeAfterCommit(Long id) {
+		AfterCompletion.afterCommit(() -> apply(id, REMOVED, null));
+	}
+	
+	/**
+	 * Removes the products once the current transaction commits, with a
+	 * single reader refresh for all of them.
+	 */
+	public void removeAllAfterCommit(Collection<Long> ids) {
+		AfterCompletion.afterCommit(() -> removeAll(ids));
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+	
+	/**
+	 * Starts a full rebuild unless one is running, and returns it.
+	 */
+	public CompletableFuture<Void> rebuild() {
+		rebuildLock.lock();
+		try {
+			if (!rebuild.isDone()) {
+				return rebuild;
+			}
+			try {
+				IdRangeProjection range = new TransactionTemplate(transactionManager)
+						.execute(status -> repository.findIdRange());
+				lock.writeLock().lock();
+				try {
+					// the point a failed rebuild rolls back to
+					writer.commit();
+					rebuilding = true;
+					writtenDuringRebuild.clear();
+					writer.deleteAll();
+				}
+				finally {
+					lock.writeLock().unlock();
+				}
+				List<CompletableFuture<Void>> parts = new ArrayList<>();
+				if (range.getMin() != null) {
+					long step = Math.max(1, (range.getMax() - range.getMin() + threadCount) / threadCount);
+					for (long from = range.getMin() - 1; from < range.getMax(); from += step) {
+						long after = from;
+						long last = Math.min(from + step, range.getMax());
+						parts.add(CompletableFuture.runAsync(() -> indexRange(after, last), executor));
+					}
+				}
+				rebuild = CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+						.whenComplete((result, e) -> finishRebuild(e));
+			}
+			catch (IOException | RuntimeException e) {
+				finishRebuild(e);
+				rebuild = CompletableFuture.failedFuture(e);
+			}
+			return rebuild;
+		}
+		finally {
+			rebuildLock.unlock();
+		}
+	}
+	
+	public boolean isRebuilding() {
+		return rebuilding;
+	}
+	
+	private void indexRange(long after, long last) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		PageRequest batch = PageRequest.of(0, BATCH_SIZE);
+		List<ProductTextProjection> rows;
+		do {
+			if (closing) {
+				throw new CancellationException("Product index is closing");
+			}
+			long from = after;
+			rows = template.execute(status -> repository.findTextBetween(from, last, batch));
+			for (ProductTextProjection row : rows) {
+				long version = version(row.getVersion());
+				Document doc = document(row.getId(), row.getName(), row.getDescription());
+				writtenDuringRebuild.compute(row.getId(), (id, written) -> {
+					if (written == null || written.version < version) {
+						write(id, doc);
+					}
+					return written;
+				});
+			}
+			if (!rows.isEmpty()) {
+				after = rows.get(rows.size() - 1).getId();
+			}
+		} while (rows.size() == BATCH_SIZE);
+	}
+	
+	private void finishRebuild(Throwable e) {
+		// close() rolls the writer back; nothing is committed or restored meanwhile
+		if (closing) {
+			return;
+		}
+		if (e != null) {
+			LOG.error("Product index rebuild failed, keeping the previous index", e);
+		}
+		else {
+			try {
+				writer.commit();
+			}
+			catch (IOException ex) {
+				LOG.error("Product index commit failed", ex);
+			}
+		}
+		lock.writeLock().lock();
+		try {
+			if (e != null && rebuilding) {
+				restore();
+			}
+			rebuilding = false;
+			writtenDuringRebuild.clear();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		refresh(true);
+	}
+	
+	/**
+	 * Rolls the writer back to the commit the rebuild started from, replays
+	 * the writes made since and only then opens a reader on it. Called with
+	 * the write lock held.
+	 */
+	private void restore() {
+		try {
+			writer.rollback();
+			writer = openWriter();
+			writtenDuringRebuild.forEach((id, written) -> write(id, written.doc));
+			SearcherManager previous = searcherManager;
+			searcherManager = new SearcherManager(writer, null);
+			previous.close();
+		}
+		catch (IOException | UncheckedIOException e) {
+			LOG.error("Product index could not be restored, it stays stale until the next rebuild", e);
+		}
+	}
+	
+	private void apply(Long id, long version, Document doc) {
+		lock.readLock().lock();
+		try {
+			applyVersion(id, version, doc);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		refresh(false);
+	}
+	
+	private void indexAll(Collection<Product> products) {
+		lock.readLock().lock();
+		try {
+			for (Product product : products) {
+				applyVersion(product.getId(), version(product.getVersion()),
+						document(product.getId(), product.getName(), product.getDescription()));
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		refresh(false);
+	}
+	
+	private void removeAll(Collection<Long> ids) {
+		lock.readLock().lock();
+		try {
+			ids.forEach(id -> applyVersion(id, REMOVED, null));
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		refresh(false);
+	}
+	
+	private void applyVersion(Long id, long version, Document doc) {
+		try {
+			if (rebuilding) {
+				writtenDuringRebuild.compute(id, (key, written) -> {
+					if (written != null && written.version >= version) {
+						return written;
+					}
+					write(key, doc);
+					return new Written(version, doc);
+				});
+			}
+			else {
+				write(id, doc);
+			}
+		}
+		catch (UncheckedIOException e) {
+			LOG.warn("Product " + id + " could not be indexed, it stays stale until the next rebuild", e);
+		}
+	}
+	
+	private void write(Long id, Document doc) {
+		try {
+			Term term = new Term(ID, id.toString());
+			if (doc == null) {
+				writer.deleteDocuments(term);
+			}
+			else {
+				writer.updateDocument(term, doc);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void refresh(boolean blocking) {
+		// a half built index is never opened; the rebuild refreshes when done
+		if (rebuilding) {
+			return;
+		}
+		try {
+			if (blocking) {
+				searcherManager.maybeRefreshBlocking();
+			}
+			else {
+				searcherManager.maybeRefresh();
+			}
+		}
+		catch (IOException e) {
+			LOG.warn("Product index refresh failed", e);
+		}
+	}
+	
+	private IndexWriter openWriter() throws IOException {
+		return new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(OpenMode.CREATE_OR_APPEND));
+	}
+	
+	private Query query(String text) {
+		QueryBuilder builder = new QueryBuilder(analyzer);
+		Query name = builder.createBooleanQuery(NAME, text, Occur.MUST);
+		Query description = builder.createBooleanQuery(DESCRIPTION, text, Occur.MUST);
+		if (name == null) {
+			return null;
+		}
+		return new BooleanQuery.Builder()
+				.add(new BoostQuery(name, 2f), Occur.SHOULD)
+				.add(description, Occur.SHOULD)
+				.build();
+	}
+	
+	private static Document document(Long id, String name, String description) {
+		Document doc = new Document();
+		doc.add(new StringField(ID, id.toString(), Store.YES));
+		if (name != null) {
+			doc.add(new TextField(NAME, name, Store.NO));
+		}
+		if (description != null) {
+			doc.add(new TextField(DESCRIPTION, description, Store.NO));
+		}
+		return doc;
+	}
+	
+	private static long version(Long version) {
+		return version == null ? 0L : version;
+	}
+	
+	// a null document is a removal
+	private static class Written {
+		private final long version;
+		private final Document doc;
+		
+		Written(long version, Document doc) {
+			this.version = version;
+			this.doc = doc;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.ssotter.sscatalog.services.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Recent successful logins, so a client logging in again within
+ * sscatalog.auth.login-cache-ttl skips BCrypt. Only an HMAC-SHA256 of the
+ * password is kept, under a key drawn at startup and never stored, next to
+ * the BCrypt hash it was checked against: once the stored hash changes the
+ * entry no longer matches.
+ */
+@Component
+public class LoginCache {
+	
+	public static final String NAME = "logins";
+	
+	private final SecretKey key;
+	private final Cache<String, Entry> cache;
+	
+	public LoginCache(@Value("${sscatalog.auth.login-cache-ttl:PT5M}") Duration ttl,
+			@Value("${sscatalog.auth.login-cache-size:10000}") long maxSize) {
+		byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		this.key = new SecretKeySpec(bytes, "HmacSHA256");
+		this.cache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).recordStats().build();
+	}
+	
+	public boolean matches(String email, String password, String encodedPassword) {
+		Entry entry = cache.getIfPresent(email);
+		return entry != null && entry.encodedPassword.equals(encodedPassword)
+				&& MessageDigest.isEqual(entry.mac, mac(password));
+	}
+	
+	public void put(String email, String password, String encodedPassword) {
+		cache.put(email, new Entry(encodedPassword, mac(password)));
+	}
+	
+	public void invalidate(String email) {
+		cache.invalidate(email);
+	}
+	
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+	
+	public Cache<String, ?> getNativeCache() {
+		return cache;
+	}
+	
+	private byte[] mac(String password) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(key);
+			return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+		}
+		catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static final class Entry {
+		
+		private final String encodedPassword;
+		private final byte[] mac;
+		
+		private Entry(String encodedPassword, byte[] mac) {
+			this.encodedPassword = encodedPassword;
+			this.mac = mac;
+		}
+	}
+}
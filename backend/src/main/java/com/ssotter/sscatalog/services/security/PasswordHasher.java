@@ -0,0 +1,148 @@
+package com.ssotter.sscatalog.services.security;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.ssotter.sscatalog.services.exceptions.ServiceUnavailableException;
+
+/**
+ * Runs BCrypt on a pool of its own so a burst of signups or logins cannot
+ * take every request thread. The pool has sscatalog.bcrypt.threads workers
+ * (0 means one per core) and a queue of sscatalog.bcrypt.queue-capacity;
+ * past that a caller is turned away at once rather than left to wait.
+ */
+@Component
+public class PasswordHasher {
+	
+	private static final Logger LOG = LoggerFactory.getLogger(PasswordHasher.class);
+	
+	private static final int MIN_COST = 10;
+	private static final int MAX_COST = 16;
+	private static final int PROBE_COST = 8;
+	
+	private final BCryptPasswordEncoder encoder;
+	private final ThreadPoolExecutor executor;
+	private final LongAdder rejected = new LongAdder();
+	private volatile String dummyHash;
+	
+	public PasswordHasher(BCryptPasswordEncoder encoder,
+			@Value("${sscatalog.bcrypt.threads:0}") int threads,
+			@Value("${sscatalog.bcrypt.queue-capacity:64}") int queueCapacity) {
+		this.encoder = encoder;
+		int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		AtomicInteger sequence = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), task -> {
+					Thread thread = new Thread(task, "bcrypt-" + sequence.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+	
+	public String encode(CharSequence rawPassword) {
+		return run(() -> encoder.encode(rawPassword));
+	}
+	
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return run(() -> encoder.matches(rawPassword, encodedPassword));
+	}
+	
+	/**
+	 * Hash of a random password at the configured cost, for checking a login
+	 * whose email is unknown as slowly as one with a wrong password.
+	 */
+	public String getDummyHash() {
+		String hash = dummyHash;
+		if (hash == null) {
+			hash = encode(UUID.randomUUID().toString());
+			dummyHash = hash;
+		}
+		return hash;
+	}
+	
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+	
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+	
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	private <T> T run(Callable<T> task) {
+		Future<T> future;
+		try {
+			future = executor.submit(task);
+		}
+		catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw new ServiceUnavailableException("Too many password operations in progress, try again shortly");
+		}
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	/**
+	 * Highest cost whose hash takes no longer than targetMillis on this
+	 * machine, but never below 10, Spring's default. Each step doubles the
+	 * work, so one timed hash at a cheap cost is enough to extrapolate from.
+	 */
+	public static int calibrateCost(long targetMillis) {
+		BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_COST);
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long start = System.nanoTime();
+			probe.encode("calibration");
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		double probeMillis = best / 1e6;
+		int cost = PROBE_COST;
+		while (cost < MAX_COST && probeMillis * (1L << (cost + 1 - PROBE_COST)) <= targetMillis) {
+			cost++;
+		}
+		if (cost < MIN_COST) {
+			LOG.warn("BCrypt cost {} misses the {} ms target here (~{} ms per hash)", MIN_COST, targetMillis,
+					Math.round(probeMillis * (1L << (MIN_COST - PROBE_COST))));
+			return MIN_COST;
+		}
+		LOG.info("BCrypt cost {} (~{} ms per hash, target {} ms)", cost,
+				Math.round(probeMillis * (1L << (cost - PROBE_COST))), targetMillis);
+		return cost;
+	}
+}
@@ -0,0 +1,63 @@
+package com.ssotter.sscatalog.services.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+
+/**
+ * Users whose tokens were cut short by a change to their account, with the
+ * instant from which tokens are good again. Tokens carry their roles, so a
+ * role change must revoke the ones already issued. An entry only has to
+ * outlive the tokens it rejects, so entries expire after the token lifetime.
+ * 
+ * Token timestamps have one-second resolution, so the cut-off is rounded up
+ * to the next second and tokens issued meanwhile are dated from it.
+ * Revocations are local to this instance.
+ */
+@Component
+public class TokenRevocations implements OAuth2TokenValidator<Jwt> {
+	
+	private static final OAuth2Error REVOKED = new OAuth2Error("invalid_token", "The token has been revoked", null);
+	
+	private final Cache<Long, Instant> notBefore;
+	
+	public TokenRevocations(@Value("${sscatalog.jwt.ttl:PT1H}") Duration ttl) {
+		this.notBefore = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(100_000).build();
+	}
+	
+	public void revokeAfterCommit(Long userId) {
+		AfterCompletion.afterCommit(() -> revoke(userId));
+	}
+	
+	public void revoke(Long userId) {
+		notBefore.put(userId, Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1));
+	}
+	
+	/**
+	 * When a token issued now for the user should say it was issued.
+	 */
+	public Instant issuedAt(Long userId, Instant now) {
+		Instant cutoff = notBefore.getIfPresent(userId);
+		return cutoff != null && cutoff.isAfter(now) ? cutoff : now;
+	}
+	
+	@Override
+	public OAuth2TokenValidatorResult validate(Jwt token) {
+		Instant cutoff = notBefore.getIfPresent(Long.valueOf(token.getSubject()));
+		if (cutoff != null && (token.getIssuedAt() == null || token.getIssuedAt().isBefore(cutoff))) {
+			return OAuth2TokenValidatorResult.failure(REVOKED);
+		}
+		return OAuth2TokenValidatorResult.success();
+	}
+}
@@ -0,0 +1,53 @@
+package com.ssotter.sscatalog.services.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Component;
+
+import com.ssotter.sscatalog.dto.RoleDTO;
+import com.ssotter.sscatalog.dto.TokenDTO;
+import com.ssotter.sscatalog.dto.UserDTO;
+
+/**
+ * Issues HS256-signed access tokens: the subject is the user id and the
+ * roles claim holds the authorities, so requests are authorized from the
+ * token alone.
+ */
+@Component
+public class TokenService {
+	
+	public static final String ROLES_CLAIM = "roles";
+	
+	@Autowired
+	private JwtEncoder encoder;
+	
+	@Autowired
+	private TokenRevocations revocations;
+	
+	@Value("${sscatalog.jwt.ttl:PT1H}")
+	private Duration ttl;
+	
+	public TokenDTO issue(UserDTO user) {
+		Instant issuedAt = revocations.issuedAt(user.getId(), Instant.now());
+		List<String> roles = user.getRoles().stream().map(RoleDTO::getAuthority).sorted().collect(Collectors.toList());
+		JwtClaimsSet claims = JwtClaimsSet.builder()
+				.subject(user.getId().toString())
+				.issuedAt(issuedAt)
+				.expiresAt(issuedAt.plus(ttl))
+				.claim(ROLES_CLAIM, roles)
+				.build();
+		JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+		String token = encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+		return new TokenDTO(token, ttl.getSeconds(), user);
+	}
+}
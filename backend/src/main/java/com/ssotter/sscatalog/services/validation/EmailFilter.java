@@ -0,0 +1,183 @@
+package com.ssotter.sscatalog.services.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.repositories.UserRepository;
+import com.ssotter.sscatalog.services.cache.AfterCompletion;
+
+/**
+ * Normalized emails of tb_user in a {@link ScalableBloomFilter}, so the
+ * signup check only queries for emails that may be taken. Emails are added
+ * once their transaction commits and never removed; a changed or deleted
+ * email just costs a false positive until the next rebuild.
+ * 
+ * The filter is rebuilt from the table, off the request thread, when it has
+ * grown past sscatalog.users.email-filter.max-stages stages or its estimated
+ * false positive rate doubles the target. Emails committed while a rebuild
+ * reads the table are replayed into the new filter before it is published.
+ */
+@Component
+public class EmailFilter {
+	
+	@Autowired
+	private UserRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${sscatalog.users.email-filter.capacity:10000}")
+	private long minCapacity;
+	
+	@Value("${sscatalog.users.email-filter.fpp:0.01}")
+	private double fpp;
+	
+	@Value("${sscatalog.users.email-filter.max-stages:4}")
+	private int maxStages;
+	
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private final LongAdder absent = new LongAdder();
+	private final LongAdder present = new LongAdder();
+	private final LongAdder falsePositives = new LongAdder();
+	private final LongAdder rebuilds = new LongAdder();
+	private volatile ScalableBloomFilter filter = new ScalableBloomFilter(1, 0.01);
+	private List<String> pending;
+	
+	@PostConstruct
+	public void load() {
+		writeLock.lock();
+		try {
+			pending = new ArrayList<>();
+		}
+		finally {
+			writeLock.unlock();
+		}
+		ScalableBloomFilter next = null;
+		try {
+			TransactionTemplate template = new TransactionTemplate(transactionManager);
+			template.setReadOnly(true);
+			List<String> emails = template.execute(status -> repository.findAllEmails());
+			next = new ScalableBloomFilter(Math.max(minCapacity, 2L * emails.size()), fpp);
+			for (String email : emails) {
+				next.add(normalize(email));
+			}
+		}
+		finally {
+			writeLock.lock();
+			try {
+				if (next != null) {
+					pending.forEach(next::add);
+					filter = next;
+				}
+				pending = null;
+			}
+			finally {
+				writeLock.unlock();
+			}
+		}
+	}
+	
+	/**
+	 * False means no user has this email; true means one may have.
+	 */
+	public boolean mightContain(String email) {
+		if (email == null) {
+			return true;
+		}
+		boolean result = filter.mightContain(normalize(email));
+		(result ? present : absent).increment();
+		return result;
+	}
+	
+	public void recordFalsePositive() {
+		falsePositives.increment();
+	}
+	
+	public void addAfterCommit(String email) {
+		if (email != null) {
+			AfterCompletion.afterCommit(() -> add(email));
+		}
+	}
+	
+	public void add(String email) {
+		String key = normalize(email);
+		boolean saturated;
+		writeLock.lock();
+		try {
+			filter.add(key);
+			if (pending != null) {
+				pending.add(key);
+			}
+			saturated = filter.getStageCount() > maxStages || filter.getExpectedFpp() > 2 * fpp;
+		}
+		finally {
+			writeLock.unlock();
+		}
+		if (saturated && rebuilding.compareAndSet(false, true)) {
+			CompletableFuture.runAsync(() -> {
+				try {
+					load();
+					rebuilds.increment();
+				}
+				finally {
+					rebuilding.set(false);
+				}
+			});
+		}
+	}
+	
+	public long getEmailCount() {
+		return filter.getCount();
+	}
+	
+	public long getBitCount() {
+		return filter.getBitCount();
+	}
+	
+	public int getStageCount() {
+		return filter.getStageCount();
+	}
+	
+	public double getExpectedFpp() {
+		return filter.getExpectedFpp();
+	}
+	
+	/**
+	 * Share of lookups for emails that turned out to be free which the filter
+	 * still sent to the database.
+	 */
+	public double getObservedFpp() {
+		long negatives = absent.sum() + falsePositives.sum();
+		return negatives == 0 ? 0 : (double) falsePositives.sum() / negatives;
+	}
+	
+	public long getAbsentCount() {
+		return absent.sum();
+	}
+	
+	public long getPresentCount() {
+		return present.sum();
+	}
+	
+	public long getRebuildCount() {
+		return rebuilds.sum();
+	}
+	
+	static String normalize(String email) {
+		return email.trim().toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,145 @@
+package com.ssotter.sscatalog.services.validation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter that grows instead of degrading: once a stage holds its
+ * capacity a new one is added with twice the capacity and half the false
+ * positive rate, so the overall rate stays under the configured one.
+ * Lookups may run concurrently with one writer; adds must be serialized by
+ * the caller.
+ */
+public class ScalableBloomFilter {
+	
+	private static final int GROWTH = 2;
+	private static final double TIGHTENING = 0.5;
+	
+	private final List<Stage> stages = new CopyOnWriteArrayList<>();
+	private final double fpp;
+	private volatile long count;
+	
+	public ScalableBloomFilter(long initialCapacity, double fpp) {
+		this.fpp = fpp;
+		stages.add(new Stage(Math.max(1, initialCapacity), fpp * (1 - TIGHTENING)));
+	}
+	
+	public boolean mightContain(String key) {
+		long h1 = hash(key);
+		long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+		for (Stage stage : stages) {
+			if (stage.mightContain(h1, h2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	public void add(String key) {
+		long h1 = hash(key);
+		long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+		for (Stage stage : stages) {
+			if (stage.mightContain(h1, h2)) {
+				return;
+			}
+		}
+		Stage last = stages.get(stages.size() - 1);
+		if (last.count >= last.capacity) {
+			last = new Stage(last.capacity * GROWTH, last.fpp * TIGHTENING);
+			stages.add(last);
+		}
+		last.add(h1, h2);
+		count++;
+	}
+	
+	public long getCount() {
+		return count;
+	}
+	
+	public int getStageCount() {
+		return stages.size();
+	}
+	
+	public long getBitCount() {
+		return stages.stream().mapToLong(stage -> stage.bitCount).sum();
+	}
+	
+	public double getTargetFpp() {
+		return fpp;
+	}
+	
+	/**
+	 * False positive rate implied by how full each stage actually is.
+	 */
+	public double getExpectedFpp() {
+		double none = 1;
+		for (Stage stage : stages) {
+			none *= 1 - Math.pow((double) stage.setBits / stage.bitCount, stage.hashes);
+		}
+		return 1 - none;
+	}
+	
+	// FNV-1a over the chars, then MurmurHash3's 64-bit finalizer to spread the bits
+	private static long hash(String key) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		return mix(h);
+	}
+	
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return h;
+	}
+	
+	private static final class Stage {
+		
+		private final long capacity;
+		private final double fpp;
+		private final long bitCount;
+		private final int hashes;
+		private final AtomicLongArray words;
+		private long count;
+		private volatile long setBits;
+		
+		private Stage(long capacity, double fpp) {
+			this.capacity = capacity;
+			this.fpp = fpp;
+			double ln2 = Math.log(2);
+			long bits = (long) Math.ceil(-capacity * Math.log(fpp) / (ln2 * ln2));
+			this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+			this.bitCount = words.length() * 64L;
+			this.hashes = Math.max(1, (int) Math.round(-Math.log(fpp) / ln2));
+		}
+		
+		private boolean mightContain(long h1, long h2) {
+			for (int i = 0; i < hashes; i++) {
+				long bit = Math.floorMod(h1 + i * h2, bitCount);
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		private void add(long h1, long h2) {
+			long set = 0;
+			for (int i = 0; i < hashes; i++) {
+				long bit = Math.floorMod(h1 + i * h2, bitCount);
+				long mask = 1L << bit;
+				if ((words.getAndAccumulate((int) (bit >>> 6), mask, (a, b) -> a | b) & mask) == 0) {
+					set++;
+				}
+			}
+			setBits += set;
+			count++;
+		}
+	}
+}
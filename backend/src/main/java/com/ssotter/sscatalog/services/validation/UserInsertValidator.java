@@ -18,6 +18,9 @@ public class UserInsertValidator implements ConstraintValidator<UserInsertValid,
 	@Autowired
 	private UserRepository repository;
 	
+	@Autowired
+	private EmailFilter emailFilter;
+	
 	@Override
 	public void initialize(UserInsertValid ann) {
 	}
@@ -27,7 +30,14 @@ public class UserInsertValidator implements ConstraintValidator<UserInsertValid,
 		
 		List<FieldMessage> list = new ArrayList<>();
 		
-		User user = repository.findByEmail(dto.getEmail());
+		// only emails the filter may have seen need the unique index
+		User user = null;
+		if (emailFilter.mightContain(dto.getEmail())) {
+			user = repository.findByEmail(dto.getEmail());
+			if (user == null) {
+				emailFilter.recordFalsePositive();
+			}
+		}
 		
 		// Coloque aqui seus testes de validação, acrescentando objetos FieldMessage à lista
 		
@@ -0,0 +1,68 @@
+package com.ssotter.sscatalog.services.versioning;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Validators for a conditional GET: a strong ETag hashed from the entity
+ * versions a response is built from, and the latest modification instant.
+ */
+public class ResourceVersion {
+	
+	private final String eTag;
+	private final Instant lastModified;
+	
+	private ResourceVersion(String eTag, Instant lastModified) {
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+	}
+	
+	public static Builder builder(String resource) {
+		return new Builder(resource);
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+	
+	public long getLastModifiedMillis() {
+		return lastModified == null ? -1 : lastModified.toEpochMilli();
+	}
+	
+	public static class Builder {
+		private final StringBuilder key = new StringBuilder();
+		private Instant lastModified;
+		
+		private Builder(String resource) {
+			key.append(resource);
+		}
+		
+		public Builder add(Long id, Long version) {
+			key.append('|').append(id).append(':').append(version);
+			return this;
+		}
+		
+		public Builder add(Object part) {
+			key.append('|').append(part);
+			return this;
+		}
+		
+		public Builder modified(Instant instant) {
+			if (instant != null && (lastModified == null || instant.isAfter(lastModified))) {
+				lastModified = instant;
+			}
+			return this;
+		}
+		
+		public ResourceVersion build() {
+			String hash = DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+			return new ResourceVersion("\"" + hash + "\"", lastModified);
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.ssotter.sscatalog.services.versioning;
+
+/**
+ * A response body together with the validators computed from the same rows,
+ * so a plain GET gets its ETag without a second query.
+ */
+public class Versioned<T> {
+	
+	private final T body;
+	private final ResourceVersion version;
+	
+	public Versioned(T body, ResourceVersion version) {
+		this.body = body;
+		this.version = version;
+	}
+	
+	public T getBody() {
+		return body;
+	}
+	
+	public ResourceVersion getVersion() {
+		return version;
+	}
+}
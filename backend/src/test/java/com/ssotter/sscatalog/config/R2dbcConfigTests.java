@@ -0,0 +1,45 @@
+package com.ssotter.sscatalog.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.ssotter.sscatalog.repositories.ReactiveCategoryRepository;
+import com.ssotter.sscatalog.repositories.ReactiveProductRepository;
+import com.ssotter.sscatalog.resources.ReactiveCategoryResource;
+import com.ssotter.sscatalog.resources.ReactiveProductResource;
+import com.ssotter.sscatalog.services.ReactiveCategoryService;
+import com.ssotter.sscatalog.services.ReactiveProductService;
+
+public class R2dbcConfigTests {
+	
+	private final ApplicationContextRunner runner = new ApplicationContextRunner()
+			.withUserConfiguration(R2dbcConfig.class,
+					ReactiveProductRepository.class, ReactiveCategoryRepository.class,
+					ReactiveProductService.class, ReactiveCategoryService.class,
+					ReactiveProductResource.class, ReactiveCategoryResource.class);
+	
+	@Test
+	public void contextShouldStartWithoutReactiveBeansWhenUrlIsMissing() {
+		
+		runner.run(context -> {
+			Assertions.assertNull(context.getStartupFailure());
+			Assertions.assertTrue(context.getBeansOfType(DatabaseClient.class).isEmpty());
+			Assertions.assertTrue(context.getBeansOfType(ReactiveProductService.class).isEmpty());
+			Assertions.assertTrue(context.getBeansOfType(ReactiveCategoryResource.class).isEmpty());
+		});
+	}
+	
+	@Test
+	public void contextShouldCreateDatabaseClientWhenUrlIsSet() {
+		
+		new ApplicationContextRunner()
+				.withUserConfiguration(R2dbcConfig.class)
+				.withPropertyValues("sscatalog.r2dbc.url=r2dbc:h2:mem:///r2dbcconfigtests")
+				.run(context -> {
+					Assertions.assertNull(context.getStartupFailure());
+					Assertions.assertNotNull(context.getBean(DatabaseClient.class));
+				});
+	}
+}
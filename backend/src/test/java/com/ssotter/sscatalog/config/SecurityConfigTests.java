@@ -0,0 +1,47 @@
+package com.ssotter.sscatalog.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+public class SecurityConfigTests {
+	
+	private final WebApplicationContextRunner runner = new WebApplicationContextRunner()
+			.withInitializer(context -> context.getBeanFactory()
+					.setConversionService(new ApplicationConversionService()))
+			.withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+			.withUserConfiguration(SecurityConfig.class);
+	
+	@Test
+	public void contextShouldFailToStartWithoutSecret() {
+		
+		runner.run(context -> {
+			Throwable cause = NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure());
+			Assertions.assertTrue(cause.getMessage().contains("sscatalog.jwt.secret"), cause.getMessage());
+		});
+	}
+	
+	@Test
+	public void contextShouldFailToStartWithShortSecret() {
+		
+		runner.withPropertyValues("sscatalog.jwt.secret=c2hvcnQ=").run(context -> {
+			Throwable cause = NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure());
+			Assertions.assertTrue(cause.getMessage().contains("at least 32 bytes"), cause.getMessage());
+		});
+	}
+	
+	@Test
+	public void contextShouldStartWithSecret() {
+		
+		runner.withPropertyValues("sscatalog.jwt.secret=c3NjYXRhbG9nLWRldmVsb3BtZW50LWtleS1ub3QtZm9yLXByb2R1Y3Rpb24=")
+				.run(context -> {
+					Assertions.assertNull(context.getStartupFailure());
+					Assertions.assertNotNull(context.getBean(JwtDecoder.class));
+				});
+	}
+}
@@ -0,0 +1,211 @@
+package com.ssotter.sscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.LoginDTO;
+import com.ssotter.sscatalog.dto.TokenDTO;
+import com.ssotter.sscatalog.services.UserService;
+import com.ssotter.sscatalog.services.security.LoginCache;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthResourceIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private LoginCache loginCache;
+	
+	@Autowired
+	private UserService userService;
+	
+	private String existingEmail;
+	private String operatorEmail;
+	private Long operatorId;
+	private String password;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		existingEmail = "maria@gmail.com";
+		operatorEmail = "alex@gmail.com";
+		operatorId = 1L;
+		password = "123456";
+		loginCache.invalidateAll();
+	}
+	
+	@Test
+	public void loginShouldReturnUserWithRolesWhenPasswordMatches() throws Exception {
+		
+		login(existingEmail, password)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.tokenType").value("Bearer"))
+				.andExpect(jsonPath("$.accessToken").isNotEmpty())
+				.andExpect(jsonPath("$.user.email").value(existingEmail))
+				.andExpect(jsonPath("$.user.roles.length()").value(2))
+				.andExpect(jsonPath("$.user.password").doesNotExist());
+	}
+	
+	@Test
+	public void loginShouldReturnUnauthorizedWhenPasswordDoesNotMatch() throws Exception {
+		
+		login(existingEmail, "wrong").andExpect(status().isUnauthorized());
+		login("nobody@gmail.com", password).andExpect(status().isUnauthorized());
+	}
+	
+	@Test
+	public void loginShouldVerifyFromCacheWhenRepeated() throws Exception {
+		
+		login(existingEmail, password).andExpect(status().isOk());
+		long hits = loginCache.getNativeCache().stats().hitCount();
+		
+		login(existingEmail, password).andExpect(status().isOk());
+		login(existingEmail, "wrong").andExpect(status().isUnauthorized());
+		
+		Assertions.assertEquals(hits + 2, loginCache.getNativeCache().stats().hitCount());
+	}
+	
+	@Test
+	public void writeShouldRequireValidToken() throws Exception {
+		
+		updateCategory(null).andExpect(status().isUnauthorized());
+		updateCategory("not-a-token").andExpect(status().isUnauthorized());
+		updateCategory(token(existingEmail)).andExpect(status().isOk());
+	}
+	
+	@Test
+	public void updateUserShouldReturnForbiddenWhenNotAdmin() throws Exception {
+		
+		String token = token(operatorEmail);
+		
+		mockMvc.perform(put("/users/{id}", 2L)
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+				.content("{}")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isForbidden());
+	}
+	
+	@Test
+	public void userUpdateShouldRevokeIssuedTokens() throws Exception {
+		
+		String token = token(operatorEmail);
+		updateCategory(token).andExpect(status().isOk());
+		
+		userService.update(operatorId, userService.findById(operatorId));
+		
+		updateCategory(token).andExpect(status().isUnauthorized());
+		updateCategory(token(operatorEmail)).andExpect(status().isOk());
+	}
+	
+	@Test
+	public void signupShouldIgnoreRequestedRolesAndGrantClientOnly() throws Exception {
+		
+		String email = "eve@gmail.com";
+		Long id = signup(email, ",\"roles\":[{\"id\":2}]");
+		try {
+			login(email, password)
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.user.roles.length()").value(1))
+					.andExpect(jsonPath("$.user.roles[0].authority").value("ROLE_CLIENT"));
+			
+			mockMvc.perform(put("/users/{id}", id)
+					.header(HttpHeaders.AUTHORIZATION, "Bearer " + token(email))
+					.content("{}")
+					.contentType(MediaType.APPLICATION_JSON))
+					.andExpect(status().isForbidden());
+		}
+		finally {
+			userService.delete(id);
+		}
+	}
+	
+	@Test
+	public void catalogWriteShouldReturnForbiddenForSignedUpUser() throws Exception {
+		
+		String email = "mallory@gmail.com";
+		Long id = signup(email, "");
+		try {
+			String token = token(email);
+			
+			updateCategory(token).andExpect(status().isForbidden());
+			mockMvc.perform(post("/products")
+					.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+					.content("{}")
+					.contentType(MediaType.APPLICATION_JSON))
+					.andExpect(status().isForbidden());
+			mockMvc.perform(delete("/categories/{id}", 1L)
+					.header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+					.andExpect(status().isForbidden());
+		}
+		finally {
+			userService.delete(id);
+		}
+	}
+	
+	@Test
+	public void userDeleteShouldDropOnlyThatCachedLogin() throws Exception {
+		
+		String email = "carla@gmail.com";
+		Long id = signup(email, "");
+		login(email, password).andExpect(status().isOk());
+		login(existingEmail, password).andExpect(status().isOk());
+		
+		userService.delete(id);
+		
+		Assertions.assertNull(loginCache.getNativeCache().getIfPresent(email));
+		Assertions.assertNotNull(loginCache.getNativeCache().getIfPresent(existingEmail));
+	}
+	
+	private Long signup(String email, String extraFields) throws Exception {
+		String body = mockMvc.perform(post("/users")
+				.content("{\"firstName\":\"Test\",\"lastName\":\"User\",\"email\":\"" + email
+						+ "\",\"password\":\"" + password + "\"" + extraFields + "}")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("id").asLong();
+	}
+	
+	private String token(String email) throws Exception {
+		String body = login(email, password).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(body, TokenDTO.class).getAccessToken();
+	}
+	
+	private ResultActions updateCategory(String token) throws Exception {
+		MockHttpServletRequestBuilder request = put("/categories/{id}", 1L)
+				.content("{\"name\":\"Livros\"}")
+				.contentType(MediaType.APPLICATION_JSON);
+		if (token != null) {
+			request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+		}
+		return mockMvc.perform(request);
+	}
+	
+	private ResultActions login(String email, String password) throws Exception {
+		String body = objectMapper.writeValueAsString(new LoginDTO(email, password));
+		return mockMvc.perform(post("/auth/login")
+				.content(body)
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+	}
+}
@@ -0,0 +1,141 @@
+package com.ssotter.sscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.services.CategoryService;
+import com.ssotter.sscatalog.tests.SqlRecorder;
+import com.ssotter.sscatalog.tests.SqlRecorder.Statements;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlRecorder.class)
+@Transactional
+@WithMockUser(roles = "ADMIN")
+public class CategoryResourceIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private SqlRecorder sqlRecorder;
+	
+	@Autowired
+	private EntityManager entityManager;
+	
+	@Autowired
+	private CategoryService categoryService;
+	
+	private Long existingId;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		existingId = 1L;
+	}
+	
+	@Test
+	public void findAllShouldBeServedFromSnapshot() throws Exception {
+		
+		Statements sql = statements(get("/categories?page=0&size=10"), status().isOk());
+		
+		Assertions.assertEquals(0, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void findAllKeysetShouldRunOneStatement() throws Exception {
+		
+		Statements sql = statements(get("/categories?cursor=&size=10"), status().isOk());
+		
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void findByIdShouldBeServedFromSnapshot() throws Exception {
+		
+		Statements sql = statements(get("/categories/{id}", existingId), status().isOk());
+		
+		Assertions.assertEquals(0, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void insertShouldRunOneStatement() throws Exception {
+		
+		String jsonBody = objectMapper.writeValueAsString(new CategoryDTO(null, "Games"));
+		
+		Statements sql = statements(post("/categories").content(jsonBody).contentType(MediaType.APPLICATION_JSON),
+				status().isCreated());
+		
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void updateShouldStayWithinStatementBudget() throws Exception {
+		
+		String jsonBody = objectMapper.writeValueAsString(new CategoryDTO(null, "Games"));
+		
+		Statements sql = statements(put("/categories/{id}", existingId).content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON), status().isOk());
+		
+		Assertions.assertTrue(sql.count() <= 2, sql.toString());
+	}
+	
+	@Test
+	public void deleteShouldStayWithinStatementBudget() throws Exception {
+		
+		Long newId = categoryService.insert(new CategoryDTO(null, "Games")).getId();
+		
+		Statements sql = statements(delete("/categories/{id}", newId), status().isNoContent());
+		
+		Assertions.assertTrue(sql.count() <= 2, sql.toString());
+	}
+	
+	@Test
+	public void deleteAllShouldReportDeletedAndMissingIds() throws Exception {
+		
+		Long newId = categoryService.insert(new CategoryDTO(null, "Games")).getId();
+		
+		Statements sql = statements(delete("/categories?ids={a},{b}", newId, 1000L), status().isOk());
+		
+		Assertions.assertEquals(2, sql.count(), sql.toString());
+		Assertions.assertEquals(1, sql.count("delete", "tb_category"), sql.toString());
+	}
+	
+	@Test
+	public void deleteAllShouldReturnBadRequestWhenCategoryInUse() throws Exception {
+		
+		mockMvc.perform(delete("/categories?ids={id}", existingId)).andExpect(status().isBadRequest());
+	}
+	
+	private Statements statements(RequestBuilder request, ResultMatcher expected) throws Exception {
+		entityManager.flush();
+		entityManager.clear();
+		return sqlRecorder.record(() -> {
+			mockMvc.perform(request).andExpect(expected);
+			entityManager.flush();
+		});
+	}
+}
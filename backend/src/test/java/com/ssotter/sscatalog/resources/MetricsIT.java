@@ -0,0 +1,44 @@
+package com.ssotter.sscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "sscatalog.metrics.hibernate-statistics=true")
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Test
+	public void prometheusShouldExposeApplicationMetrics() throws Exception {
+		
+		mockMvc.perform(get("/products/{id}", 1000L).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+		mockMvc.perform(get("/products").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		
+		String body = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		
+		Assertions.assertTrue(body.contains("sscatalog_errors_total{error=\"Resource not found!\",status=\"404\",}"));
+		Assertions.assertTrue(body.contains("sscatalog_service_seconds_bucket{class=\"ProductService\",exception=\"none\",method=\"findAllPagedVersioned\""));
+		Assertions.assertTrue(body.contains("sscatalog_service_seconds_count{class=\"ProductService\",exception=\"ResourceNotFoundException\",method=\"findVersion\",}"));
+		Assertions.assertTrue(body.contains("sscatalog_transactions_seconds_bucket{outcome=\"committed\",read_only=\"true\""));
+		Assertions.assertTrue(body.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/products\""));
+		Assertions.assertTrue(body.contains("hikaricp_connections_pending"));
+		Assertions.assertTrue(body.contains("hibernate_statements_total"));
+		Assertions.assertTrue(body.contains("cache_gets_total{cache=\"products\""));
+	}
+}
@@ -1,27 +1,50 @@
 package com.ssotter.sscatalog.resources;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.ResultMatcher;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.CategoryDTO;
 import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.services.cache.ProductCache;
+import com.ssotter.sscatalog.services.search.ProductIndex;
 import com.ssotter.sscatalog.tests.Factory;
+import com.ssotter.sscatalog.tests.SqlRecorder;
+import com.ssotter.sscatalog.tests.SqlRecorder.Statements;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(SqlRecorder.class)
 @Transactional
+@WithMockUser(roles = "ADMIN")
 public class ProductResourceIT {
 
 	@Autowired
@@ -30,6 +53,18 @@ public class ProductResourceIT {
 	@Autowired
 	private ObjectMapper objectMapper;
 	
+	@Autowired
+	private SqlRecorder sqlRecorder;
+	
+	@Autowired
+	private EntityManager entityManager;
+	
+	@Autowired
+	private ProductCache productCache;
+	
+	@Autowired
+	private ProductIndex productIndex;
+	
 	private Long existingId;
 	private Long notExistsId;
 	private Long countTotalProducts;
@@ -93,5 +128,526 @@ public class ProductResourceIT {
 		
 		result.andExpect(status().isNotFound());
 	}
-
+	
+	@Test
+	public void findAllShouldReturnKeysetPageWhenCursorIsPresent() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?cursor=&size=12&sort=name,asc")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+		result.andExpect(jsonPath("$.next").exists());
+		result.andExpect(jsonPath("$.previous").doesNotExist());
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenSortKeyNotSupportedByKeyset() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?cursor=&sort=description")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findAllShouldReturnCategoriesWhenExpandCategories() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?page=0&size=12&sort=name,asc&expand=categories")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+		result.andExpect(jsonPath("$.content[0].categories").isNotEmpty());
+	}
+	
+	@Test
+	public void findByIdShouldReturnNotModifiedUntilProductIsUpdated() throws Exception {
+		
+		String eTag = mockMvc.perform(get("/products/{id}", existingId)
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		mockMvc.perform(get("/products/{id}", existingId)
+						.header(HttpHeaders.IF_NONE_MATCH, eTag)
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotModified());
+		
+		mockMvc.perform(put("/products/{id}", existingId)
+						.content(objectMapper.writeValueAsString(Factory.createProductDTO()))
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		
+		mockMvc.perform(get("/products/{id}", existingId)
+						.header(HttpHeaders.IF_NONE_MATCH, eTag)
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("Phone"));
+	}
+	
+	@Test
+	public void findAllShouldReturnNotModifiedWhenETagMatches() throws Exception {
+		
+		String eTag = mockMvc.perform(get("/products?page=0&size=12")
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		mockMvc.perform(get("/products?page=0&size=12")
+						.header(HttpHeaders.IF_NONE_MATCH, eTag)
+						.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	public void exportShouldStreamOneJsonLinePerProduct() throws Exception {
+		
+		MvcResult started = mockMvc.perform(get("/products/export?expand=categories"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		
+		String[] lines = body.split("\n");
+		Assertions.assertEquals(countTotalProducts, lines.length);
+		ProductDTO first = objectMapper.readValue(lines[0], ProductDTO.class);
+		Assertions.assertEquals(1L, first.getId());
+		Assertions.assertFalse(first.getCategories().isEmpty());
+	}
+	
+	@Test
+	public void exportShouldStreamOnlyProductsOfCategoryWhenCategoryFilter() throws Exception {
+		
+		MvcResult started = mockMvc.perform(get("/products/export?category=1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		
+		Assertions.assertEquals(1, body.split("\n").length);
+	}
+	
+	@Test
+	public void findAllShouldReturnOnlyRequestedFieldsWhenFields() throws Exception {
+		
+		Statements sql = sqlRecorder.record(() -> {
+			mockMvc.perform(get("/products?page=0&size=12&sort=name,asc&fields=name,price,imgUrl")
+					.accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.totalElements").value(countTotalProducts))
+					.andExpect(jsonPath("$.content[0].id").exists())
+					.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"))
+					.andExpect(jsonPath("$.content[0].price").value(1250.0))
+					.andExpect(jsonPath("$.content[0].description").doesNotExist())
+					.andExpect(jsonPath("$.content[0].categories").doesNotExist());
+		});
+		
+		Assertions.assertTrue(sql.getList().stream().noneMatch(x -> x.contains("description")), sql.toString());
+	}
+	
+	@Test
+	public void findAllShouldReturnExcerptAndCategoriesWhenRequested() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?page=0&size=5&fields=excerpt,categories")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].excerpt").value(endsWith("…")));
+		result.andExpect(jsonPath("$.content[0].categories[0].name").exists());
+		result.andExpect(jsonPath("$.content[0].name").doesNotExist());
+		
+		String excerpt = objectMapper.readTree(result.andReturn().getResponse().getContentAsString())
+				.get("content").get(0).get("excerpt").asText();
+		Assertions.assertTrue(excerpt.length() <= 161, excerpt);
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenFieldIsUnknown() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?fields=name,password")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void searchShouldReturnMatchingProductsWhenQueryMatches() throws Exception {
+		
+		productIndex.rebuild().get();
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products/search?q=macbook&page=0&size=5")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1L));
+		result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+	}
+	
+	@Test
+	public void searchShouldReturnBadRequestWhenQueryIsBlank() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products/search?q= ")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void suggestShouldRankNameStartsFirstWithoutQueries() throws Exception {
+		
+		Statements sql = sqlRecorder.record(() -> {
+			mockMvc.perform(get("/products/suggest?prefix=pc g&limit=3")
+					.accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.length()").value(3))
+					.andExpect(jsonPath("$[0].name").value("PC Gamer"))
+					.andExpect(jsonPath("$[1].name").value("PC Gamer X"));
+		});
+		
+		Assertions.assertEquals(0, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void suggestShouldReturnBadRequestWhenLimitIsOutOfRange() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products/suggest?prefix=pc&limit=0")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findAllShouldReturnProductsInAnyCategoryWhenMatchAny() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?categories=1,2&match=any&page=0&size=2")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(3L));
+		result.andExpect(jsonPath("$.content[0].id").value(1L));
+		result.andExpect(jsonPath("$.content[1].id").value(2L));
+	}
+	
+	@Test
+	public void findAllShouldReturnProductsInEveryCategoryWhenMatchAll() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?categories=1,3&match=all&expand=categories")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1L));
+		result.andExpect(jsonPath("$.content[0].id").value(2L));
+		result.andExpect(jsonPath("$.content[0].categories.length()").value(2));
+	}
+	
+	@Test
+	public void findAllShouldSortFilteredProductsInDatabaseWhenSortIsNotId() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?categories=1,2&page=0&size=2&sort=name,asc")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(3L));
+		result.andExpect(jsonPath("$.content[0].name").value("Rails for Dummies"));
+		result.andExpect(jsonPath("$.content[1].name").value("Smart TV"));
+	}
+	
+	@Test
+	public void findAllShouldSortProductsInEveryCategoryInDatabaseWhenMatchAll() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?categories=1,3&match=all&sort=name,desc")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1L));
+		result.andExpect(jsonPath("$.content.length()").value(1));
+		result.andExpect(jsonPath("$.content[0].id").value(2L));
+	}
+	
+	@Test
+	public void findAllShouldNotBindMatchingIdsWhenSortingFilteredProductsInDatabase() throws Exception {
+		
+		Statements sql = statements(get("/products?categories=3&page=1&size=5&sort=name,desc"), status().isOk());
+		
+		// the join table filters in the same statement; no IN list grows with the matches
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+		Assertions.assertEquals(1, sql.count("select", "tb_product_category"), sql.toString());
+	}
+	
+	@Test
+	public void findAllShouldSortFilteredProductsByPriceFromColumnsWithoutJoinTable() throws Exception {
+		
+		Statements sql = statements(get("/products?categories=3&page=1&size=5&sort=price,desc"), status().isOk());
+		
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+		Assertions.assertEquals(0, sql.count("select", "tb_product_category"), sql.toString());
+		mockMvc.perform(get("/products?categories=3&page=1&size=5&sort=price,desc"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(23L))
+				// 1850.0 is shared by 8, 12 and 22, ties go by id
+				.andExpect(jsonPath("$.content[*].id").value(contains(15, 2, 9, 8, 12)));
+		mockMvc.perform(get("/products?categories=1,2&sort=price,asc"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[*].id").value(contains(1, 5, 2)));
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenCategoryFilterIsInvalid() throws Exception {
+		
+		mockMvc.perform(get("/products?categories=1,x")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/products?categories=1&match=some")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findAllShouldReadOnlyThePageWhenFilteringByCategory() throws Exception {
+		
+		Statements sql = statements(get("/products?categories=3&page=1&size=5&sort=id,desc"), status().isOk());
+		
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+		Assertions.assertEquals(0, sql.count("select", "tb_product_category"), sql.toString());
+	}
+	
+	@Test
+	public void findAllShouldReturnFacetsOfWholeCatalogWithoutExtraStatements() throws Exception {
+		
+		Statements sql = statements(get("/products?page=0&size=5&facets=true"), status().isOk());
+		
+		mockMvc.perform(get("/products?page=0&size=5&facets=true"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(25L))
+				.andExpect(jsonPath("$.content.length()").value(5))
+				.andExpect(jsonPath("$.facets.categories[0].name").value("Computadores"))
+				.andExpect(jsonPath("$.facets.categories[0].count").value(23L))
+				.andExpect(jsonPath("$.facets.prices.length()").value(5))
+				.andExpect(jsonPath("$.facets.prices[0].to").value(100.0))
+				.andExpect(jsonPath("$.facets.prices[0].count").value(1L))
+				.andExpect(jsonPath("$.facets.prices[3].count").value(23L));
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void findAllShouldReturnFacetsOfFilteredProductsWhenFilteringByCategory() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?categories=1,2&facets=true")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(3L));
+		result.andExpect(jsonPath("$.facets.categories.length()").value(3));
+		result.andExpect(jsonPath("$.facets.categories[0].id").value(2L));
+		result.andExpect(jsonPath("$.facets.categories[0].count").value(2L));
+		result.andExpect(jsonPath("$.facets.prices[0].count").value(1L));
+		result.andExpect(jsonPath("$.facets.prices[1].count").value(1L));
+		result.andExpect(jsonPath("$.facets.prices[3].count").value(1L));
+	}
+	
+	@Test
+	public void statsShouldAggregatePricesPerCategoryAndCountsPerPeriodWithoutQueries() throws Exception {
+		
+		Statements sql = sqlRecorder.record(() -> {
+			mockMvc.perform(get("/products/stats?period=day")
+					.accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.products").value(25L))
+					.andExpect(jsonPath("$.categories[1].id").value(2L))
+					.andExpect(jsonPath("$.categories[1].count").value(2L))
+					.andExpect(jsonPath("$.categories[1].minPrice").value(90.5))
+					.andExpect(jsonPath("$.categories[1].maxPrice").value(100.99))
+					.andExpect(jsonPath("$.categories[1].p50Price").value(90.5))
+					.andExpect(jsonPath("$.categories[2].count").value(23L))
+					.andExpect(jsonPath("$.categories[2].minPrice").value(1200.0))
+					.andExpect(jsonPath("$.categories[2].maxPrice").value(4170.0))
+					.andExpect(jsonPath("$.periods.length()").value(2))
+					.andExpect(jsonPath("$.periods[0].start").value("2020-07-13T00:00:00Z"))
+					.andExpect(jsonPath("$.periods[1].count").value(24L))
+					.andExpect(jsonPath("$.snapshot.bytes").isNumber());
+		});
+		
+		Assertions.assertEquals(0, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void statsShouldReturnBadRequestWhenPeriodIsInvalid() throws Exception {
+		
+		mockMvc.perform(get("/products/stats?period=week")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findAllShouldStayWithinStatementBudget() throws Exception {
+		
+		Statements exact = statements(get("/products?page=0&size=10"), status().isOk());
+		Statements none = statements(get("/products?page=0&size=10&count=none"), status().isOk());
+		Statements keyset = statements(get("/products?cursor=&size=10"), status().isOk());
+		
+		// the page and its count; the ETag comes from the same rows
+		Assertions.assertEquals(2, exact.count(), exact.toString());
+		Assertions.assertEquals(1, none.count(), none.toString());
+		Assertions.assertEquals(1, keyset.count(), keyset.toString());
+	}
+	
+	@Test
+	public void findAllShouldRunOnlyVersionQueriesWhenETagMatches() throws Exception {
+		
+		String eTag = mockMvc.perform(get("/products?page=0&size=10"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		Statements sql = statements(get("/products?page=0&size=10").header(HttpHeaders.IF_NONE_MATCH, eTag),
+				status().isNotModified());
+		
+		Assertions.assertEquals(2, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void findAllShouldRunSameStatementsForAnyPageSizeWhenExpandCategories() throws Exception {
+		
+		Statements small = statements(get("/products?page=0&size=5&count=none&expand=categories"), status().isOk());
+		Statements large = statements(get("/products?page=0&size=20&count=none&expand=categories"), status().isOk());
+		
+		Assertions.assertTrue(small.count() <= 3, small.toString());
+		Assertions.assertEquals(small.count(), large.count(), large.toString());
+		Assertions.assertEquals(1, large.count("select", "tb_category"), large.toString());
+	}
+	
+	@Test
+	public void findByIdShouldStayWithinStatementBudget() throws Exception {
+		
+		productCache.evictAll();
+		Statements cold = statements(get("/products/{id}", existingId), status().isOk());
+		Statements warm = statements(get("/products/{id}", existingId), status().isOk());
+		
+		Assertions.assertTrue(cold.count() <= 2, cold.toString());
+		Assertions.assertEquals(0, warm.count(), warm.toString());
+	}
+	
+	@Test
+	public void insertShouldSelectCategoriesOnce() throws Exception {
+		
+		ProductDTO dto = Factory.createProductDTO();
+		dto.getCategories().add(new CategoryDTO(2L, null));
+		String jsonBody = objectMapper.writeValueAsString(dto);
+		
+		Statements sql = statements(post("/products").content(jsonBody).contentType(MediaType.APPLICATION_JSON),
+				status().isCreated());
+		
+		Assertions.assertEquals(1, sql.count("select"), sql.toString());
+		Assertions.assertEquals(1, sql.count("select", "tb_category"), sql.toString());
+		Assertions.assertTrue(sql.count() <= 3, sql.toString());
+	}
+	
+	@Test
+	public void updateShouldSelectCategoriesOnce() throws Exception {
+		
+		ProductDTO dto = Factory.createProductDTO();
+		dto.getCategories().add(new CategoryDTO(2L, null));
+		String jsonBody = objectMapper.writeValueAsString(dto);
+		
+		Statements sql = statements(put("/products/{id}", existingId).content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON), status().isOk());
+		
+		Assertions.assertEquals(1, sql.count("select", "tb_category"), sql.toString());
+		Assertions.assertTrue(sql.count() <= 5, sql.toString());
+	}
+	
+	@Test
+	public void insertShouldReturnNotFoundWhenCategoryDoesNotExist() throws Exception {
+		
+		ProductDTO dto = Factory.createProductDTO();
+		dto.getCategories().add(new CategoryDTO(1000L, null));
+		String jsonBody = objectMapper.writeValueAsString(dto);
+		
+		mockMvc.perform(post("/products").content(jsonBody).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void deleteShouldStayWithinStatementBudget() throws Exception {
+		
+		Statements sql = statements(delete("/products/{id}", existingId), status().isNoContent());
+		
+		Assertions.assertTrue(sql.count() <= 3, sql.toString());
+	}
+	
+	@Test
+	public void deleteAllShouldReportDeletedAndMissingIdsWithSetBasedStatements() throws Exception {
+		
+		Statements sql = statements(delete("/products?ids={a},{b},{c}", existingId, 2L, notExistsId), status().isOk());
+		
+		Assertions.assertEquals(3, sql.count(), sql.toString());
+		Assertions.assertEquals(1, sql.count("delete", "tb_product"), sql.toString());
+		Assertions.assertEquals(1, sql.count("delete", "tb_product_category"), sql.toString());
+		mockMvc.perform(get("/products/{id}", existingId)).andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void deleteAllShouldReturnDeletedAndMissingIds() throws Exception {
+		
+		mockMvc.perform(delete("/products?ids={a},{b},{c}", existingId, notExistsId, existingId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deleted.length()").value(1))
+				.andExpect(jsonPath("$.deleted[0]").value(existingId))
+				.andExpect(jsonPath("$.missing[0]").value(notExistsId));
+	}
+	
+	@Test
+	public void deleteMatchingShouldDeleteProductsOfCategory() throws Exception {
+		
+		mockMvc.perform(delete("/products?category=1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deleted.length()").value(1))
+				.andExpect(jsonPath("$.deleted[0]").value(2));
+		
+		mockMvc.perform(delete("/products?category=1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deleted.length()").value(0));
+	}
+	
+	@Test
+	public void deleteMatchingShouldReturnBadRequestWhenNoFilter() throws Exception {
+		
+		mockMvc.perform(delete("/products")).andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void exportShouldRunOneCategoryQueryPerChunk() throws Exception {
+		
+		Statements sql = sqlRecorder.record(() -> {
+			MvcResult started = mockMvc.perform(get("/products/export?expand=categories"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+		});
+		
+		Assertions.assertEquals(2, sql.count(), sql.toString());
+	}
+	
+	private Statements statements(RequestBuilder request, ResultMatcher expected) throws Exception {
+		entityManager.flush();
+		entityManager.clear();
+		return sqlRecorder.record(() -> {
+			mockMvc.perform(request).andExpect(expected);
+			entityManager.flush();
+		});
+	}
 }
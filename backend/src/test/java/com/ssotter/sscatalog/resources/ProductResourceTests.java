@@ -5,11 +5,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -22,18 +25,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.services.ProductDeleteService;
+import com.ssotter.sscatalog.services.ProductExportService;
+import com.ssotter.sscatalog.services.ProductImportService;
 import com.ssotter.sscatalog.services.ProductService;
 import com.ssotter.sscatalog.services.exceptions.DatabaseException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.versioning.ResourceVersion;
+import com.ssotter.sscatalog.services.versioning.Versioned;
 import com.ssotter.sscatalog.tests.Factory;
 
 @WebMvcTest(ProductResource.class)
+@WithMockUser(roles = "ADMIN")
 public class ProductResourceTests {
 	
 	@Autowired
@@ -42,6 +54,18 @@ public class ProductResourceTests {
 	@MockBean
 	private ProductService service;
 	
+	@MockBean
+	private ProductExportService exportService;
+	
+	@MockBean
+	private ProductImportService importService;
+	
+	@MockBean
+	private ProductDeleteService deleteService;
+	
+	@MockBean
+	private NameSuggester nameSuggester;
+	
 	@Autowired
 	private ObjectMapper objectMapper;
 	
@@ -50,6 +74,7 @@ public class ProductResourceTests {
 	private long dependentId;
 	private ProductDTO productDTO;
 	private PageImpl<ProductDTO> page;
+	private ResourceVersion version;
 
 	@BeforeEach
 	void setUp() throws Exception {
@@ -60,10 +85,18 @@ public class ProductResourceTests {
 		
 		productDTO = Factory.createProductDTO();
 		page = new PageImpl<>(List.of(productDTO));
+		version = ResourceVersion.builder("product").add(existingId, 0L).build();
 		
 		when(service.findAllPaged(ArgumentMatchers.any())).thenReturn(page);
+		when(service.findAllPaged(any(), any())).thenReturn(page);
+		when(service.findAllPaged(any(), any(), ArgumentMatchers.anyBoolean())).thenReturn(page);
+		when(service.findAllPagedVersioned(any(), any(), ArgumentMatchers.anyBoolean()))
+				.thenReturn(new Versioned<>(page, version));
 		
 		when(service.findById(existingId)).thenReturn(productDTO);
+		when(service.findVersion(existingId)).thenReturn(version);
+		when(service.findVersion(notExistsId)).thenThrow(ResourceNotFoundException.class);
+		when(service.findPageVersion(any(), any(), ArgumentMatchers.anyBoolean())).thenReturn(version);
 		when(service.findById(notExistsId)).thenThrow(ResourceNotFoundException.class);
 		
 		when(service.update(eq(existingId), any())).thenReturn(productDTO);
@@ -155,6 +188,41 @@ public class ProductResourceTests {
 		result.andExpect(status().isOk());
 	}
 	
+	@Test
+	public void findAllShouldTagPageWithoutVersionQueryWhenRequestIsNotConditional() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().string(HttpHeaders.ETAG, version.getETag()));
+		verify(service, never()).findPageVersion(any(), any(), ArgumentMatchers.anyBoolean());
+	}
+	
+	@Test
+	public void findAllShouldReturnNotModifiedWithoutLoadingPageWhenETagMatches() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products")
+						.header(HttpHeaders.IF_NONE_MATCH, version.getETag())
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		verify(service, never()).findAllPaged(any(), any(), ArgumentMatchers.anyBoolean());
+		verify(service, never()).findAllPagedVersioned(any(), any(), ArgumentMatchers.anyBoolean());
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenCountModeIsInvalid() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products?count=maybe")
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
 	@Test
 	public void findByIdShouldReturnProductWhenIdExists() throws Exception {
 		
@@ -168,6 +236,18 @@ public class ProductResourceTests {
 		result.andExpect(jsonPath("$.description").exists());
 	}
 	
+	@Test
+	public void findByIdShouldReturnNotModifiedWhenETagMatches() throws Exception {
+		
+		ResultActions result = 
+				mockMvc.perform(get("/products/{id}", existingId)
+						.header(HttpHeaders.IF_NONE_MATCH, version.getETag())
+						.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		verify(service, never()).findById(existingId);
+	}
+	
 	@Test
 	public void findByIdShouldReturnNotFoundWhenIdNotExists() throws Exception{
 		
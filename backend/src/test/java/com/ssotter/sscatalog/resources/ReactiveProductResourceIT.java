@@ -0,0 +1,106 @@
+package com.ssotter.sscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReactiveProductResourceIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	private Long existingId;
+	private Long notExistsId;
+	private Long countTotalProducts;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		existingId = 1L;
+		notExistsId = 1000L;
+		countTotalProducts = 25L;
+	}
+	
+	@Test
+	public void findAllShouldReturnSamePageAsServletEndpoint() throws Exception {
+		
+		String reactive = async(get("/reactive/products?page=1&size=5&sort=name,asc&expand=categories"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(countTotalProducts))
+				.andReturn().getResponse().getContentAsString();
+		String servlet = mockMvc.perform(get("/products?page=1&size=5&sort=name,asc&expand=categories"))
+				.andReturn().getResponse().getContentAsString();
+		
+		Assertions.assertEquals(objectMapper.readTree(servlet).get("content"), objectMapper.readTree(reactive).get("content"));
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenSortPropertyIsUnknown() throws Exception {
+		
+		mockMvc.perform(get("/reactive/products?sort=description"))
+				.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findByIdShouldReturnSameProductAsServletEndpoint() throws Exception {
+		
+		String reactive = async(get("/reactive/products/{id}", existingId))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String servlet = mockMvc.perform(get("/products/{id}", existingId))
+				.andReturn().getResponse().getContentAsString();
+		
+		Assertions.assertEquals(objectMapper.readTree(servlet), objectMapper.readTree(reactive));
+	}
+	
+	@Test
+	public void findByIdShouldReturnNotFoundWhenIdDoesNotExist() throws Exception {
+		
+		async(get("/reactive/products/{id}", notExistsId))
+				.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void streamShouldWriteOneJsonLinePerProductInIdOrder() throws Exception {
+		
+		String body = async(get("/reactive/products/stream?expand=categories").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		
+		String[] lines = body.split("\n");
+		Assertions.assertEquals(countTotalProducts, lines.length);
+		ProductDTO first = objectMapper.readValue(lines[0], ProductDTO.class);
+		ProductDTO last = objectMapper.readValue(lines[lines.length - 1], ProductDTO.class);
+		Assertions.assertEquals(1L, first.getId());
+		Assertions.assertEquals(countTotalProducts, last.getId());
+		Assertions.assertFalse(first.getCategories().isEmpty());
+	}
+	
+	private ResultActions async(RequestBuilder request) throws Exception {
+		MvcResult started = mockMvc.perform(request)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(started));
+	}
+}
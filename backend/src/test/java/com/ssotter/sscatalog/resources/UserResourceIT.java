@@ -0,0 +1,174 @@
+package com.ssotter.sscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.RoleDTO;
+import com.ssotter.sscatalog.dto.UserDTO;
+import com.ssotter.sscatalog.entities.User;
+import com.ssotter.sscatalog.repositories.UserRepository;
+import com.ssotter.sscatalog.tests.SqlRecorder;
+import com.ssotter.sscatalog.tests.SqlRecorder.Statements;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlRecorder.class)
+@Transactional
+@WithMockUser(roles = "ADMIN")
+public class UserResourceIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private SqlRecorder sqlRecorder;
+	
+	@Autowired
+	private EntityManager entityManager;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	private Long existingId;
+	private Long dependentId;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		existingId = 1L;
+		dependentId = 2L;
+	}
+	
+	@Test
+	public void findAllShouldReturnOnlyRequestedFieldsWhenFields() throws Exception {
+		
+		mockMvc.perform(get("/users?page=0&size=10&sort=id&fields=email,roles")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(2))
+				.andExpect(jsonPath("$.content[0].email").value("alex@gmail.com"))
+				.andExpect(jsonPath("$.content[1].roles.length()").value(2))
+				.andExpect(jsonPath("$.content[0].firstName").doesNotExist());
+	}
+	
+	@Test
+	public void findAllShouldStayWithinStatementBudget() throws Exception {
+		
+		Statements sql = statements(get("/users?page=0&size=10"), status().isOk());
+		
+		Assertions.assertTrue(sql.count() <= 2, sql.toString());
+	}
+	
+	@Test
+	public void findByIdShouldStayWithinStatementBudget() throws Exception {
+		
+		Statements sql = statements(get("/users/{id}", existingId), status().isOk());
+		
+		Assertions.assertTrue(sql.count() <= 2, sql.toString());
+	}
+	
+	@Test
+	public void insertShouldNotSelectRoles() throws Exception {
+		
+		String jsonBody = "{\"firstName\":\"Bob\",\"lastName\":\"Brown\",\"email\":\"bob@gmail.com\","
+				+ "\"password\":\"123456\",\"roles\":[{\"id\":1}]}";
+		
+		Statements sql = statements(post("/users").content(jsonBody).contentType(MediaType.APPLICATION_JSON),
+				status().isCreated());
+		
+		Assertions.assertEquals(0, sql.count("select", "tb_role"), sql.toString());
+		Assertions.assertTrue(sql.count() <= 3, sql.toString());
+	}
+	
+	@Test
+	public void insertShouldSkipEmailLookupWhenFilterRulesEmailOut() throws Exception {
+		
+		String jsonBody = "{\"firstName\":\"Bob\",\"lastName\":\"Brown\",\"email\":\"bob@gmail.com\","
+				+ "\"password\":\"123456\",\"roles\":[{\"id\":1}]}";
+		
+		Statements sql = statements(post("/users").content(jsonBody).contentType(MediaType.APPLICATION_JSON),
+				status().isCreated());
+		
+		Assertions.assertEquals(0, sql.count("select", "tb_user"), sql.toString());
+	}
+	
+	@Test
+	public void insertShouldLookUpEmailWhenFilterMayContainIt() throws Exception {
+		
+		String jsonBody = "{\"firstName\":\"Alex\",\"lastName\":\"Brown\",\"email\":\"alex@gmail.com\","
+				+ "\"password\":\"123456\",\"roles\":[{\"id\":1}]}";
+		
+		Statements sql = statements(post("/users").content(jsonBody).contentType(MediaType.APPLICATION_JSON),
+				status().isUnprocessableEntity());
+		
+		Assertions.assertEquals(1, sql.count("select", "tb_user"), sql.toString());
+	}
+	
+	@Test
+	public void updateShouldNotSelectRoles() throws Exception {
+		
+		UserDTO dto = new UserDTO(null, "Alex", "Green", "alex@gmail.com");
+		dto.getRoles().add(new RoleDTO(2L, null));
+		String jsonBody = objectMapper.writeValueAsString(dto);
+		
+		Statements sql = statements(put("/users/{id}", existingId).content(jsonBody)
+				.contentType(MediaType.APPLICATION_JSON), status().isOk());
+		
+		Assertions.assertEquals(0, sql.count("select", "tb_role"), sql.toString());
+		Assertions.assertTrue(sql.count() <= 4, sql.toString());
+	}
+	
+	@Test
+	public void insertShouldReturnUnprocessableEntityWhenEmailIsTakenAfterValidation() throws Exception {
+		
+		// saved behind the email filter's back, as a concurrent signup would be before its commit
+		userRepository.saveAndFlush(new User(null, "Bob", "Green", "bob@gmail.com", "secret"));
+		String jsonBody = "{\"firstName\":\"Bob\",\"lastName\":\"Brown\",\"email\":\"bob@gmail.com\","
+				+ "\"password\":\"123456\",\"roles\":[{\"id\":1}]}";
+		
+		mockMvc.perform(post("/users").content(jsonBody).contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isUnprocessableEntity())
+				.andExpect(jsonPath("$.errors[0].fieldName").value("email"))
+				.andExpect(jsonPath("$.errors[0].message").value("Email já existe"));
+	}
+	
+	@Test
+	public void deleteShouldStayWithinStatementBudget() throws Exception {
+		
+		Statements sql = statements(delete("/users/{id}", dependentId), status().isNoContent());
+		
+		Assertions.assertTrue(sql.count() <= 3, sql.toString());
+	}
+	
+	private Statements statements(RequestBuilder request, ResultMatcher expected) throws Exception {
+		entityManager.flush();
+		entityManager.clear();
+		return sqlRecorder.record(() -> {
+			mockMvc.perform(request).andExpect(expected);
+			entityManager.flush();
+		});
+	}
+}
@@ -0,0 +1,51 @@
+package com.ssotter.sscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.ssotter.sscatalog.dto.LoginDTO;
+import com.ssotter.sscatalog.repositories.UserRepository;
+import com.ssotter.sscatalog.services.cache.RoleRegistry;
+import com.ssotter.sscatalog.services.exceptions.AuthenticationFailedException;
+import com.ssotter.sscatalog.services.security.LoginCache;
+import com.ssotter.sscatalog.services.security.PasswordHasher;
+import com.ssotter.sscatalog.services.security.TokenService;
+
+@ExtendWith(SpringExtension.class)
+public class AuthServiceTests {
+	
+	@InjectMocks
+	private AuthService service;
+	
+	@Mock
+	private UserRepository repository;
+	
+	@Mock
+	private RoleRegistry roleRegistry;
+	
+	@Mock
+	private PasswordHasher passwordHasher;
+	
+	@Mock
+	private LoginCache loginCache;
+	
+	@Mock
+	private TokenService tokenService;
+	
+	@Test
+	public void loginShouldHashAgainstDummyWhenEmailIsUnknown() {
+		
+		Mockito.when(repository.findByEmail("nobody@gmail.com")).thenReturn(null);
+		Mockito.when(passwordHasher.getDummyHash()).thenReturn("$2a$10$dummy");
+		
+		Assertions.assertThrows(AuthenticationFailedException.class,
+				() -> service.login(new LoginDTO("nobody@gmail.com", "123456")));
+		
+		Mockito.verify(passwordHasher).matches("123456", "$2a$10$dummy");
+	}
+}
@@ -0,0 +1,68 @@
+package com.ssotter.sscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.repositories.CategoryRepository;
+
+@SpringBootTest
+public class CategoryServiceIT {
+
+	@Autowired
+	private CategoryService service;
+	
+	@Autowired
+	private CategoryRepository repository;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Test
+	public void findAllPagedShouldMatchRepositoryOrder() {
+		
+		for (Sort sort : new Sort[] { Sort.unsorted(), Sort.by("name"), Sort.by(Sort.Direction.DESC, "name"),
+				Sort.by(Sort.Direction.DESC, "id") }) {
+			PageRequest pageRequest = PageRequest.of(1, 2, sort);
+			
+			Page<CategoryDTO> result = service.findAllPaged(pageRequest);
+			Page<Category> expected = repository.findAll(pageRequest);
+			
+			Assertions.assertEquals(expected.getTotalElements(), result.getTotalElements());
+			Assertions.assertEquals(expected.getContent().size(), result.getContent().size());
+			for (int i = 0; i < expected.getContent().size(); i++) {
+				Assertions.assertEquals(expected.getContent().get(i).getId(), result.getContent().get(i).getId());
+			}
+		}
+	}
+	
+	@Test
+	public void findByIdShouldNotSeeUpdateWhenTransactionRollsBack() {
+		
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.executeWithoutResult(status -> {
+			service.update(1L, new CategoryDTO(1L, "Rolled back"));
+			status.setRollbackOnly();
+		});
+		
+		Assertions.assertEquals("Livros", service.findById(1L).getName());
+	}
+	
+	@Test
+	public void findByIdShouldSeeInsertWhenTransactionCommits() {
+		
+		CategoryDTO dto = service.insert(new CategoryDTO(null, "Games"));
+		
+		Assertions.assertEquals("Games", service.findById(dto.getId()).getName());
+		
+		service.delete(dto.getId());
+	}
+}
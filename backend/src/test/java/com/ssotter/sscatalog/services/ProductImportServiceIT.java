@@ -0,0 +1,116 @@
+package com.ssotter.sscatalog.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ssotter.sscatalog.dto.ImportErrorDTO;
+import com.ssotter.sscatalog.dto.ImportSummaryDTO;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.tests.SqlRecorder;
+import com.ssotter.sscatalog.tests.SqlRecorder.Statements;
+
+@SpringBootTest(properties = "sscatalog.import.chunk-size=2")
+@Import(SqlRecorder.class)
+@Transactional
+public class ProductImportServiceIT {
+
+	@Autowired
+	private ProductImportService service;
+	
+	@Autowired
+	private ProductRepository repository;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private SqlRecorder sqlRecorder;
+	
+	private long countTotalProducts = 25L;
+	
+	@Test
+	public void importProductsShouldInsertValidRecordsAndReportInvalidOnesWhenNdjson() throws Exception {
+		
+		String file = String.join("\n",
+				"{\"name\":\"Phone X1\",\"description\":\"Good phone\",\"price\":800.0,\"categories\":[{\"id\":2}]}",
+				"{\"name\":\"Phone X2\",\"description\":\"Good phone\",\"price\":900.0,\"categories\":[{\"id\":2},{\"id\":3}]}",
+				"{not json",
+				"",
+				"{\"name\":\"X\",\"description\":\"Too short\",\"price\":-1.0}",
+				"{\"name\":\"Phone X3\",\"description\":\"Good phone\",\"price\":1000.0,\"categories\":[{\"id\":1000}]}",
+				"{\"name\":\"Phone X4\",\"description\":\"Good phone\",\"price\":1100.0}");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		ImportSummaryDTO summary = service.importProducts(
+				new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)), ProductImportService.NDJSON, out);
+		
+		Assertions.assertEquals(3L, summary.getImported());
+		Assertions.assertEquals(3L, summary.getFailed());
+		Assertions.assertEquals(countTotalProducts + 3, repository.count());
+		
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		Assertions.assertEquals(4, lines.length);
+		Assertions.assertEquals(3L, objectMapper.readValue(lines[0], ImportErrorDTO.class).getLine());
+		ImportErrorDTO invalid = objectMapper.readValue(lines[1], ImportErrorDTO.class);
+		Assertions.assertEquals(5L, invalid.getLine());
+		Assertions.assertEquals(2, invalid.getErrors().size());
+		Assertions.assertEquals(6L, objectMapper.readValue(lines[2], ImportErrorDTO.class).getLine());
+		
+		Product product = findByName("Phone X2");
+		Assertions.assertEquals("Phone X2", product.getName());
+		Assertions.assertEquals(2, product.getCategories().size());
+		Assertions.assertEquals(0L, product.getVersion());
+	}
+	
+	@Test
+	public void importProductsShouldReadQuotedFieldsWhenCsv() throws Exception {
+		
+		String file = "name,price,description,categories,date\n"
+				+ "Notebook Z,1500.5,\"Fast, light\nand \"\"thin\"\"\",1;3,2020-07-14T10:00:00Z\n"
+				+ "Notebook Y,abc,Slow,,\n";
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		
+		ImportSummaryDTO summary = service.importProducts(
+				new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)), ProductImportService.CSV, out);
+		
+		Assertions.assertEquals(1L, summary.getImported());
+		Assertions.assertEquals(1L, summary.getFailed());
+		
+		Product product = findByName("Notebook Z");
+		Assertions.assertEquals("Fast, light\nand \"thin\"", product.getDescription());
+		Assertions.assertEquals(2, product.getCategories().size());
+		
+		String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+		Assertions.assertEquals(4L, objectMapper.readValue(lines[0], ImportErrorDTO.class).getLine());
+	}
+	
+	@Test
+	public void importProductsShouldRunThreeStatementsPerChunk() throws Exception {
+		
+		String record = "{\"name\":\"Phone X\",\"description\":\"Good phone\",\"price\":800.0,\"categories\":[{\"id\":2},{\"id\":3}]}";
+		String file = String.join("\n", record, record, record, record);
+		
+		// categories, product batch and join row batch for each of the two chunks
+		Statements sql = sqlRecorder.record(() -> service.importProducts(
+				new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)), ProductImportService.NDJSON,
+				new ByteArrayOutputStream()));
+		
+		Assertions.assertEquals(6, sql.count(), sql.toString());
+		Assertions.assertEquals(2, sql.count("select", "tb_category"), sql.toString());
+	}
+	
+	private Product findByName(String name) {
+		Long id = repository.findAll().stream().filter(p -> p.getName().equals(name)).findFirst().get().getId();
+		return repository.findWithCategoriesById(id).get();
+	}
+}
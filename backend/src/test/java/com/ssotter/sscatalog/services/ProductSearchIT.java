@@ -0,0 +1,75 @@
+package com.ssotter.sscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.services.search.ProductIndex;
+import com.ssotter.sscatalog.tests.Factory;
+
+/**
+ * Not transactional: the index only sees writes once they commit, so every
+ * product created here is deleted again before the test ends.
+ */
+@SpringBootTest
+public class ProductSearchIT {
+
+	@Autowired
+	private ProductService service;
+	
+	@Autowired
+	private ProductIndex productIndex;
+	
+	private long countPcGamer;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		countPcGamer = 21L;
+		productIndex.rebuild().get();
+	}
+	
+	@Test
+	public void searchShouldReturnProductsRankedByRelevance() {
+		
+		Page<ProductDTO> result = service.search("PC Gamer", PageRequest.of(1, 5));
+		
+		Assertions.assertEquals(countPcGamer, result.getTotalElements());
+		Assertions.assertEquals(5, result.getContent().size());
+		Assertions.assertTrue(result.getContent().stream().allMatch(x -> x.getName().startsWith("PC Gamer")));
+	}
+	
+	@Test
+	public void searchShouldFoldAccentsAndFollowWritesAfterCommit() {
+		
+		ProductDTO dto = Factory.createProductDTO();
+		dto.setName("Kit Eletrônicos Básicos");
+		Long id = service.insert(dto).getId();
+		try {
+			Page<ProductDTO> inserted = service.search("eletronicos basico", PageRequest.of(0, 10));
+			Assertions.assertEquals(1L, inserted.getTotalElements());
+			Assertions.assertEquals(id, inserted.getContent().get(0).getId());
+			
+			dto.setName("Kit Ferramentas");
+			service.update(id, dto);
+			Assertions.assertEquals(0L, service.search("eletronicos", PageRequest.of(0, 10)).getTotalElements());
+			Assertions.assertEquals(1L, service.search("ferramenta", PageRequest.of(0, 10)).getTotalElements());
+		}
+		finally {
+			service.delete(id);
+		}
+		Assertions.assertEquals(0L, service.search("ferramenta", PageRequest.of(0, 10)).getTotalElements());
+	}
+	
+	@Test
+	public void rebuildShouldKeepTheWholeCatalogSearchable() throws Exception {
+		
+		productIndex.rebuild().get();
+		
+		Assertions.assertEquals(countPcGamer, service.search("gamer", PageRequest.of(0, 5)).getTotalElements());
+	}
+}
@@ -1,20 +1,36 @@
 package com.ssotter.sscatalog.services;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.dto.KeysetPageDTO;
 import com.ssotter.sscatalog.dto.ProductDTO;
+import com.ssotter.sscatalog.entities.Product;
 import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.tests.SqlRecorder;
+import com.ssotter.sscatalog.tests.SqlRecorder.Statements;
 
 @SpringBootTest
+@Import(SqlRecorder.class)
 @Transactional
 public class ProductServiceIT {
 
@@ -24,6 +40,12 @@ public class ProductServiceIT {
 	@Autowired
 	private ProductRepository repository;
 	
+	@Autowired
+	private CategoryService categoryService;
+	
+	@Autowired
+	private SqlRecorder sqlRecorder;
+	
 	private Long existingId;
 	private Long notExistsId;
 	private Long countTotalProducts;
@@ -88,4 +110,135 @@ public class ProductServiceIT {
 		Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
 	}
 	
+	@Test
+	public void findAllKeysetShouldWalkSameOrderAsOffsetWhenSortByPriceDesc() {
+		
+		Sort sort = Sort.by(Sort.Direction.DESC, "price");
+		Page<ProductDTO> all = service.findAllPaged(PageRequest.of(0, 100, sort.and(Sort.by(Sort.Direction.DESC, "id"))));
+		
+		List<Long> walked = new ArrayList<>();
+		String cursor = "";
+		do {
+			KeysetPageDTO<ProductDTO> result = service.findAllKeyset(cursor, PageRequest.of(0, 10, sort));
+			result.getContent().forEach(x -> walked.add(x.getId()));
+			cursor = result.getNext();
+		} while (cursor != null);
+		
+		List<Long> expected = new ArrayList<>();
+		all.forEach(x -> expected.add(x.getId()));
+		Assertions.assertEquals(expected, walked);
+	}
+	
+	@Test
+	public void findAllKeysetShouldReturnPreviousPageWhenPreviousCursor() {
+		
+		PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
+		
+		KeysetPageDTO<ProductDTO> first = service.findAllKeyset("", pageRequest);
+		KeysetPageDTO<ProductDTO> second = service.findAllKeyset(first.getNext(), pageRequest);
+		KeysetPageDTO<ProductDTO> back = service.findAllKeyset(second.getPrevious(), pageRequest);
+		
+		Assertions.assertNull(first.getPrevious());
+		Assertions.assertEquals("Macbook Pro", first.getContent().get(0).getName());
+		Assertions.assertEquals(first.getContent().get(0).getId(), back.getContent().get(0).getId());
+		Assertions.assertEquals(10, back.getContent().size());
+		Assertions.assertNull(back.getPrevious());
+	}
+	
+	@Test
+	public void findAllKeysetShouldPageAcrossNullKeysInBothDirections() {
+		
+		for (Long id : List.of(3L, 7L, 8L)) {
+			repository.findById(id).get().setPrice(null);
+		}
+		repository.flush();
+		List<Long> ascending = repository.findAll().stream()
+				.sorted(Comparator.comparing(Product::getPrice, Comparator.nullsLast(Comparator.naturalOrder()))
+						.thenComparing(Product::getId))
+				.map(Product::getId)
+				.collect(Collectors.toList());
+		
+		for (Sort.Direction direction : Sort.Direction.values()) {
+			List<Long> expected = new ArrayList<>(ascending);
+			if (direction.isDescending()) {
+				Collections.reverse(expected);
+			}
+			PageRequest pageRequest = PageRequest.of(0, 4, Sort.by(direction, "price"));
+			
+			List<Long> walked = new ArrayList<>();
+			KeysetPageDTO<ProductDTO> page = service.findAllKeyset("", pageRequest);
+			page.getContent().forEach(x -> walked.add(x.getId()));
+			while (page.getNext() != null) {
+				page = service.findAllKeyset(page.getNext(), pageRequest);
+				page.getContent().forEach(x -> walked.add(x.getId()));
+			}
+			Assertions.assertEquals(expected, walked, direction.name());
+			
+			List<Long> back = new ArrayList<>();
+			while (page.getPrevious() != null) {
+				page = service.findAllKeyset(page.getPrevious(), pageRequest);
+				List<Long> ids = page.getContent().stream().map(ProductDTO::getId).collect(Collectors.toList());
+				back.addAll(0, ids);
+			}
+			Assertions.assertEquals(expected.subList(0, back.size()), back, direction.name());
+			Assertions.assertEquals(expected.size() - expected.size() % 4, back.size(), direction.name());
+		}
+	}
+	
+	@Test
+	public void findAllKeysetShouldThrowInvalidParameterExceptionWhenCursorIsInvalid() {
+		
+		Assertions.assertThrows(InvalidParameterException.class, () -> {
+			service.findAllKeyset("not-a-cursor", PageRequest.of(0, 10));
+		});
+	}
+	
+	@Test
+	public void findAllPagedShouldSkipCountQueryWhenCountModeNone() throws Exception {
+		
+		List<Slice<ProductDTO>> result = new ArrayList<>();
+		Statements sql = sqlRecorder.record(() -> result.add(service.findAllPaged(PageRequest.of(0, 10), CountMode.NONE)));
+		
+		Assertions.assertEquals(10, result.get(0).getNumberOfElements());
+		Assertions.assertTrue(result.get(0).hasNext());
+		Assertions.assertFalse(result.get(0) instanceof Page);
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void findAllPagedShouldReuseCachedTotalWhenCountModeEstimate() throws Exception {
+		
+		service.findAllPaged(PageRequest.of(0, 10), CountMode.ESTIMATE);
+		
+		List<Slice<ProductDTO>> result = new ArrayList<>();
+		Statements sql = sqlRecorder.record(() -> result.add(service.findAllPaged(PageRequest.of(1, 10), CountMode.ESTIMATE)));
+		
+		Assertions.assertEquals(countTotalProducts, ((Page<ProductDTO>) result.get(0)).getTotalElements());
+		Assertions.assertEquals(1, sql.count(), sql.toString());
+	}
+	
+	@Test
+	public void findAllPagedShouldRunSameStatementsForAnyPageSizeWhenExpandCategories() throws Exception {
+		
+		List<Slice<ProductDTO>> result = new ArrayList<>();
+		Statements small = sqlRecorder.record(() -> result.add(service.findAllPaged(PageRequest.of(0, 5), CountMode.NONE, true)));
+		Statements large = sqlRecorder.record(() -> result.add(service.findAllPaged(PageRequest.of(0, 20), CountMode.NONE, true)));
+		
+		Assertions.assertEquals(2, small.count(), small.toString());
+		Assertions.assertEquals(small.count(), large.count(), large.toString());
+		Assertions.assertFalse(result.get(0).getContent().get(0).getCategories().isEmpty());
+		Assertions.assertFalse(result.get(1).getContent().get(19).getCategories().isEmpty());
+	}
+	
+	@Test
+	public void findByIdShouldReturnRenamedCategoryWhenCategoryUpdated() {
+		
+		ProductDTO before = service.findById(existingId);
+		Long categoryId = before.getCategories().get(0).getId();
+		
+		categoryService.update(categoryId, new CategoryDTO(categoryId, "Renamed"));
+		ProductDTO after = service.findById(existingId);
+		
+		Assertions.assertEquals("Renamed", after.getCategories().get(0).getName());
+	}
 }
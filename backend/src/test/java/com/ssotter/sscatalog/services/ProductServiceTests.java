@@ -14,12 +14,15 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.ssotter.sscatalog.dto.ProductDTO;
@@ -27,8 +30,16 @@ import com.ssotter.sscatalog.entities.Category;
 import com.ssotter.sscatalog.entities.Product;
 import com.ssotter.sscatalog.repositories.CategoryRepository;
 import com.ssotter.sscatalog.repositories.ProductRepository;
+import com.ssotter.sscatalog.services.cache.CategorySnapshot;
+import com.ssotter.sscatalog.services.cache.ProductCache;
+import com.ssotter.sscatalog.services.columnar.ProductColumns;
 import com.ssotter.sscatalog.services.exceptions.DatabaseException;
 import com.ssotter.sscatalog.services.exceptions.ResourceNotFoundException;
+import com.ssotter.sscatalog.services.filter.CategoryBitmaps;
+import com.ssotter.sscatalog.services.pagination.CountCache;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.services.search.NameSuggester;
+import com.ssotter.sscatalog.services.search.ProductIndex;
 import com.ssotter.sscatalog.tests.Factory;
 
 @ExtendWith(SpringExtension.class)
@@ -43,6 +54,27 @@ public class ProductServiceTests {
 	@Mock
 	private CategoryRepository categoryRepository;
 	
+	@Mock
+	private CountCache countCache;
+	
+	@Spy
+	private ProductCache productCache = new ProductCache(100);
+	
+	@Mock
+	private CategorySnapshot categorySnapshot;
+	
+	@Mock
+	private ProductIndex productIndex;
+	
+	@Mock
+	private NameSuggester nameSuggester;
+	
+	@Mock
+	private CategoryBitmaps categoryBitmaps;
+	
+	@Mock
+	private ProductColumns productColumns;
+	
 	private long existingId;
 	private long notExistsId;
 	private long dependentId;
@@ -60,15 +92,19 @@ public class ProductServiceTests {
 		page = new PageImpl<>(List.of(product));
 		
 		Mockito.when(repository.findAll((Pageable)ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(repository.findSliceBy(ArgumentMatchers.any())).thenReturn(new SliceImpl<>(List.of(product)));
 		Mockito.when(repository.save(ArgumentMatchers.any())).thenReturn(product);
 		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(product));
 		Mockito.when(repository.findById(notExistsId)).thenReturn(Optional.empty());
+		Mockito.when(repository.findWithCategoriesById(existingId)).thenReturn(Optional.of(product));
+		Mockito.when(repository.findWithCategoriesById(notExistsId)).thenReturn(Optional.empty());
 		
 		Mockito.when(repository.getOne(existingId)).thenReturn(product);
 		Mockito.when(repository.getOne(notExistsId)).thenThrow(EntityNotFoundException.class);
 		
 		Mockito.when(categoryRepository.getOne(existingId)).thenReturn(category);
 		Mockito.when(categoryRepository.getOne(notExistsId)).thenThrow(EntityNotFoundException.class);
+		Mockito.when(categoryRepository.findAllById(ArgumentMatchers.any())).thenReturn(List.of(category));
 		
 		Mockito.doNothing().when(repository).deleteById(existingId);
 		Mockito.doThrow(EmptyResultDataAccessException.class).when(repository).deleteById(notExistsId);
@@ -115,6 +151,27 @@ public class ProductServiceTests {
 		
 	}
 	
+	@Test
+	public void findByIdShouldHitCacheWhenCalledTwice() {
+		
+		service.findById(existingId);
+		ProductDTO result = service.findById(existingId);
+		
+		Assertions.assertNotNull(result);
+		Mockito.verify(repository, Mockito.times(1)).findWithCategoriesById(existingId);
+		Assertions.assertEquals(1, productCache.stats().getHitCount());
+	}
+	
+	@Test
+	public void findByIdShouldLoadAgainWhenUpdated() {
+		
+		service.findById(existingId);
+		service.update(existingId, Factory.createProductDTO());
+		service.findById(existingId);
+		
+		Mockito.verify(repository, Mockito.times(2)).findWithCategoriesById(existingId);
+	}
+	
 	@Test
 	public void findAllPagedShouldReturnPage() {
 		
@@ -127,6 +184,19 @@ public class ProductServiceTests {
 		
 	}
 	
+	@Test
+	public void findAllPagedShouldNotCountWhenCountModeNone() {
+		
+		Pageable pageable = PageRequest.of(0, 10);
+		
+		Slice<ProductDTO> result = service.findAllPaged(pageable, CountMode.NONE);
+		
+		Assertions.assertNotNull(result);
+		Mockito.verify(repository, Mockito.times(1)).findSliceBy(pageable);
+		Mockito.verify(repository, Mockito.never()).findAll(pageable);
+		Mockito.verify(repository, Mockito.never()).count();
+	}
+	
 	@Test
 	public void deleteShouldThrowDatabaseExceptionWhenDependentId() {
 
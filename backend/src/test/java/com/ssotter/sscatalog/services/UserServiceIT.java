@@ -0,0 +1,61 @@
+package com.ssotter.sscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ssotter.sscatalog.dto.UserDTO;
+import com.ssotter.sscatalog.entities.User;
+import com.ssotter.sscatalog.repositories.UserRepository;
+import com.ssotter.sscatalog.services.pagination.CountMode;
+import com.ssotter.sscatalog.tests.SqlRecorder;
+import com.ssotter.sscatalog.tests.SqlRecorder.Statements;
+
+@SpringBootTest
+@Import(SqlRecorder.class)
+@Transactional
+public class UserServiceIT {
+
+	@Autowired
+	private UserService service;
+	
+	@Autowired
+	private UserRepository repository;
+	
+	@Autowired
+	private SqlRecorder sqlRecorder;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		for (int i = 0; i < 40; i++) {
+			repository.save(new User(null, "User" + i, "Test", "user" + i + "@gmail.com", "secret"));
+		}
+		repository.flush();
+	}
+	
+	@Test
+	public void findAllPagedShouldRunSameStatementsForAnyPageSize() throws Exception {
+		
+		Statements small = sqlRecorder.record(() -> service.findAllPaged(PageRequest.of(0, 5), CountMode.NONE));
+		Statements large = sqlRecorder.record(() -> service.findAllPaged(PageRequest.of(0, 40), CountMode.NONE));
+		
+		Assertions.assertEquals(2, small.count(), small.toString());
+		Assertions.assertEquals(small.count(), large.count(), large.toString());
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnRolesOfEachUser() {
+		
+		Slice<UserDTO> result = service.findAllPaged(PageRequest.of(0, 2, Sort.by("id")), CountMode.NONE);
+		
+		Assertions.assertEquals(1, result.getContent().get(0).getRoles().size());
+		Assertions.assertEquals(2, result.getContent().get(1).getRoles().size());
+	}
+}
@@ -0,0 +1,89 @@
+package com.ssotter.sscatalog.services.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssotter.sscatalog.dto.CategoryDTO;
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.repositories.CategoryRepository;
+
+public class CategorySnapshotTests {
+	
+	private CategorySnapshot snapshot;
+	private CategoryRepository repository;
+	private List<Category> table;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		repository = Mockito.mock(CategoryRepository.class);
+		table = new ArrayList<>(List.of(new Category(1L, "Livros")));
+		snapshot = new CategorySnapshot();
+		ReflectionTestUtils.setField(snapshot, "repository", repository);
+		ReflectionTestUtils.setField(snapshot, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+	}
+	
+	@Test
+	public void findAllShouldSortNullNamesLastAscendingAndFirstDescending() {
+		
+		ReflectionTestUtils.setField(snapshot, "sortNamesInMemory", true);
+		table.add(new Category(2L, null));
+		table.add(new Category(3L, "Computadores"));
+		Mockito.when(repository.findAll()).thenAnswer(invocation -> new ArrayList<>(table));
+		
+		Assertions.assertEquals(List.of(3L, 1L, 2L), ids(snapshot.findAll(PageRequest.of(0, 10, Sort.by("name")))));
+		Assertions.assertEquals(List.of(2L, 1L, 3L),
+				ids(snapshot.findAll(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "name")))));
+	}
+	
+	@Test
+	public void findAllShouldLeaveNameSortsToDatabaseUnlessCollationMatches() {
+		
+		Mockito.when(repository.findAll()).thenAnswer(invocation -> new ArrayList<>(table));
+		
+		Assertions.assertTrue(snapshot.findAll(PageRequest.of(0, 10, Sort.by("name"))).isEmpty());
+		Assertions.assertTrue(snapshot.findAll(PageRequest.of(0, 10, Sort.by("id"))).isPresent());
+	}
+	
+	@Test
+	public void refreshShouldNotWaitForRebuildInProgressAndRebuildAgainAfterIt() throws Exception {
+		
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(repository.findAll()).thenAnswer(invocation -> {
+			List<Category> rows = new ArrayList<>(table);
+			loading.countDown();
+			release.await();
+			return rows;
+		}).thenAnswer(invocation -> new ArrayList<>(table));
+		CompletableFuture<Void> first = CompletableFuture.runAsync(snapshot::refresh);
+		Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+		
+		// a committing writer still holds its connection; it must not queue behind a rebuild that needs one
+		table.add(new Category(2L, "Eletrônicos"));
+		CompletableFuture.runAsync(snapshot::refresh).get(5, TimeUnit.SECONDS);
+		release.countDown();
+		first.get(5, TimeUnit.SECONDS);
+		
+		Mockito.verify(repository, Mockito.times(2)).findAll();
+		Assertions.assertTrue(snapshot.findById(2L).isPresent());
+	}
+	
+	private static List<Long> ids(Optional<Page<CategoryDTO>> page) {
+		return page.get().getContent().stream().map(CategoryDTO::getId).collect(Collectors.toList());
+	}
+}
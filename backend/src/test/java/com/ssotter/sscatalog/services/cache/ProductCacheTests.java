@@ -0,0 +1,69 @@
+package com.ssotter.sscatalog.services.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.ssotter.sscatalog.dto.ProductDTO;
+
+public class ProductCacheTests {
+	
+	private ProductCache cache;
+	private Long existingId;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		cache = new ProductCache(100);
+		existingId = 1L;
+	}
+	
+	@Test
+	public void evictShouldNotWaitForLoadInProgress() throws Exception {
+		
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<ProductDTO> load = CompletableFuture.supplyAsync(() -> cache.get(existingId, id -> {
+			loading.countDown();
+			await(release);
+			return entry(id, 0L);
+		}));
+		Assertions.assertTrue(loading.await(5, TimeUnit.SECONDS));
+		
+		// a writer evicting while it holds a connection must not queue behind a loader waiting for one
+		CompletableFuture.runAsync(() -> cache.evict(existingId)).get(5, TimeUnit.SECONDS);
+		release.countDown();
+		load.get(5, TimeUnit.SECONDS);
+		
+		Assertions.assertNull(cache.getIfPresent(existingId));
+	}
+	
+	@Test
+	public void getShouldCacheLoadWhenNoEvictionOverlaps() {
+		
+		cache.get(existingId, id -> entry(id, 0L));
+		cache.get(existingId, id -> {
+			throw new AssertionError("loaded twice");
+		});
+		
+		Assertions.assertEquals(0L, cache.getIfPresent(existingId).getVersion());
+	}
+	
+	private static ProductCache.Entry entry(Long id, Long version) {
+		ProductDTO dto = new ProductDTO();
+		dto.setId(id);
+		return new ProductCache.Entry(dto, version, null);
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
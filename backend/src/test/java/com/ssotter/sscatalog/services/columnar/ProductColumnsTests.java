@@ -0,0 +1,142 @@
+package com.ssotter.sscatalog.services.columnar;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.ssotter.sscatalog.entities.Category;
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+public class ProductColumnsTests {
+	
+	private static final double[] BOUNDS = { 100.0, 1000.0 };
+	
+	private ProductColumns columns;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		columns = new ProductColumns();
+		columns.put(1L, 50.0, null, List.of(10L));
+		columns.put(2L, 100.0, null, List.of(10L, 20L));
+		columns.put(3L, 2500.0, null, List.of(20L));
+		columns.put(4L, null, null, List.of(30L));
+	}
+	
+	@Test
+	public void facetsShouldCountCategoriesAndPriceBucketsOfEveryProduct() {
+		
+		ProductColumns.Facets facets = columns.facets(null, BOUNDS);
+		
+		Assertions.assertEquals(4L, facets.getTotal());
+		Assertions.assertArrayEquals(new long[] { 10L, 20L, 30L }, facets.getCategoryIds());
+		Assertions.assertArrayEquals(new long[] { 2L, 2L, 1L }, facets.getCategoryCounts());
+		Assertions.assertArrayEquals(new long[] { 1L, 1L, 1L }, facets.getPriceCounts());
+	}
+	
+	@Test
+	public void facetsShouldCountOnlyFilteredProductsThatExist() {
+		
+		ProductColumns.Facets facets = columns.facets(RoaringBitmap.bitmapOf(2, 3, 99), BOUNDS);
+		
+		Assertions.assertEquals(2L, facets.getTotal());
+		Assertions.assertArrayEquals(new long[] { 1L, 2L, 0L }, facets.getCategoryCounts());
+		Assertions.assertArrayEquals(new long[] { 0L, 1L, 1L }, facets.getPriceCounts());
+	}
+	
+	@Test
+	public void putShouldReplaceProductAndRemoveShouldDropIt() {
+		
+		columns.put(1L, 5000.0, null, List.of(20L));
+		columns.remove(3L);
+		
+		ProductColumns.Facets facets = columns.facets(null, BOUNDS);
+		
+		Assertions.assertEquals(3L, facets.getTotal());
+		Assertions.assertArrayEquals(new long[] { 1L, 2L, 1L }, facets.getCategoryCounts());
+		Assertions.assertArrayEquals(new long[] { 0L, 1L, 1L }, facets.getPriceCounts());
+	}
+	
+	@Test
+	public void putAllAfterCommitShouldStoreEveryProductOfTheBatch() {
+		
+		Product moved = new Product(1L, "Notebook", null, 5000.0, null, null);
+		moved.getCategories().add(new Category(20L, "Eletrônicos"));
+		Product added = new Product(5L, "Mouse", null, 100.0, null, null);
+		added.getCategories().add(new Category(30L, "Computadores"));
+		columns.putAllAfterCommit(List.of(moved, added));
+		
+		ProductColumns.Facets facets = columns.facets(null, BOUNDS);
+		
+		Assertions.assertEquals(5L, facets.getTotal());
+		Assertions.assertArrayEquals(new long[] { 1L, 3L, 2L }, facets.getCategoryCounts());
+		Assertions.assertArrayEquals(new long[] { 0L, 2L, 2L }, facets.getPriceCounts());
+	}
+	
+	@Test
+	public void pageIdsShouldOrderByPriceWithMissingPricesLowestAndTiesById() {
+		
+		columns.put(5L, 100.0, null, List.of(10L));
+		RoaringBitmap ids = RoaringBitmap.bitmapOf(1, 2, 3, 4, 5, 99);
+		
+		Assertions.assertEquals(List.of(4L, 1L, 2L, 5L, 3L), columns.pageIds(ids, "price", false, 0, 10));
+		Assertions.assertEquals(List.of(2L, 5L, 1L), columns.pageIds(ids, "price", true, 1, 3));
+		Assertions.assertEquals(List.of(4L), columns.pageIds(ids, "price", true, 4, 3));
+		Assertions.assertTrue(columns.pageIds(ids, "price", false, 5, 3).isEmpty());
+	}
+	
+	@Test
+	public void pageIdsShouldOrderByDateAndRejectOtherProperties() {
+		
+		columns.put(1L, 50.0, Instant.parse("2021-03-01T10:00:00Z"), List.of(10L));
+		columns.put(2L, 100.0, Instant.parse("2021-01-01T10:00:00Z"), List.of(10L, 20L));
+		
+		Assertions.assertEquals(List.of(1L, 2L, 3L), columns.pageIds(RoaringBitmap.bitmapOf(1, 2, 3), "date", true, 0, 3));
+		Assertions.assertThrows(InvalidParameterException.class,
+				() -> columns.pageIds(RoaringBitmap.bitmapOf(1), "name", false, 0, 3));
+	}
+	
+	@Test
+	public void putShouldKeepCountsWhenCategoriesOutgrowOneWord() {
+		
+		for (long category = 100; category < 170; category++) {
+			columns.put(category, 10.0, null, List.of(category, 10L));
+		}
+		
+		ProductColumns.Facets facets = columns.facets(null, BOUNDS);
+		
+		Assertions.assertEquals(73, facets.getCategoryIds().length);
+		Assertions.assertEquals(72L, facets.getCategoryCounts()[0]);
+		Assertions.assertEquals(1L, facets.getCategoryCounts()[72]);
+		Assertions.assertEquals(1L, facets.getCategoryCounts()[2]);
+		Assertions.assertEquals(1L, facets.getCategoryCounts()[3]);
+	}
+	
+	@Test
+	public void statsShouldAggregatePricesPerCategoryAndCountProductsPerPeriod() {
+		
+		columns.put(1L, 50.0, Instant.parse("2021-01-31T23:00:00Z"), List.of(10L));
+		columns.put(2L, 100.0, Instant.parse("2021-03-01T10:00:00Z"), List.of(10L, 20L));
+		columns.put(3L, 2500.0, Instant.parse("2021-03-15T10:00:00Z"), List.of(20L));
+		columns.remove(4L);
+		
+		ProductColumns.Stats stats = columns.stats(ProductColumns.Period.MONTH);
+		
+		Assertions.assertEquals(3L, stats.getTotal());
+		Assertions.assertEquals(2L, stats.getCount(1));
+		Assertions.assertEquals(100.0, stats.getMin(1));
+		Assertions.assertEquals(2500.0, stats.getMax(1));
+		Assertions.assertEquals(1300.0, stats.getAverage(1));
+		Assertions.assertArrayEquals(new double[] { 100.0, 2500.0, 2500.0 }, stats.getPercentiles(1));
+		Assertions.assertEquals(0L, stats.getCount(2));
+		Assertions.assertTrue(Double.isNaN(stats.getMin(2)));
+		Assertions.assertEquals(3, stats.getPeriodCount());
+		Assertions.assertEquals(Instant.parse("2021-01-01T00:00:00Z"), stats.getPeriodStart(0));
+		Assertions.assertEquals(0L, stats.getProductsInPeriod(1));
+		Assertions.assertEquals(2L, stats.getProductsInPeriod(2));
+	}
+}
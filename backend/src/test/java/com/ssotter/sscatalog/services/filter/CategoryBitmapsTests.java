@@ -0,0 +1,85 @@
+package com.ssotter.sscatalog.services.filter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.ssotter.sscatalog.services.exceptions.InvalidParameterException;
+
+public class CategoryBitmapsTests {
+	
+	private CategoryBitmaps bitmaps;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		bitmaps = new CategoryBitmaps();
+		bitmaps.put(1L, Set.of(1L, 2L));
+		bitmaps.put(2L, Set.of(2L));
+		bitmaps.put(3L, Set.of(1L, 3L));
+	}
+	
+	@Test
+	public void matchShouldIntersectWhenAllAndUniteWhenAny() {
+		
+		Assertions.assertEquals(List.of(1, 2), ids(bitmaps.match(CategoryFilter.parse("2", "all"))));
+		Assertions.assertEquals(List.of(1), ids(bitmaps.match(CategoryFilter.parse("1,2", "all"))));
+		Assertions.assertEquals(List.of(1, 2, 3), ids(bitmaps.match(CategoryFilter.parse("2,3", "any"))));
+		Assertions.assertEquals(List.of(), ids(bitmaps.match(CategoryFilter.parse("1,99", "all"))));
+	}
+	
+	@Test
+	public void putShouldMoveProductBetweenCategoriesWithoutChangingPublishedBitmaps() {
+		
+		RoaringBitmap before = bitmaps.match(CategoryFilter.parse("1", "any"));
+		
+		bitmaps.put(1L, Set.of(3L));
+		bitmaps.put(2L, List.of());
+		
+		Assertions.assertEquals(List.of(1, 3), ids(before));
+		Assertions.assertEquals(List.of(3), ids(bitmaps.match(CategoryFilter.parse("1,2", "any"))));
+		Assertions.assertEquals(List.of(1, 3), ids(bitmaps.match(CategoryFilter.parse("3", "any"))));
+	}
+	
+	@Test
+	public void putAllShouldSetCategoriesOfEveryProductWithoutChangingPublishedBitmaps() {
+		
+		RoaringBitmap before = bitmaps.match(CategoryFilter.parse("2", "any"));
+		
+		bitmaps.putAll(Map.of(1L, Set.of(3L), 2L, List.of(), 4L, Set.of(2L, 4L)));
+		
+		Assertions.assertEquals(List.of(1, 2), ids(before));
+		Assertions.assertEquals(List.of(4), ids(bitmaps.match(CategoryFilter.parse("2", "any"))));
+		Assertions.assertEquals(List.of(1, 3), ids(bitmaps.match(CategoryFilter.parse("3", "any"))));
+		Assertions.assertEquals(List.of(4), ids(bitmaps.match(CategoryFilter.parse("4", "any"))));
+		Assertions.assertEquals(List.of(3), ids(bitmaps.match(CategoryFilter.parse("1", "any"))));
+	}
+	
+	@Test
+	public void removeAllShouldTakeProductsOutOfEveryCategory() {
+		
+		RoaringBitmap before = bitmaps.match(CategoryFilter.parse("2", "any"));
+		
+		bitmaps.removeAll(RoaringBitmap.bitmapOf(1, 3));
+		
+		Assertions.assertEquals(List.of(1, 2), ids(before));
+		Assertions.assertEquals(List.of(2), ids(bitmaps.match(CategoryFilter.parse("1,2,3", "any"))));
+	}
+	
+	@Test
+	public void parseShouldThrowInvalidParameterExceptionWhenFilterIsInvalid() {
+		
+		Assertions.assertThrows(InvalidParameterException.class, () -> CategoryFilter.parse("1,x", "any"));
+		Assertions.assertThrows(InvalidParameterException.class, () -> CategoryFilter.parse(" , ", "any"));
+		Assertions.assertThrows(InvalidParameterException.class, () -> CategoryFilter.parse("1", "some"));
+	}
+	
+	private static List<Integer> ids(RoaringBitmap bitmap) {
+		return bitmap.stream().boxed().collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,69 @@
+package com.ssotter.sscatalog.services.pagination;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CountCacheTests {
+	
+	private CountCache cache;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		cache = new CountCache();
+	}
+	
+	@Test
+	public void getShouldCountOnceAndReuseTotal() {
+		
+		AtomicInteger counts = new AtomicInteger();
+		
+		Assertions.assertEquals(25L, cache.get("products", () -> 25L + counts.getAndIncrement()));
+		Assertions.assertEquals(25L, cache.get("products", () -> 25L + counts.getAndIncrement()));
+		Assertions.assertEquals(1, counts.get());
+	}
+	
+	@Test
+	public void getShouldNotCacheCountThatOverlapsEviction() {
+		
+		long first = cache.get("products:category=1", () -> {
+			cache.invalidate("products");
+			return 25L;
+		});
+		long second = cache.get("products:category=1", () -> 24L);
+		
+		Assertions.assertEquals(25L, first);
+		Assertions.assertEquals(24L, second);
+	}
+	
+	@Test
+	public void getShouldNotBlockOtherCallersWhileCounting() throws Exception {
+		
+		CountDownLatch counting = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> cache.get("products", () -> {
+			counting.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return 25L;
+		}));
+		Assertions.assertTrue(counting.await(5, TimeUnit.SECONDS));
+		
+		// the eviction lands while the count is still running
+		CompletableFuture<Void> evict = CompletableFuture.runAsync(() -> cache.invalidate("products"));
+		evict.get(5, TimeUnit.SECONDS);
+		release.countDown();
+		
+		Assertions.assertEquals(25L, slow.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(24L, cache.get("products", () -> 24L));
+	}
+}
@@ -0,0 +1,145 @@
+package com.ssotter.sscatalog.services.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ssotter.sscatalog.dto.SuggestionDTO;
+
+public class NameSuggesterTests {
+	
+	private NameSuggester suggester;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		suggester = new NameSuggester();
+		suggester.replaceAll(Map.of(
+				1L, "PC Gamer Alfa",
+				2L, "Notebook Gamer",
+				3L, "PC Gamer",
+				4L, "Câmera  Digital"));
+	}
+	
+	@Test
+	public void suggestShouldRankNameStartsFirstThenShorterNames() {
+		
+		Assertions.assertEquals(List.of("PC Gamer", "PC Gamer Alfa"), names(suggester.suggest("pc", 10)));
+		Assertions.assertEquals(List.of("PC Gamer", "PC Gamer Alfa", "Notebook Gamer"),
+				names(suggester.suggest("gam", 10)));
+		Assertions.assertEquals(List.of("PC Gamer"), names(suggester.suggest("PC gamer", 1)));
+	}
+	
+	@Test
+	public void suggestShouldIgnoreAccentsCaseAndRepeatedSpaces() {
+		
+		Assertions.assertEquals(List.of("Câmera  Digital"), names(suggester.suggest(" CAMERA d", 10)));
+		Assertions.assertEquals(List.of("Câmera  Digital"), names(suggester.suggest("digi", 10)));
+		Assertions.assertTrue(suggester.suggest("  ", 10).isEmpty());
+	}
+	
+	@Test
+	public void putShouldReplaceAndRemoveKeysOfOneProduct() {
+		
+		long bytes = suggester.getEstimatedBytes();
+		
+		suggester.put(2L, "Notebook Pro");
+		suggester.put(3L, null);
+		suggester.put(5L, "Projetor");
+		
+		Assertions.assertEquals(List.of("PC Gamer Alfa"), names(suggester.suggest("gam", 10)));
+		Assertions.assertEquals(List.of("Projetor", "Notebook Pro"), names(suggester.suggest("pro", 10)));
+		Assertions.assertEquals(4, suggester.getNameCount());
+		Assertions.assertTrue(suggester.getEstimatedBytes() > 0 && suggester.getEstimatedBytes() != bytes);
+	}
+	
+	@Test
+	public void putAllShouldReplaceAddAndRemoveProductsInOneCall() {
+		
+		Map<Long, String> names = new HashMap<>();
+		names.put(1L, "Monitor Gamer");
+		names.put(3L, null);
+		names.put(5L, "Projetor");
+		suggester.putAll(names);
+		
+		Assertions.assertEquals(List.of("Monitor Gamer", "Notebook Gamer"), names(suggester.suggest("gam", 10)));
+		Assertions.assertEquals(List.of("Projetor"), names(suggester.suggest("pro", 10)));
+		Assertions.assertTrue(suggester.suggest("pc", 10).isEmpty());
+		Assertions.assertEquals(4, suggester.getNameCount());
+	}
+	
+	@Test
+	public void removeAllShouldDropKeysOfEveryGivenProduct() {
+		
+		suggester.removeAll(Set.of(1L, 3L, 99L));
+		
+		Assertions.assertEquals(List.of("Notebook Gamer"), names(suggester.suggest("gam", 10)));
+		Assertions.assertTrue(suggester.suggest("pc", 10).isEmpty());
+		Assertions.assertEquals(2, suggester.getNameCount());
+	}
+	
+	@Test
+	public void suggestShouldRankLargeRangesTheSameWay() {
+		
+		Map<Long, String> names = new HashMap<>();
+		for (long i = 1; i <= 1000; i++) {
+			names.put(i, "Item " + i);
+		}
+		suggester.replaceAll(names);
+		
+		Assertions.assertEquals(List.of("Item 1", "Item 2", "Item 3"), names(suggester.suggest("it", 3)));
+		Assertions.assertEquals(List.of("Item 1", "Item 2"), names(suggester.suggest("it", 2)));
+		Assertions.assertEquals(1000, suggester.getNameCount());
+	}
+	
+	@Test
+	public void putShouldLeaveMainArraysAloneUntilDeltaOutgrowsThem() {
+		
+		Map<Long, String> names = new HashMap<>();
+		for (long i = 1; i <= 1000; i++) {
+			names.put(i, "Item " + i);
+		}
+		suggester.replaceAll(names);
+		Object base = ReflectionTestUtils.getField(ReflectionTestUtils.getField(suggester, "snapshot"), "base");
+		
+		suggester.put(1L, "Projetor");
+		suggester.put(2L, null);
+		names.put(1L, "Projetor");
+		names.remove(2L);
+		
+		Assertions.assertSame(base, ReflectionTestUtils.getField(ReflectionTestUtils.getField(suggester, "snapshot"), "base"));
+		Assertions.assertEquals(List.of("Item 3", "Item 4"), names(suggester.suggest("it", 2)));
+		Assertions.assertEquals(List.of("Projetor"), names(suggester.suggest("pro", 10)));
+		assertSameCounts(names);
+		
+		Map<Long, String> added = new HashMap<>();
+		for (long i = 1001; i <= 1600; i++) {
+			added.put(i, "Produto " + i);
+		}
+		suggester.putAll(added);
+		names.putAll(added);
+		
+		Assertions.assertNotSame(base, ReflectionTestUtils.getField(ReflectionTestUtils.getField(suggester, "snapshot"), "base"));
+		Assertions.assertEquals(List.of("Projetor", "Produto 1001"), names(suggester.suggest("pro", 2)));
+		Assertions.assertEquals(List.of("Item 3"), names(suggester.suggest("it", 1)));
+		assertSameCounts(names);
+	}
+	
+	private void assertSameCounts(Map<Long, String> names) {
+		NameSuggester rebuilt = new NameSuggester();
+		rebuilt.replaceAll(names);
+		Assertions.assertEquals(rebuilt.getNameCount(), suggester.getNameCount());
+		Assertions.assertEquals(rebuilt.getKeyCount(), suggester.getKeyCount());
+		Assertions.assertEquals(rebuilt.getEstimatedBytes(), suggester.getEstimatedBytes());
+	}
+	
+	private static List<String> names(List<SuggestionDTO> list) {
+		return list.stream().map(SuggestionDTO::getName).collect(Collectors.toList());
+	}
+}
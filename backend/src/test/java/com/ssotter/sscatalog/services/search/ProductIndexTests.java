@@ -0,0 +1,187 @@
+package com.ssotter.sscatalog.services.search;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.ssotter.sscatalog.entities.Product;
+import com.ssotter.sscatalog.projections.IdRangeProjection;
+import com.ssotter.sscatalog.projections.ProductTextProjection;
+import com.ssotter.sscatalog.repositories.ProductRepository;
+
+public class ProductIndexTests {
+
+	private ProductIndex index;
+	private ProductRepository repository;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		repository = Mockito.mock(ProductRepository.class);
+		index = open("");
+	
+		Mockito.when(repository.findIdRange()).thenReturn(range(1L, 2L));
+		Mockito.when(repository.findTextBetween(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+				.thenReturn(List.of(row(1L, "Notebook Gamer"), row(2L, "PC Gamer")));
+		index.rebuild().join();
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		index.close();
+	}
+	
+	@Test
+	public void rebuildShouldKeepPreviousIndexAndLaterWritesWhenItFailsMidway() throws Exception {
+	
+		index.indexAfterCommit(product(3L, "Smart TV Gamer"));
+		Mockito.when(repository.findIdRange()).thenReturn(range(1L, 3L));
+		Mockito.when(repository.findTextBetween(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+				.thenAnswer(invocation -> {
+					// one range reaches the new index and a commit lands before the other fails
+					index.indexAfterCommit(product(4L, "Mouse Gamer"));
+					return List.of(row(1L, "Notebook Gamer"));
+				})
+				.thenThrow(new IllegalStateException("connection lost"));
+		Assertions.assertThrows(CompletionException.class, () -> index.rebuild().join());
+	
+		Assertions.assertFalse(index.isRebuilding());
+		Assertions.assertEquals(List.of(1L, 2L, 3L, 4L), ids("gamer"));
+		index.indexAfterCommit(product(5L, "Cadeira Gamer"));
+		Assertions.assertEquals(5, index.search("gamer", PageRequest.of(0, 10)).getTotalElements());
+	}
+	
+	@Test
+	public void indexAllAfterCommitShouldIndexEveryProductOfTheBatch() throws Exception {
+		
+		index.indexAllAfterCommit(List.of(product(2L, "PC Office"), product(3L, "Smart TV Gamer"), product(4L, "Mouse Gamer")));
+		
+		Assertions.assertEquals(List.of(1L, 3L, 4L), ids("gamer"));
+		Assertions.assertEquals(List.of(2L), ids("office"));
+	}
+	
+	@Test
+	public void closeShouldStopRebuildWithoutInterruptAndKeepLastCommit(@TempDir Path dir) throws Exception {
+		
+		ProductIndex persistent = open(dir.toString());
+		persistent.rebuild().join();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		Mockito.when(repository.findTextBetween(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+				.thenAnswer(invocation -> {
+					started.countDown();
+					try {
+						release.await();
+					}
+					catch (InterruptedException e) {
+						interrupted.set(true);
+					}
+					return List.of(row(1L, "Notebook Gamer"));
+				});
+		persistent.rebuild();
+		started.await();
+		
+		CompletableFuture<Void> closed = CompletableFuture.runAsync(() -> {
+			try {
+				persistent.close();
+			}
+			catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(persistent, "executor");
+		while (!executor.isShutdown()) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+		closed.get(10, TimeUnit.SECONDS);
+		
+		Assertions.assertFalse(interrupted.get());
+		ProductIndex reopened = open(dir.toString());
+		try {
+			Assertions.assertEquals(List.of(1L, 2L), ids(reopened, "gamer"));
+		}
+		finally {
+			reopened.close();
+		}
+	}
+	
+	private ProductIndex open(String indexDir) throws Exception {
+		ProductIndex opened = new ProductIndex();
+		ReflectionTestUtils.setField(opened, "repository", repository);
+		ReflectionTestUtils.setField(opened, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(opened, "indexDir", indexDir);
+		ReflectionTestUtils.setField(opened, "reindexThreads", 2);
+		opened.open();
+		return opened;
+	}
+	
+	private List<Long> ids(String text) throws Exception {
+		return ids(index, text);
+	}
+	
+	private static List<Long> ids(ProductIndex index, String text) throws Exception {
+		List<Long> ids = new ArrayList<>(index.search(text, PageRequest.of(0, 10)).getContent());
+		ids.sort(null);
+		return ids;
+	}
+	
+	private static Product product(Long id, String name) {
+		return new Product(id, name, null, 100.0, null, null);
+	}
+	
+	private static IdRangeProjection range(Long min, Long max) {
+		return new IdRangeProjection() {
+			@Override
+			public Long getMin() {
+				return min;
+			}
+	
+			@Override
+			public Long getMax() {
+				return max;
+			}
+		};
+	}
+	
+	private static ProductTextProjection row(Long id, String name) {
+		return new ProductTextProjection() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+	
+			@Override
+			public Long getVersion() {
+				return 0L;
+			}
+	
+			@Override
+			public String getName() {
+				return name;
+			}
+	
+			@Override
+			public String getDescription() {
+				return null;
+			}
+		};
+	}
+}
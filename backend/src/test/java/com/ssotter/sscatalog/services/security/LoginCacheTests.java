@@ -0,0 +1,39 @@
+package com.ssotter.sscatalog.services.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class LoginCacheTests {
+	
+	private final LoginCache cache = new LoginCache(Duration.ofMinutes(5), 100);
+	
+	@Test
+	public void matchesShouldAcceptOnlySamePasswordAgainstSameHash() {
+		
+		cache.put("maria@gmail.com", "123456", "$2a$10$hash");
+		
+		Assertions.assertTrue(cache.matches("maria@gmail.com", "123456", "$2a$10$hash"));
+		Assertions.assertFalse(cache.matches("maria@gmail.com", "654321", "$2a$10$hash"));
+		Assertions.assertFalse(cache.matches("maria@gmail.com", "123456", "$2a$10$changed"));
+		Assertions.assertFalse(cache.matches("alex@gmail.com", "123456", "$2a$10$hash"));
+	}
+	
+	@Test
+	public void putShouldKeyEachInstanceDifferently() {
+		
+		LoginCache other = new LoginCache(Duration.ofMinutes(5), 100);
+		cache.put("maria@gmail.com", "123456", "$2a$10$hash");
+		other.put("maria@gmail.com", "123456", "$2a$10$hash");
+		
+		Assertions.assertFalse(Arrays.equals(mac(cache), mac(other)));
+	}
+	
+	private static byte[] mac(LoginCache cache) {
+		Object entry = cache.getNativeCache().getIfPresent("maria@gmail.com");
+		return (byte[]) ReflectionTestUtils.getField(entry, "mac");
+	}
+}
@@ -0,0 +1,78 @@
+package com.ssotter.sscatalog.services.security;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.ssotter.sscatalog.services.exceptions.ServiceUnavailableException;
+
+public class PasswordHasherTests {
+	
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final ExecutorService callers = Executors.newFixedThreadPool(2);
+	
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		callers.shutdownNow();
+	}
+	
+	@Test
+	public void encodeShouldProduceHashThatMatches() {
+		PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 1);
+		
+		String hash = hasher.encode("123456");
+		
+		Assertions.assertTrue(hasher.matches("123456", hash));
+		Assertions.assertFalse(hasher.matches("654321", hash));
+	}
+	
+	@Test
+	public void dummyHashShouldBeComputedOnceAndMatchNoGivenPassword() {
+		PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 1);
+		
+		String hash = hasher.getDummyHash();
+		
+		Assertions.assertSame(hash, hasher.getDummyHash());
+		Assertions.assertFalse(hasher.matches("123456", hash));
+	}
+	
+	@Test
+	public void encodeShouldRejectAtOnceWhenThreadsAndQueueAreFull() throws Exception {
+		BCryptPasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.encode(rawPassword);
+			}
+		};
+		PasswordHasher hasher = new PasswordHasher(blocking, 1, 1);
+		callers.submit(() -> hasher.encode("first"));
+		callers.submit(() -> hasher.encode("second"));
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ((hasher.getActiveCount() < 1 || hasher.getQueueSize() < 1) && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		
+		Assertions.assertThrows(ServiceUnavailableException.class, () -> hasher.encode("third"));
+		Assertions.assertEquals(1, hasher.getRejectedCount());
+	}
+	
+	@Test
+	public void calibrateCostShouldStayWithinBounds() {
+		
+		Assertions.assertEquals(10, PasswordHasher.calibrateCost(0));
+		Assertions.assertEquals(16, PasswordHasher.calibrateCost(Long.MAX_VALUE / 1000));
+	}
+}
@@ -0,0 +1,39 @@
+package com.ssotter.sscatalog.services.validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ScalableBloomFilterTests {
+	
+	@Test
+	public void mightContainShouldNeverMissAnAddedKeyAsStagesGrow() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+		
+		for (int i = 0; i < 5000; i++) {
+			filter.add("user" + i + "@gmail.com");
+		}
+		
+		Assertions.assertTrue(filter.getStageCount() > 1);
+		for (int i = 0; i < 5000; i++) {
+			Assertions.assertTrue(filter.mightContain("user" + i + "@gmail.com"));
+		}
+	}
+	
+	@Test
+	public void mightContainShouldStayNearTargetFalsePositiveRate() {
+		ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+		for (int i = 0; i < 8000; i++) {
+			filter.add("user" + i + "@gmail.com");
+		}
+		
+		int falsePositives = 0;
+		for (int i = 0; i < 20000; i++) {
+			if (filter.mightContain("other" + i + "@gmail.com")) {
+				falsePositives++;
+			}
+		}
+		
+		Assertions.assertTrue(falsePositives / 20000.0 < 0.02, falsePositives + " false positives");
+		Assertions.assertTrue(filter.getExpectedFpp() < 0.02, String.valueOf(filter.getExpectedFpp()));
+	}
+}
@@ -0,0 +1,107 @@
+package com.ssotter.sscatalog.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the application's DataSource and records the SQL executed while a
+ * block runs, from any thread. A JDBC batch counts once, as one round trip.
+ * Import it into a @SpringBootTest and autowire it:
+ * 
+ * Statements sql = sqlRecorder.record(() -> service.findById(1L));
+ * Assertions.assertEquals(1, sql.count(), sql.toString());
+ * 
+ * Inside a @Transactional test Hibernate only flushes pending UPDATEs and
+ * DELETEs when asked, so blocks that write should end with a flush. The
+ * search index rebuild that starts with the context is left out.
+ */
+public class SqlRecorder implements BeanPostProcessor {
+	
+	private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+	private volatile boolean recording;
+	
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+			return ProxyDataSourceBuilder.create((DataSource) bean).listener(new QueryExecutionListener() {
+				@Override
+				public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+				}
+				
+				@Override
+				public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+					if (recording && !Thread.currentThread().getName().startsWith("product-reindex-")) {
+						statements.add(queryInfoList.get(0).getQuery().toLowerCase(Locale.ROOT));
+					}
+				}
+			}).build();
+		}
+		return bean;
+	}
+	
+	public Statements record(Block block) throws Exception {
+		statements.clear();
+		recording = true;
+		try {
+			block.run();
+		}
+		finally {
+			recording = false;
+		}
+		return new Statements(new ArrayList<>(statements));
+	}
+	
+	@FunctionalInterface
+	public interface Block {
+		void run() throws Exception;
+	}
+	
+	public static class Statements {
+		private final List<String> list;
+		
+		Statements(List<String> list) {
+			this.list = list;
+		}
+		
+		public int count() {
+			return list.size();
+		}
+		
+		/**
+		 * Statements of one kind: "select", "insert", "update" or "delete".
+		 */
+		public long count(String kind) {
+			return list.stream().filter(sql -> sql.startsWith(kind)).count();
+		}
+		
+		/**
+		 * Statements of one kind that mention the table anywhere.
+		 */
+		public long count(String kind, String table) {
+			Pattern pattern = Pattern.compile("\\b" + table + "\\b");
+			return list.stream().filter(sql -> sql.startsWith(kind) && pattern.matcher(sql).find()).count();
+		}
+		
+		public List<String> getList() {
+			return list;
+		}
+		
+		@Override
+		public String toString() {
+			return list.size() + " statements:\n" + String.join("\n", list);
+		}
+	}
+}